@@ -0,0 +1,107 @@
+package com.stocksensei.config;
+
+import com.stocksensei.service.AdmissionControlService;
+import com.stocksensei.service.AdmissionControlService.EndpointClass;
+import com.stocksensei.service.ClusterService;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies admission control to REST requests: per-client rate limit, then a
+ * concurrency slot of the endpoint's class. Rejected requests get
+ * 429 Too Many Requests with a Retry-After header.
+ * The SSE stream and the long-poll endpoint park by design, so they are
+ * rate limited but do not take a slot. /api/cluster calls from other cluster
+ * nodes are scatter-gather traffic already admitted on the node the client
+ * called, so they pass; from anyone else they are limited like the rest.
+ */
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+    private static final String SLOT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".slot";
+    private static final List<String> GRAPH_ENDPOINTS = List.of(
+            "/api/stocks/sorted", "/api/stocks/related/**", "/api/stocks/clusters",
+            "/api/stocks/hubs", "/api/graph/**");
+    private static final List<String> PARKING_ENDPOINTS = List.of("/api/stocks/stream", "/api/stocks/updates");
+    private static final String CLUSTER_ENDPOINTS = "/api/cluster/**";
+
+    @Autowired
+    private AdmissionControlService admissionControl;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (!admissionControl.isEnabled() || request.getDispatcherType() != DispatcherType.REQUEST
+                || "OPTIONS".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (pathMatcher.match(CLUSTER_ENDPOINTS, path) && clusterService.isPeer(request)) {
+            return true;
+        }
+        EndpointClass endpointClass = classify(request.getMethod(), path);
+
+        long wait = admissionControl.tryAcquireToken(clusterService.clientAddress(request), endpointClass);
+        if (wait > 0) {
+            reject(response, TimeUnit.NANOSECONDS.toSeconds(wait) + 1, "Rate limit exceeded");
+            return false;
+        }
+        if (matches(PARKING_ENDPOINTS, path)) {
+            return true;
+        }
+        if (!admissionControl.acquireSlot(endpointClass)) {
+            reject(response, 1, "Server busy, retry later");
+            return false;
+        }
+        request.setAttribute(SLOT_ATTRIBUTE, endpointClass);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        Object endpointClass = request.getAttribute(SLOT_ATTRIBUTE);
+        if (endpointClass != null) {
+            request.removeAttribute(SLOT_ATTRIBUTE);
+            admissionControl.releaseSlot((EndpointClass) endpointClass);
+        }
+    }
+
+    private EndpointClass classify(String method, String path) {
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return EndpointClass.WRITE;
+        }
+        return matches(GRAPH_ENDPOINTS, path) ? EndpointClass.GRAPH : EndpointClass.READ;
+    }
+
+    private boolean matches(List<String> patterns, String path) {
+        for (String pattern : patterns) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterSeconds, String message) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write(message);
+    }
+}
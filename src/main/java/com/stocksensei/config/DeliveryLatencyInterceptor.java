@@ -0,0 +1,29 @@
+package com.stocksensei.config;
+
+import com.stocksensei.service.LatencyTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the 'send' latency stage: runs on the client outbound channel's
+ * workers after a message carrying an ingest timestamp has been written to
+ * its WebSocket session.
+ */
+@Component
+public class DeliveryLatencyInterceptor implements ExecutorChannelInterceptor {
+
+    @Autowired
+    private LatencyTracker latencyTracker;
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        Object ingestNanos = message.getHeaders().get(LatencyTracker.INGEST_NANOS_HEADER);
+        if (ex == null && ingestNanos instanceof Long) {
+            latencyTracker.record(LatencyTracker.Stage.SEND, (Long) ingestNanos);
+        }
+    }
+}
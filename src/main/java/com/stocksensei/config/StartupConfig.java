@@ -0,0 +1,27 @@
+package com.stocksensei.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.lang.reflect.Method;
+
+/**
+ * Lazy initialization (spring.main.lazy-initialization=true, 'fast' profile).
+ * Beans are created on first use, except the ones with @Scheduled methods:
+ * their tasks are only registered once the bean exists, so the simulator,
+ * leaderboards, analytics and snapshots stay eager.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter scheduledBeansExcludeFilter() {
+        return (beanName, definition, type) -> type != null && !MethodIntrospector.selectMethods(type,
+                (MethodIntrospector.MetadataLookup<Scheduled>) (Method method) ->
+                        AnnotatedElementUtils.findMergedAnnotation(method, Scheduled.class)).isEmpty();
+    }
+}
@@ -0,0 +1,263 @@
+package com.stocksensei.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stocksensei.controller.StockWebSocketController;
+import com.stocksensei.service.StockAnalysisService;
+import com.stocksensei.service.StocksSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Snapshot-then-updates protocol and per-session conflation for /topic/stocks.
+ *
+ * Handshake: a client subscribes to /user/queue/snapshot, then to
+ * /topic/stocks. Once the broker has registered the second subscription, the
+ * session gets every stock as of market version V on /user/queue/snapshot;
+ * stock updates for the session are held until the snapshot has been handed
+ * to it, and those with sequence <= V are dropped, so after the snapshot the
+ * client only sees newer updates. Clients without a snapshot subscription get
+ * the plain stream.
+ *
+ * Conflation: each session's backlog is the number of messages that entered
+ * the outbound channel for it minus the frames written to its socket (counted
+ * by a session decorator, so the send buffer of a slow client is included).
+ * Past stock.websocket.max-backlog, stock updates are parked in a map holding
+ * the latest message per destination and symbol, released as the backlog
+ * drains: a slow client skips stale ticks instead of buffering all of them.
+ *
+ * Stock updates relayed by an external broker (cluster mode) lose their
+ * symbol and sequence headers and pass through unchanged; the handshake is
+ * skipped there, as the local market is only one partition.
+ */
+@Component
+public class StockStreamSessions implements WebSocketHandlerDecoratorFactory {
+    public static final String SNAPSHOT_DESTINATION = "/user/queue/snapshot";
+    private static final String STOCKS_DESTINATION = "/topic/stocks";
+    // Marks the snapshot and released (already counted) messages on the outbound channel
+    private static final String SNAPSHOT_HEADER = "stocksensei.snapshot";
+    private static final String RELEASED_HEADER = "stocksensei.released";
+
+    @Autowired
+    private StockAnalysisService analysisService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // The channel's configuration registers our interceptor, hence lazy
+    @Autowired
+    @Lazy
+    @Qualifier("clientOutboundChannel")
+    private MessageChannel clientOutboundChannel;
+
+    @Value("${stock.websocket.max-backlog:16}")
+    private int maxBacklog;
+
+    @Value("${stock.cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+
+    private final ExecutorChannelInterceptor inbound = new ExecutorChannelInterceptor() {
+        // Runs on the session's receiving thread, so frames are seen in the order sent
+        @Override
+        public Message<?> preSend(Message<?> message, MessageChannel channel) {
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+            SessionState state = accessor.getSessionId() != null ? sessions.get(accessor.getSessionId()) : null;
+            if (state == null) {
+                return message;
+            }
+            if (accessor.getMessageType() == SimpMessageType.SUBSCRIBE
+                    && SNAPSHOT_DESTINATION.equals(accessor.getDestination())) {
+                state.snapshotSubscriptionId = accessor.getSubscriptionId();
+            } else if (accessor.getMessageType() == SimpMessageType.UNSUBSCRIBE
+                    && accessor.getSubscriptionId() != null
+                    && accessor.getSubscriptionId().equals(state.snapshotSubscriptionId)) {
+                state.snapshotSubscriptionId = null;
+            }
+            return message;
+        }
+
+        @Override
+        public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+            if (ex == null && handler instanceof AbstractBrokerMessageHandler
+                    && accessor.getMessageType() == SimpMessageType.SUBSCRIBE
+                    && STOCKS_DESTINATION.equals(accessor.getDestination())) {
+                SessionState state = sessions.get(accessor.getSessionId());
+                if (state != null && state.snapshotSubscriptionId != null && !clusterEnabled) {
+                    sendSnapshot(accessor.getSessionId(), state);
+                }
+            }
+        }
+    };
+
+    private final ExecutorChannelInterceptor outbound = new ExecutorChannelInterceptor() {
+        @Override
+        public Message<?> preSend(Message<?> message, MessageChannel channel) {
+            String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+            SessionState state = sessionId != null ? sessions.get(sessionId) : null;
+            if (state == null || message.getHeaders().containsKey(RELEASED_HEADER)) {
+                return message;
+            }
+            Object symbol = message.getHeaders().get(StockWebSocketController.SYMBOL_HEADER);
+            synchronized (state) {
+                if (symbol != null) {
+                    if (isSuperseded(message, state)) {
+                        return null;
+                    }
+                    if (state.awaitingSnapshot || state.backlog >= maxBacklog || !state.parked.isEmpty()) {
+                        state.parked.put(SimpMessageHeaderAccessor.getDestination(message.getHeaders()) + " " + symbol,
+                                message);
+                        return null;
+                    }
+                }
+                state.backlog++;
+            }
+            return message;
+        }
+
+        @Override
+        public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+            if (message.getHeaders().containsKey(SNAPSHOT_HEADER)) {
+                SessionState state = sessions.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+                if (state != null) {
+                    synchronized (state) {
+                        state.awaitingSnapshot = false;
+                    }
+                    release(state);
+                }
+            }
+        }
+    };
+
+    public ExecutorChannelInterceptor getInboundInterceptor() {
+        return inbound;
+    }
+
+    public ExecutorChannelInterceptor getOutboundInterceptor() {
+        return outbound;
+    }
+
+    // Track every session's socket writes
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                SessionState state = new SessionState();
+                sessions.put(session.getId(), state);
+                super.afterConnectionEstablished(new WebSocketSessionDecorator(session) {
+                    @Override
+                    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+                        try {
+                            super.sendMessage(message);
+                        } finally {
+                            synchronized (state) {
+                                state.backlog = Math.max(0, state.backlog - 1);
+                            }
+                            release(state);
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    private void sendSnapshot(String sessionId, SessionState state) {
+        // Hold updates first, so none newer than the snapshot can overtake it
+        synchronized (state) {
+            state.awaitingSnapshot = true;
+        }
+        StocksSnapshot snapshot = analysisService.getSnapshot();
+        synchronized (state) {
+            state.snapshotVersion = snapshot.getVersion();
+        }
+
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(snapshot);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode stock snapshot", e);
+        }
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setSubscriptionId(state.snapshotSubscriptionId);
+        headers.setDestination(SNAPSHOT_DESTINATION);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        headers.setHeader(SNAPSHOT_HEADER, snapshot.getVersion());
+        headers.setLeaveMutable(true);
+        clientOutboundChannel.send(MessageBuilder.createMessage(payload, headers.getMessageHeaders()));
+    }
+
+    // Send parked updates while the session has room, oldest symbol first
+    private void release(SessionState state) {
+        List<Message<?>> released = new ArrayList<>();
+        synchronized (state) {
+            if (state.awaitingSnapshot) {
+                return;
+            }
+            Iterator<Message<?>> parked = state.parked.values().iterator();
+            while (parked.hasNext() && state.backlog < maxBacklog) {
+                Message<?> message = parked.next();
+                parked.remove();
+                if (!isSuperseded(message, state)) {
+                    state.backlog++;
+                    released.add(message);
+                }
+            }
+        }
+        for (Message<?> message : released) {
+            clientOutboundChannel.send(MessageBuilder.fromMessage(message).setHeader(RELEASED_HEADER, true).build());
+        }
+    }
+
+    // Already part of the snapshot the session received
+    private static boolean isSuperseded(Message<?> message, SessionState state) {
+        Object sequence = message.getHeaders().get(StockWebSocketController.SEQUENCE_HEADER);
+        return sequence instanceof Long && (Long) sequence <= state.snapshotVersion;
+    }
+
+    private static class SessionState {
+        // Outbound messages accepted for the session and not yet written to its socket
+        int backlog;
+        // Latest parked stock update per "destination symbol", in arrival order of the key
+        final LinkedHashMap<String, Message<?>> parked = new LinkedHashMap<>();
+        boolean awaitingSnapshot;
+        long snapshotVersion = -1;
+        volatile String snapshotSubscriptionId;
+    }
+}
@@ -0,0 +1,47 @@
+package com.stocksensei.config;
+
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Assigns a principal to each WebSocket session so user destinations
+ * (/user/queue/...) can be resolved without an authentication layer.
+ * Clients pass ?user=<id> on the handshake URL, otherwise a random id is used.
+ */
+public class UserHandshakeHandler extends DefaultHandshakeHandler {
+
+    @Override
+    protected Principal determineUser(ServerHttpRequest request, WebSocketHandler wsHandler,
+                                      Map<String, Object> attributes) {
+        Principal principal = super.determineUser(request, wsHandler, attributes);
+        if (principal != null) {
+            return principal;
+        }
+
+        String user = UriComponentsBuilder.fromUri(request.getURI())
+                .build()
+                .getQueryParams()
+                .getFirst("user");
+        String name = (user == null || user.isBlank()) ? UUID.randomUUID().toString() : user;
+        return new StompPrincipal(name);
+    }
+
+    static class StompPrincipal implements Principal {
+        private final String name;
+
+        StompPrincipal(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -1,29 +1,115 @@
 package com.stocksensei.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.*;
 
 /**
  * WebSocket configuration for real-time stock updates
+ *
+ * Single node: in-memory simple broker. Cluster mode: every node relays its
+ * STOMP traffic through a shared external broker (RabbitMQ, ActiveMQ, ...)
+ * so updates published on one node reach subscribers on all nodes.
+ *
+ * StockStreamSessions hooks into both client channels and every session for
+ * the /topic/stocks snapshot handshake and per-session conflation.
  */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Autowired
+    private DeliveryLatencyInterceptor deliveryLatencyInterceptor;
+
+    @Autowired
+    private StockStreamSessions stockStreamSessions;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${stock.websocket.outbound-threads:64}")
+    private int outboundThreads;
+
+    @Value("${stock.cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    @Value("${stock.cluster.broker.host:localhost}")
+    private String brokerHost;
+
+    @Value("${stock.cluster.broker.port:61613}")
+    private int brokerPort;
+
+    @Value("${stock.cluster.broker.login:guest}")
+    private String brokerLogin;
+
+    @Value("${stock.cluster.broker.passcode:guest}")
+    private String brokerPasscode;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple in-memory message broker
-        config.enableSimpleBroker("/topic");
+        if (clusterEnabled) {
+            // Relay to the shared broker; user destinations that cannot be resolved
+            // locally and the user registry itself are broadcast to the other nodes
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(brokerHost)
+                    .setRelayPort(brokerPort)
+                    .setClientLogin(brokerLogin)
+                    .setClientPasscode(brokerPasscode)
+                    .setSystemLogin(brokerLogin)
+                    .setSystemPasscode(brokerPasscode)
+                    .setUserDestinationBroadcast("/topic/cluster.unresolved-user")
+                    .setUserRegistryBroadcast("/topic/cluster.user-registry");
+        } else {
+            // Enable a simple in-memory message broker
+            config.enableSimpleBroker("/topic", "/queue");
+        }
         // Prefix for messages from client to server
         config.setApplicationDestinationPrefixes("/app");
+        // Prefix for per-user destinations such as /user/queue/alerts
+        config.setUserDestinationPrefix("/user");
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // Register STOMP endpoint
         registry.addEndpoint("/ws-stocks")
+                .setHandshakeHandler(new UserHandshakeHandler())
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
+
+        // Plain WebSocket endpoint (no SockJS) for binary (.cbor) topics
+        registry.addEndpoint("/ws-stocks-raw")
+                .setHandshakeHandler(new UserHandshakeHandler())
+                .setAllowedOriginPatterns("*");
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.addDecoratorFactory(stockStreamSessions);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stockStreamSessions.getInboundInterceptor());
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stockStreamSessions.getOutboundInterceptor(), deliveryLatencyInterceptor);
+        if (virtualThreads) {
+            // Fan-out to sessions blocks on socket writes; run the workers on virtual
+            // threads so a large pool of slow sends does not tie up platform threads
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setThreadFactory(new VirtualThreadTaskExecutor("ws-outbound-").getVirtualThreadFactory());
+            executor.setCorePoolSize(outboundThreads);
+            executor.setMaxPoolSize(outboundThreads);
+            executor.setAllowCoreThreadTimeOut(true);
+            registration.taskExecutor(executor);
+        }
     }
-}
\ No newline at end of file
+}
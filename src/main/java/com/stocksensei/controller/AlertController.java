@@ -0,0 +1,91 @@
+package com.stocksensei.controller;
+
+import com.stocksensei.model.AlertRule;
+import com.stocksensei.service.AlertEngine;
+import com.stocksensei.service.ClusterService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * REST Controller for price alert / screener rules.
+ * Fired alerts are delivered over STOMP on /user/queue/alerts
+ * (connect to /ws-stocks?user={userId}).
+ * In cluster mode requests are routed to the node owning the rule's symbol (or id).
+ */
+@RestController
+@RequestMapping("/api/alerts")
+@CrossOrigin(origins = "*")
+public class AlertController {
+
+    @Autowired
+    private AlertEngine alertEngine;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    /**
+     * Register an alert rule
+     */
+    @PostMapping
+    public ResponseEntity<?> registerRule(@RequestBody AlertRule rule) {
+        if (rule.getSymbol() != null && !clusterService.isLocal(rule.getSymbol())) {
+            return clusterService.forward(clusterService.ownerOf(rule.getSymbol()),
+                    HttpMethod.POST, "/api/alerts", rule, AlertRule.class);
+        }
+        try {
+            return ResponseEntity.ok(alertEngine.registerRule(rule));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Get rules registered by a user
+     */
+    @GetMapping
+    public ResponseEntity<List<AlertRule>> getRules(@RequestParam String userId) {
+        List<AlertRule> rules = new ArrayList<>();
+        for (AlertRule[] partition : clusterService.gather(
+                () -> alertEngine.getRulesForUser(userId).toArray(new AlertRule[0]),
+                ClusterService.path("/api/cluster/partition/alerts?userId={userId}", userId),
+                AlertRule[].class)) {
+            rules.addAll(Arrays.asList(partition));
+        }
+        rules.sort(Comparator.comparingLong(AlertRule::getId));
+        return ResponseEntity.ok(rules);
+    }
+
+    /**
+     * Get a single rule
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<AlertRule> getRule(@PathVariable long id) {
+        int owner = clusterService.ownerOfId(id);
+        if (owner != clusterService.getNodeIndex()) {
+            return clusterService.forward(owner, HttpMethod.GET, "/api/alerts/" + id, null, AlertRule.class);
+        }
+        AlertRule rule = alertEngine.getRule(id);
+        return rule != null ? ResponseEntity.ok(rule) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Delete a rule
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<String> deleteRule(@PathVariable long id) {
+        int owner = clusterService.ownerOfId(id);
+        if (owner != clusterService.getNodeIndex()) {
+            return clusterService.forward(owner, HttpMethod.DELETE, "/api/alerts/" + id, null, String.class);
+        }
+        return alertEngine.removeRule(id)
+                ? ResponseEntity.ok("Rule " + id + " deleted")
+                : ResponseEntity.notFound().build();
+    }
+}
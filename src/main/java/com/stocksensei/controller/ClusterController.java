@@ -0,0 +1,110 @@
+package com.stocksensei.controller;
+
+import com.stocksensei.model.AlertRule;
+import com.stocksensei.model.Portfolio;
+import com.stocksensei.model.Stock;
+import com.stocksensei.service.AdmissionControlService;
+import com.stocksensei.service.AlertEngine;
+import com.stocksensei.service.ClusterService;
+import com.stocksensei.service.LeaderboardService;
+import com.stocksensei.service.MarketSummary;
+import com.stocksensei.service.PortfolioEngine;
+import com.stocksensei.service.StockAnalysisService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cluster membership and partition-local queries.
+ * The /partition endpoints answer for this node's symbols only; peers call
+ * them when scattering a global query.
+ */
+@RestController
+@RequestMapping("/api/cluster")
+@CrossOrigin(origins = "*")
+public class ClusterController {
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Autowired
+    private StockAnalysisService analysisService;
+
+    @Autowired
+    private AlertEngine alertEngine;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private PortfolioEngine portfolioEngine;
+
+    @Autowired
+    private AdmissionControlService admissionControl;
+
+    /**
+     * Node position, cluster size and local partition size
+     */
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", clusterService.isEnabled());
+        status.put("nodeIndex", clusterService.getNodeIndex());
+        status.put("nodeCount", clusterService.getNodeCount());
+        status.put("nodes", clusterService.getNodes());
+        status.put("localStocks", analysisService.getAllStocks().size());
+        status.put("version", analysisService.getVersion());
+        return ResponseEntity.ok(status);
+    }
+
+    /**
+     * Top K stocks of this partition, or top K movers within a window
+     */
+    @GetMapping("/partition/top")
+    public ResponseEntity<List<?>> getPartitionTop(
+            @RequestParam(defaultValue = "priceChange") String criterion,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(required = false) String window) {
+        int limit = admissionControl.capK(k);
+        if (window != null) {
+            return ResponseEntity.ok(leaderboardService.getLocalTopMovers(window, criterion, limit));
+        }
+        return ResponseEntity.ok(analysisService.getTopStocks(criterion, limit));
+    }
+
+    /**
+     * Market summary of this partition
+     */
+    @GetMapping("/partition/summary")
+    public ResponseEntity<MarketSummary> getPartitionSummary() {
+        return ResponseEntity.ok(analysisService.getMarketSummary());
+    }
+
+    /**
+     * Stocks owned by this node
+     */
+    @GetMapping("/partition/stocks")
+    public ResponseEntity<List<Stock>> getPartitionStocks() {
+        return ResponseEntity.ok(analysisService.getAllStocks());
+    }
+
+    /**
+     * Alert rules of a user registered on this node
+     */
+    @GetMapping("/partition/alerts")
+    public ResponseEntity<List<AlertRule>> getPartitionAlerts(@RequestParam String userId) {
+        return ResponseEntity.ok(alertEngine.getRulesForUser(userId));
+    }
+
+    /**
+     * Portfolios of a user created on this node
+     */
+    @GetMapping("/partition/portfolios")
+    public ResponseEntity<List<Portfolio>> getPartitionPortfolios(@RequestParam String userId) {
+        return ResponseEntity.ok(portfolioEngine.getPortfoliosForUser(userId));
+    }
+}
@@ -0,0 +1,88 @@
+package com.stocksensei.controller;
+
+import com.stocksensei.service.AdmissionControlService;
+import com.stocksensei.service.GraphAnalyticsResult;
+import com.stocksensei.service.GraphAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * REST Controller for weighted graph analytics.
+ * Results are computed in the background and served from cache.
+ * k is capped at stock.admission.max-k.
+ */
+@RestController
+@RequestMapping("/api/graph")
+@CrossOrigin(origins = "*")
+public class GraphController {
+
+    @Autowired
+    private GraphAnalyticsService graphAnalyticsService;
+
+    @Autowired
+    private AdmissionControlService admissionControl;
+
+    /**
+     * Get the k nearest stocks by correlation distance
+     */
+    @GetMapping("/nearest/{symbol}")
+    public ResponseEntity<List<GraphAnalyticsResult.RankedSymbol>> getNearest(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "5") int k) {
+        return ResponseEntity.ok(graphAnalyticsService.getNearest(symbol, admissionControl.capK(k)));
+    }
+
+    /**
+     * Get the most central stocks by weighted PageRank
+     */
+    @GetMapping("/centrality")
+    public ResponseEntity<List<GraphAnalyticsResult.RankedSymbol>> getCentrality(
+            @RequestParam(defaultValue = "10") int k) {
+        return ResponseEntity.ok(graphAnalyticsService.getCentrality(admissionControl.capK(k)));
+    }
+
+    /**
+     * Get detected communities of correlated stocks
+     */
+    @GetMapping("/communities")
+    public ResponseEntity<List<List<String>>> getCommunities() {
+        return ResponseEntity.ok(graphAnalyticsService.getCommunities());
+    }
+
+    /**
+     * Get the weighted shortest path between two stocks
+     */
+    @GetMapping("/path")
+    public CompletableFuture<ResponseEntity<GraphAnalyticsResult.GraphPath>> getPath(
+            @RequestParam String from,
+            @RequestParam String to) {
+        return graphAnalyticsService.findPath(from, to)
+                .thenApply(path -> path != null
+                        ? ResponseEntity.ok(path)
+                        : ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Get the status of the last analytics run
+     */
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        GraphAnalyticsResult result = graphAnalyticsService.getResult();
+        status.put("computed", result != null);
+        if (result != null) {
+            status.put("graphVersion", result.getVersion());
+            status.put("vertices", result.getSnapshot().vertexCount());
+            status.put("edges", result.getSnapshot().edgeCount());
+            status.put("computedAt", result.getComputedAt());
+            status.put("durationMillis", result.getDurationMillis());
+        }
+        return ResponseEntity.ok(status);
+    }
+}
@@ -0,0 +1,33 @@
+package com.stocksensei.controller;
+
+import com.stocksensei.service.LatencyTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint for end-to-end update latency:
+ * GET /actuator/latency (p50/p99/p999/max per stage in microseconds),
+ * DELETE /actuator/latency to start a new measurement.
+ */
+@Component
+@Endpoint(id = "latency")
+public class LatencyEndpoint {
+
+    @Autowired
+    private LatencyTracker latencyTracker;
+
+    @ReadOperation
+    public Map<String, Object> latency() {
+        return latencyTracker.report();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        latencyTracker.reset();
+    }
+}
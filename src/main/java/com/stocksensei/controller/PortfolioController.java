@@ -0,0 +1,120 @@
+package com.stocksensei.controller;
+
+import com.stocksensei.model.Portfolio;
+import com.stocksensei.model.Position;
+import com.stocksensei.service.ClusterService;
+import com.stocksensei.service.PortfolioEngine;
+import com.stocksensei.service.PortfolioValuation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * REST Controller for portfolios and their live valuation.
+ * Valuation updates are pushed over STOMP on /topic/portfolios/{id}.
+ * In cluster mode requests are routed to the node that created the portfolio.
+ */
+@RestController
+@RequestMapping("/api/portfolios")
+@CrossOrigin(origins = "*")
+public class PortfolioController {
+
+    @Autowired
+    private PortfolioEngine portfolioEngine;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    /**
+     * Create a portfolio
+     */
+    @PostMapping
+    public ResponseEntity<?> createPortfolio(@RequestBody Portfolio portfolio) {
+        try {
+            return ResponseEntity.ok(portfolioEngine.createPortfolio(portfolio));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Get portfolios of a user
+     */
+    @GetMapping
+    public ResponseEntity<List<Portfolio>> getPortfolios(@RequestParam String userId) {
+        List<Portfolio> portfolios = new ArrayList<>();
+        for (Portfolio[] partition : clusterService.gather(
+                () -> portfolioEngine.getPortfoliosForUser(userId).toArray(new Portfolio[0]),
+                ClusterService.path("/api/cluster/partition/portfolios?userId={userId}", userId),
+                Portfolio[].class)) {
+            portfolios.addAll(Arrays.asList(partition));
+        }
+        portfolios.sort(Comparator.comparingLong(Portfolio::getId));
+        return ResponseEntity.ok(portfolios);
+    }
+
+    /**
+     * Get a single portfolio
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Portfolio> getPortfolio(@PathVariable long id) {
+        int owner = clusterService.ownerOfId(id);
+        if (owner != clusterService.getNodeIndex()) {
+            return clusterService.forward(owner, HttpMethod.GET, "/api/portfolios/" + id, null, Portfolio.class);
+        }
+        Portfolio portfolio = portfolioEngine.getPortfolio(id);
+        return portfolio != null ? ResponseEntity.ok(portfolio) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Get the live value, day P&L and sector exposure of a portfolio
+     */
+    @GetMapping("/{id}/valuation")
+    public ResponseEntity<PortfolioValuation> getValuation(@PathVariable long id) {
+        int owner = clusterService.ownerOfId(id);
+        if (owner != clusterService.getNodeIndex()) {
+            return clusterService.forward(owner, HttpMethod.GET, "/api/portfolios/" + id + "/valuation",
+                    null, PortfolioValuation.class);
+        }
+        PortfolioValuation valuation = portfolioEngine.getValuation(id);
+        return valuation != null ? ResponseEntity.ok(valuation) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Add or replace a position; quantity 0 removes it
+     */
+    @PutMapping("/{id}/positions")
+    public ResponseEntity<?> setPosition(@PathVariable long id, @RequestBody Position position) {
+        int owner = clusterService.ownerOfId(id);
+        if (owner != clusterService.getNodeIndex()) {
+            return clusterService.forward(owner, HttpMethod.PUT, "/api/portfolios/" + id + "/positions",
+                    position, Portfolio.class);
+        }
+        try {
+            Portfolio portfolio = portfolioEngine.setPosition(id, position);
+            return portfolio != null ? ResponseEntity.ok(portfolio) : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Delete a portfolio
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<String> deletePortfolio(@PathVariable long id) {
+        int owner = clusterService.ownerOfId(id);
+        if (owner != clusterService.getNodeIndex()) {
+            return clusterService.forward(owner, HttpMethod.DELETE, "/api/portfolios/" + id, null, String.class);
+        }
+        return portfolioEngine.removePortfolio(id)
+                ? ResponseEntity.ok("Portfolio " + id + " deleted")
+                : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.stocksensei.controller;
+
+import com.stocksensei.service.HistoryLoaderService;
+import com.stocksensei.service.ReplayService;
+import com.stocksensei.service.ReplayStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * REST Controller for replaying and bulk-loading recorded tick files
+ * (record with stock.replay.record=true; files live in stock.replay.directory).
+ */
+@RestController
+@RequestMapping("/api/replay")
+@CrossOrigin(origins = "*")
+public class ReplayController {
+
+    @Autowired
+    private ReplayService replayService;
+
+    @Autowired
+    private HistoryLoaderService loaderService;
+
+    /**
+     * Start a replay
+     * @param file: tick file, relative to the replay directory
+     * @param speed: 1x, Nx or max
+     * @param reset: clear market data first
+     */
+    @PostMapping("/start")
+    public ResponseEntity<?> startReplay(
+            @RequestParam String file,
+            @RequestParam(defaultValue = "max") String speed,
+            @RequestParam(defaultValue = "true") boolean reset) {
+        try {
+            return ResponseEntity.accepted().body(replayService.start(file, speed, reset));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Stop the running replay and resume the simulator
+     */
+    @PostMapping("/stop")
+    public ResponseEntity<ReplayStatus> stopReplay() throws InterruptedException {
+        return ResponseEntity.ok(replayService.stop());
+    }
+
+    /**
+     * Replay progress, throughput and (once finished) the result digest
+     */
+    @GetMapping("/status")
+    public ResponseEntity<ReplayStatus> getStatus() {
+        return ResponseEntity.ok(replayService.getStatus());
+    }
+
+    /**
+     * Bulk-load a tick file into price history and apply its latest quotes,
+     * without replaying it tick by tick
+     * @param file: tick file, relative to the replay directory
+     * @param reset: clear market data and history first
+     */
+    @PostMapping("/load")
+    public ResponseEntity<?> loadFile(
+            @RequestParam String file,
+            @RequestParam(defaultValue = "true") boolean reset) throws IOException {
+        try {
+            return ResponseEntity.ok(loaderService.load(file, reset));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+}
@@ -1,31 +1,125 @@
 package com.stocksensei.controller;
 
 import com.stocksensei.model.Stock;
+import com.stocksensei.service.AdmissionControlService;
+import com.stocksensei.service.ClusterService;
+import com.stocksensei.service.LeaderboardService;
+import com.stocksensei.service.MarketStreamService;
+import com.stocksensei.service.PriceHistoryService;
+import com.stocksensei.service.PricePoint;
+import com.stocksensei.service.ResponseSnapshotCache;
+import com.stocksensei.service.SectorAnalyticsService;
 import com.stocksensei.service.StockAnalysisService;
+import com.stocksensei.service.WireFormat;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * REST Controller for stock market operations
+ * Responses are JSON by default, or CBOR with Accept: application/cbor.
+ * In cluster mode writes go to the owning node and the all-stocks, top-K and
+ * summary reads are gathered from every partition; other reads are partition-local.
+ * Requests pass admission control (rate limits, per-class concurrency, 429 when
+ * shed); k and depth are capped at stock.admission.max-k / max-depth.
  */
 @RestController
 @RequestMapping("/api/stocks")
 @CrossOrigin(origins = "*")
 public class StockController {
+    private static final long MAX_POLL_TIMEOUT_MS = 60000;
+
+    @Value("${stock.stream.heartbeat-interval:15000}")
+    private long streamHeartbeatMillis;
 
     @Autowired
     private StockAnalysisService analysisService;
 
+    @Autowired
+    private MarketStreamService marketStreamService;
+
+    @Autowired
+    private ResponseSnapshotCache snapshotCache;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private PriceHistoryService historyService;
+
+    @Autowired
+    private SectorAnalyticsService sectorAnalyticsService;
+
+    @Autowired
+    private AdmissionControlService admissionControl;
+
     /**
      * Get all stocks
      */
     @GetMapping
-    public ResponseEntity<List<Stock>> getAllStocks() {
-        return ResponseEntity.ok(analysisService.getAllStocks());
+    public ResponseEntity<?> getAllStocks(HttpServletRequest request) {
+        if (clusterService.isEnabled()) {
+            return ResponseEntity.ok(clusterService.getAllStocks());
+        }
+        return snapshot("all", request, analysisService::getAllStocks);
+    }
+
+    /**
+     * Long-poll for the next market update.
+     * Blocks until the market version moves past {@code since}; returns 204 on timeout.
+     */
+    @GetMapping("/updates")
+    public ResponseEntity<Map<String, Object>> pollUpdates(
+            @RequestParam(defaultValue = "-1") long since,
+            @RequestParam(defaultValue = "30000") long timeout) throws InterruptedException {
+        long version = analysisService.awaitUpdate(since,
+                Math.max(0, Math.min(timeout, MAX_POLL_TIMEOUT_MS)));
+        if (version <= since) {
+            return ResponseEntity.noContent().build();
+        }
+
+        Map<String, Object> update = new LinkedHashMap<>();
+        update.put("version", version);
+        update.put("stocks", analysisService.getAllStocks());
+        return ResponseEntity.ok(update);
+    }
+
+    /**
+     * Server-Sent Events stream of stock updates
+     * @param symbols: optional comma-separated symbols to include
+     * @param sector: optional sector to include
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Stock>> streamStocks(
+            @RequestParam(required = false) List<String> symbols,
+            @RequestParam(required = false) String sector) {
+        Flux<ServerSentEvent<Stock>> updates = marketStreamService
+                .stream(symbols != null ? new HashSet<>(symbols) : null, sector)
+                .map(stock -> ServerSentEvent.builder(stock).event("stock").build());
+
+        // Periodic comment so dead connections are detected and proxies keep the stream open
+        Flux<ServerSentEvent<Stock>> heartbeat = Flux.interval(Duration.ofMillis(streamHeartbeatMillis))
+                .map(i -> ServerSentEvent.<Stock>builder().comment("heartbeat").build());
+
+        return Flux.merge(updates, heartbeat);
     }
 
     /**
@@ -40,21 +134,61 @@ public class StockController {
 
     /**
      * Get top K stocks by criterion
+     * @param window: optional sliding window (e.g. 1m, 5m, 15m); ranks movers by their
+     *              return (priceChange), high-low range (volatility) or volume traded within it
      */
     @GetMapping("/top")
-    public ResponseEntity<List<Stock>> getTopStocks(
+    public ResponseEntity<?> getTopStocks(
             @RequestParam(defaultValue = "priceChange") String criterion,
-            @RequestParam(defaultValue = "10") int k) {
-        return ResponseEntity.ok(analysisService.getTopStocks(criterion, k));
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(required = false) String window,
+            HttpServletRequest request) {
+        int limit = admissionControl.capK(k);
+        if (window != null) {
+            if (!leaderboardService.hasWindow(window)) {
+                return ResponseEntity.badRequest().body("Unknown window " + window
+                        + ", expected one of " + leaderboardService.getWindows());
+            }
+            return ResponseEntity.ok(leaderboardService.getTopMovers(window, criterion, limit));
+        }
+        if (clusterService.isEnabled()) {
+            return ResponseEntity.ok(clusterService.getTopStocks(criterion, limit));
+        }
+        return snapshot("top:" + criterion + ":" + limit, request,
+                () -> analysisService.getTopStocks(criterion, limit));
     }
 
     /**
      * Add or update stock
      */
     @PostMapping
-    public ResponseEntity<Stock> addStock(@RequestBody Stock stock) {
-        analysisService.addOrUpdateStock(stock);
-        return ResponseEntity.ok(stock);
+    public ResponseEntity<?> addStock(@RequestBody Stock stock) {
+        try {
+            return clusterService.addOrUpdateStock(stock);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Get the price history of a stock (live ticks and bulk-loaded files; candles once older than the raw tier)
+     * @param from: optional start, epoch millis
+     * @param to: optional end, epoch millis
+     * @param limit: maximum number of points, the most recent ones
+     */
+    @GetMapping("/{symbol}/history")
+    public ResponseEntity<?> getPriceHistory(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "" + Long.MIN_VALUE) long from,
+            @RequestParam(defaultValue = "" + Long.MAX_VALUE) long to,
+            @RequestParam(defaultValue = "1000") int limit) {
+        if (!clusterService.isLocal(symbol)) {
+            return clusterService.forward(clusterService.ownerOf(symbol), HttpMethod.GET,
+                    ClusterService.path("/api/stocks/{symbol}/history?from={from}&to={to}&limit={limit}",
+                            symbol, from, to, limit),
+                    null, PricePoint[].class);
+        }
+        return ResponseEntity.ok(historyService.getHistory(symbol, from, to, limit));
     }
 
     /**
@@ -67,11 +201,23 @@ public class StockController {
     }
 
     /**
-     * Get sector performance metrics
+     * Get sector performance metrics: volume-weighted return, breadth, dispersion
+     * and relative strength against the market per sector
+     * @param window: optional rolling window (e.g. 1m, 5m, 15m); other durations (or "all")
+     *              are recomputed from price history. Without it, returns are since previous close.
      */
     @GetMapping("/sectors/performance")
-    public ResponseEntity<Map<String, ?>> getSectorPerformance() {
-        return ResponseEntity.ok(analysisService.getSectorPerformance());
+    public ResponseEntity<?> getSectorPerformance(
+            @RequestParam(required = false) String window,
+            HttpServletRequest request) {
+        try {
+            // Equal windows (15m, 900s) and ones past the oldest price held share one cache entry
+            String normalised = sectorAnalyticsService.normaliseWindow(window);
+            return snapshot(normalised != null ? "sectors:" + normalised : "sectors", request,
+                    () -> sectorAnalyticsService.getPerformance(normalised));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     /**
@@ -81,7 +227,24 @@ public class StockController {
     public ResponseEntity<List<Stock>> getRelatedStocks(
             @PathVariable String symbol,
             @RequestParam(defaultValue = "2") int depth) {
-        return ResponseEntity.ok(analysisService.findRelatedStocks(symbol, depth));
+        return ResponseEntity.ok(analysisService.findRelatedStocks(symbol, admissionControl.capDepth(depth)));
+    }
+
+    /**
+     * Get clusters of connected stocks
+     */
+    @GetMapping("/clusters")
+    public ResponseEntity<List<List<Stock>>> getStockClusters() {
+        return ResponseEntity.ok(analysisService.findStockClusters());
+    }
+
+    /**
+     * Get the most connected (hub) stocks
+     */
+    @GetMapping("/hubs")
+    public ResponseEntity<List<Stock>> getHubStocks(
+            @RequestParam(defaultValue = "10") int k) {
+        return ResponseEntity.ok(analysisService.getHubStocks(admissionControl.capK(k)));
     }
 
     /**
@@ -97,8 +260,11 @@ public class StockController {
      * Get market summary
      */
     @GetMapping("/summary")
-    public ResponseEntity<?> getMarketSummary() {
-        return ResponseEntity.ok(analysisService.getMarketSummary());
+    public ResponseEntity<?> getMarketSummary(HttpServletRequest request) {
+        if (clusterService.isEnabled()) {
+            return ResponseEntity.ok(clusterService.getMarketSummary());
+        }
+        return snapshot("summary", request, analysisService::getMarketSummary);
     }
 
     /**
@@ -109,4 +275,34 @@ public class StockController {
         analysisService.clearData();
         return ResponseEntity.ok("All data cleared successfully");
     }
+
+    /**
+     * Serve a response body serialized at most once per market version.
+     * Honours If-None-Match and returns the gzip variant (ETag suffixed -gzip) when accepted.
+     */
+    private ResponseEntity<byte[]> snapshot(String key, HttpServletRequest request, Supplier<Object> body) {
+        WireFormat format = WireFormat.fromAccept(request.getHeader(HttpHeaders.ACCEPT));
+        ResponseSnapshotCache.Snapshot snapshot =
+                snapshotCache.get(key, format, analysisService.getVersion(), body);
+
+        // The gzip and identity bodies are different representations, each with its own ETag
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = gzip ? snapshot.getGzipETag() : snapshot.getETag();
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .eTag(etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.getGzipBytes());
+        }
+        return response.body(snapshot.getBytes());
+    }
 }
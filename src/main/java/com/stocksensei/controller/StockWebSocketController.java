@@ -1,39 +1,179 @@
 package com.stocksensei.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.stocksensei.model.Stock;
+import com.stocksensei.service.ClusterService;
+import com.stocksensei.service.LatencyEcho;
+import com.stocksensei.service.LatencyTracker;
+import com.stocksensei.service.LeaderboardUpdate;
+import com.stocksensei.service.PortfolioValuation;
+import com.stocksensei.service.StockUpdateEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Controller;
-
-import java.util.List;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
 /**
  * WebSocket controller for broadcasting stock updates to connected clients
+ *
+ * Every topic also has a binary variant with a ".cbor" suffix
+ * (e.g. /topic/stocks.cbor) carrying CBOR-encoded payloads. Binary variants
+ * are sent as application/octet-stream so they travel in binary WebSocket
+ * frames; subscribe through the raw /ws-stocks-raw endpoint, as SockJS
+ * cannot carry binary frames.
+ *
+ * In cluster mode each node publishes the updates of its own partition to the
+ * shared broker, which fans them out to subscribers on every node.
+ *
+ * Stock updates carry their symbol and sequence (market version) as message
+ * headers, which StockStreamSessions uses for the snapshot handshake and
+ * per-session conflation.
  */
 @Controller
 public class StockWebSocketController {
+    public static final String BINARY_SUFFIX = ".cbor";
+    public static final String SYMBOL_HEADER = "stocksensei.symbol";
+    public static final String SEQUENCE_HEADER = "stocksensei.sequence";
 
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private TopicSubscriptionTracker subscriptionTracker;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Autowired
+    private LatencyTracker latencyTracker;
+
+    @EventListener
+    public void onStockUpdate(StockUpdateEvent event) {
+        broadcastStockUpdate(event.getCurrent());
+    }
+
+    @EventListener
+    public void onLeaderboardUpdate(LeaderboardUpdate update) {
+        broadcastTopStocks(update);
+    }
+
+    @EventListener
+    public void onPortfolioValuation(PortfolioValuation valuation) {
+        broadcastPortfolioValuation(valuation);
+    }
+
     /**
      * Broadcast stock update to all connected clients
      */
     public void broadcastStockUpdate(Stock stock) {
-        messagingTemplate.convertAndSend("/topic/stocks", stock);
+        latencyTracker.broadcast(stock.getSequence(), stock.getIngestNanos());
+        broadcast("/topic/stocks", stock, stock);
+        latencyTracker.record(LatencyTracker.Stage.SERIALIZE, stock.getIngestNanos());
     }
 
     /**
      * Broadcast market summary to all connected clients
      */
     public void broadcastMarketSummary(Object summary) {
-        messagingTemplate.convertAndSend("/topic/summary", summary);
+        broadcast("/topic/summary", summary);
+    }
+
+    /**
+     * Broadcast a window's top movers to all connected clients
+     */
+    public void broadcastTopStocks(LeaderboardUpdate update) {
+        broadcast("/topic/top-stocks", update);
     }
 
     /**
-     * Broadcast top stocks to all connected clients
+     * Send a portfolio's valuation to its topic, skipped when nobody watches it
      */
-    public void broadcastTopStocks(List<Stock> topStocks) {
-        messagingTemplate.convertAndSend("/topic/top-stocks", topStocks);
+    public void broadcastPortfolioValuation(PortfolioValuation valuation) {
+        String destination = "/topic/portfolios/" + valuation.getPortfolioId();
+        if (clusterService.isEnabled() || subscriptionTracker.hasSubscribers(destination)
+                || subscriptionTracker.hasSubscribers(destination + BINARY_SUFFIX)) {
+            broadcast(destination, valuation);
+        }
+    }
+
+    /**
+     * Client echo of a received stock update, for true delivery latency
+     * (timed from the ingest time this node broadcast with the sequence, once per session)
+     */
+    @MessageMapping("/latency-echo")
+    public void onLatencyEcho(LatencyEcho echo, SimpMessageHeaderAccessor headers) {
+        latencyTracker.recordEcho(headers.getSessionId(), echo.getSequence());
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        latencyTracker.forgetSession(event.getSessionId());
+    }
+
+    private void broadcast(String destination, Object payload) {
+        broadcast(destination, payload, null);
+    }
+
+    /**
+     * Send JSON to the topic, and CBOR to its binary variant if anyone subscribed.
+     * For a stock update, its ingest time (send latency), symbol and sequence travel
+     * as headers to the outbound channel.
+     */
+    private void broadcast(String destination, Object payload, Stock update) {
+        try {
+            messagingTemplate.convertAndSend(destination, payload, headers(null, update));
+
+            // Subscribers on other nodes are invisible to the local tracker
+            String binaryDestination = destination + BINARY_SUFFIX;
+            if (clusterService.isEnabled() || subscriptionTracker.hasSubscribers(binaryDestination)) {
+                sendBinary(binaryDestination, payload, update);
+            }
+        } catch (MessageDeliveryException e) {
+            // Broker relay not connected yet or reconnecting; the next update supersedes this one
+        }
+    }
+
+    private void sendBinary(String destination, Object payload, Stock update) {
+        byte[] bytes;
+        try {
+            bytes = cborConverter.getObjectMapper().writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode CBOR payload for " + destination, e);
+        }
+
+        messagingTemplate.send(destination,
+                MessageBuilder.createMessage(bytes, headers(MimeTypeUtils.APPLICATION_OCTET_STREAM, update)));
+    }
+
+    // Null (template defaults) when there is nothing to add
+    private static MessageHeaders headers(MimeType contentType, Stock update) {
+        if (contentType == null && update == null) {
+            return null;
+        }
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create();
+        if (contentType != null) {
+            headers.setContentType(contentType);
+        }
+        if (update != null) {
+            if (update.getIngestNanos() != 0) {
+                headers.setHeader(LatencyTracker.INGEST_NANOS_HEADER, update.getIngestNanos());
+            }
+            headers.setHeader(SYMBOL_HEADER, update.getSymbol());
+            headers.setHeader(SEQUENCE_HEADER, update.getSequence());
+        }
+        headers.setLeaveMutable(true);
+        return headers.getMessageHeaders();
     }
 }
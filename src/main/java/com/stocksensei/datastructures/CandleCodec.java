@@ -0,0 +1,368 @@
+package com.stocksensei.datastructures;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Compact encoding of a time-ordered run of candles (one cold-tier segment).
+ *
+ * Layout: a fixed header (magic, version, candle count, first and last
+ * timestamp, so a segment's time range is known without decoding it), then
+ * one bit-packed column after another:
+ *   timestamps  first one raw, then zigzag varints of the delta-of-delta
+ *               (evenly spaced candles cost one byte each)
+ *   volumes     zigzag varints of the delta to the previous candle
+ *   open, high, low, close
+ *               when every price of the column is exact with at most 6
+ *               decimals (quoted prices usually have 2): zigzag varint deltas
+ *               of the scaled integers, a byte or two per candle;
+ *               otherwise Gorilla-style XOR of each price with the previous
+ *               one: one bit when unchanged, else the meaningful bits of the
+ *               XOR, reusing the previous leading/trailing zero window when
+ *               they fit in it
+ */
+public final class CandleCodec {
+    public static final int MAGIC = 0x53534347; // "SSCG"
+    public static final byte VERSION = 1;
+    public static final int HEADER_BYTES = 4 + 1 + 4 + 8 + 8;
+
+    // Price column encodings: scaled by 10^n for n decimals, or XOR
+    private static final double[] POWERS_OF_TEN = {1, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6};
+    private static final int XOR = 15;
+    // Scaled prices stay exact integers in a double below 2^53
+    private static final double MAX_SCALED = 9.007199254740992E15;
+
+    private CandleCodec() {
+    }
+
+    // Encode the candles at positions [from, to)
+    public static byte[] encode(Candles candles, int from, int to) {
+        int count = to - from;
+        if (count <= 0) {
+            throw new IllegalArgumentException("Nothing to encode");
+        }
+        BitWriter out = new BitWriter(count * 16);
+
+        out.writeBits(candles.timestamp(from), 64);
+        long previousDelta = 0;
+        for (int i = from + 1; i < to; i++) {
+            long delta = candles.timestamp(i) - candles.timestamp(i - 1);
+            out.writeVarint(zigzag(delta - previousDelta));
+            previousDelta = delta;
+        }
+
+        long previousVolume = 0;
+        for (int i = from; i < to; i++) {
+            out.writeVarint(zigzag(candles.volume(i) - previousVolume));
+            previousVolume = candles.volume(i);
+        }
+
+        for (int column = 0; column < 4; column++) {
+            int decimals = decimals(candles, column, from, to);
+            out.writeBits(decimals, 4);
+            if (decimals == XOR) {
+                XorEncoder encoder = new XorEncoder(out);
+                for (int i = from; i < to; i++) {
+                    encoder.write(price(candles, column, i));
+                }
+            } else {
+                long previous = 0;
+                for (int i = from; i < to; i++) {
+                    long scaled = Math.round(price(candles, column, i) * POWERS_OF_TEN[decimals]);
+                    out.writeVarint(zigzag(scaled - previous));
+                    previous = scaled;
+                }
+            }
+        }
+
+        byte[] body = out.toByteArray();
+        return ByteBuffer.allocate(HEADER_BYTES + body.length)
+                .putInt(MAGIC)
+                .put(VERSION)
+                .putInt(count)
+                .putLong(candles.timestamp(from))
+                .putLong(candles.timestamp(to - 1))
+                .put(body)
+                .array();
+    }
+
+    /**
+     * Read the header at the buffer's position (which is advanced past it)
+     * @throws IllegalArgumentException if the buffer does not start with a segment header
+     */
+    public static Header readHeader(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a candle segment");
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported candle segment version " + version);
+        }
+        int count = buffer.getInt();
+        if (count <= 0) {
+            throw new IllegalArgumentException("Invalid candle count " + count);
+        }
+        return new Header(count, buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * Decode a whole segment from the buffer's position
+     * @throws IllegalArgumentException if it is not a valid segment
+     */
+    public static Candles decode(ByteBuffer buffer) {
+        Header header = readHeader(buffer);
+        int count = header.count;
+        try {
+            BitReader in = new BitReader(buffer);
+            long[] timestamps = new long[count];
+            timestamps[0] = in.readBits(64);
+            long delta = 0;
+            for (int i = 1; i < count; i++) {
+                delta += unzigzag(in.readVarint());
+                timestamps[i] = timestamps[i - 1] + delta;
+            }
+
+            long[] volumes = new long[count];
+            long volume = 0;
+            for (int i = 0; i < count; i++) {
+                volume += unzigzag(in.readVarint());
+                volumes[i] = volume;
+            }
+
+            double[][] prices = new double[4][count];
+            for (int column = 0; column < 4; column++) {
+                int decimals = (int) in.readBits(4);
+                if (decimals == XOR) {
+                    XorDecoder decoder = new XorDecoder(in);
+                    for (int i = 0; i < count; i++) {
+                        prices[column][i] = decoder.read();
+                    }
+                } else if (decimals < POWERS_OF_TEN.length) {
+                    long scaled = 0;
+                    for (int i = 0; i < count; i++) {
+                        scaled += unzigzag(in.readVarint());
+                        prices[column][i] = scaled / POWERS_OF_TEN[decimals];
+                    }
+                } else {
+                    throw new IllegalArgumentException("Unknown price encoding " + decimals);
+                }
+            }
+
+            Candles candles = new Candles(count);
+            for (int i = 0; i < count; i++) {
+                candles.add(timestamps[i], prices[0][i], prices[1][i], prices[2][i], prices[3][i], volumes[i]);
+            }
+            return candles;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated candle segment");
+        }
+    }
+
+    private static double price(Candles candles, int column, int i) {
+        switch (column) {
+            case 0: return candles.open(i);
+            case 1: return candles.high(i);
+            case 2: return candles.low(i);
+            default: return candles.close(i);
+        }
+    }
+
+    // Fewest decimals (up to 6) that represent every price of the column exactly, XOR if there are none
+    private static int decimals(Candles candles, int column, int from, int to) {
+        for (int decimals = 0; decimals < POWERS_OF_TEN.length; decimals++) {
+            double scale = POWERS_OF_TEN[decimals];
+            boolean exact = true;
+            for (int i = from; i < to && exact; i++) {
+                double price = price(candles, column, i);
+                double scaled = price * scale;
+                exact = Math.abs(scaled) < MAX_SCALED && Double.doubleToRawLongBits(Math.round(scaled) / scale)
+                        == Double.doubleToRawLongBits(price);
+            }
+            if (exact) {
+                return decimals;
+            }
+        }
+        return XOR;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Count and time range of a segment
+     */
+    public static class Header {
+        public final int count;
+        public final long firstTimestamp;
+        public final long lastTimestamp;
+
+        Header(int count, long firstTimestamp, long lastTimestamp) {
+            this.count = count;
+            this.firstTimestamp = firstTimestamp;
+            this.lastTimestamp = lastTimestamp;
+        }
+    }
+
+    private static class XorEncoder {
+        private final BitWriter out;
+        private long previous;
+        private int leading = -1; // current window, none before the first non-zero XOR
+        private int trailing;
+        private boolean first = true;
+
+        XorEncoder(BitWriter out) {
+            this.out = out;
+        }
+
+        void write(double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            if (first) {
+                out.writeBits(bits, 64);
+                first = false;
+            } else {
+                long xor = bits ^ previous;
+                if (xor == 0) {
+                    out.writeBits(0, 1);
+                } else {
+                    int lead = Math.min(31, Long.numberOfLeadingZeros(xor));
+                    int trail = Long.numberOfTrailingZeros(xor);
+                    if (leading >= 0 && lead >= leading && trail >= trailing) {
+                        out.writeBits(0b10, 2);
+                        out.writeBits(xor >>> trailing, 64 - leading - trailing);
+                    } else {
+                        int meaningful = 64 - lead - trail;
+                        out.writeBits(0b11, 2);
+                        out.writeBits(lead, 5);
+                        out.writeBits(meaningful - 1, 6);
+                        out.writeBits(xor >>> trail, meaningful);
+                        leading = lead;
+                        trailing = trail;
+                    }
+                }
+            }
+            previous = bits;
+        }
+    }
+
+    private static class XorDecoder {
+        private final BitReader in;
+        private long previous;
+        private int leading;
+        private int trailing;
+        private boolean first = true;
+
+        XorDecoder(BitReader in) {
+            this.in = in;
+        }
+
+        double read() {
+            if (first) {
+                previous = in.readBits(64);
+                first = false;
+            } else if (in.readBits(1) == 1) {
+                if (in.readBits(1) == 1) {
+                    leading = (int) in.readBits(5);
+                    trailing = 64 - leading - ((int) in.readBits(6) + 1);
+                }
+                previous ^= in.readBits(64 - leading - trailing) << trailing;
+            }
+            return Double.longBitsToDouble(previous);
+        }
+    }
+
+    private static class BitWriter {
+        private byte[] bytes;
+        private int length;
+        private int current;
+        private int used; // bits of current filled
+
+        BitWriter(int initialLength) {
+            this.bytes = new byte[Math.max(16, initialLength)];
+        }
+
+        // The low bits of value, most significant first
+        void writeBits(long value, int bits) {
+            while (bits > 0) {
+                int take = Math.min(8 - used, bits);
+                int chunk = (int) (value >>> (bits - take)) & ((1 << take) - 1);
+                current = (current << take) | chunk;
+                used += take;
+                bits -= take;
+                if (used == 8) {
+                    append((byte) current);
+                    current = 0;
+                    used = 0;
+                }
+            }
+        }
+
+        void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeBits((value & 0x7F) | 0x80, 8);
+                value >>>= 7;
+            }
+            writeBits(value, 8);
+        }
+
+        // The bytes written so far, the last one padded with zero bits
+        byte[] toByteArray() {
+            if (used > 0) {
+                append((byte) (current << (8 - used)));
+                current = 0;
+                used = 0;
+            }
+            return Arrays.copyOf(bytes, length);
+        }
+
+        private void append(byte b) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, 2 * length);
+            }
+            bytes[length++] = b;
+        }
+    }
+
+    private static class BitReader {
+        private final ByteBuffer buffer;
+        private int current;
+        private int available; // unread bits of current
+
+        BitReader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        long readBits(int bits) {
+            long value = 0;
+            while (bits > 0) {
+                if (available == 0) {
+                    current = buffer.get() & 0xFF;
+                    available = 8;
+                }
+                int take = Math.min(available, bits);
+                int chunk = (current >>> (available - take)) & ((1 << take) - 1);
+                value = (value << take) | chunk;
+                available -= take;
+                bits -= take;
+            }
+            return value;
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                long b = readBits(8);
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in candle segment");
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.stocksensei.datastructures;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Time-ordered OHLCV candles of one symbol in growable parallel primitive
+ * arrays: the downsampled form of price history that left the raw tier.
+ * Each candle is identified by the start of its bucket; its volume is the
+ * level at the close, as quote volume is not a per-tick increment.
+ * Not thread-safe; owners synchronize access.
+ */
+public class Candles {
+    private static final int INITIAL_LENGTH = 16;
+
+    private long[] timestamps;
+    private double[] opens;
+    private double[] highs;
+    private double[] lows;
+    private double[] closes;
+    private long[] volumes;
+    private int size;
+
+    public Candles() {
+        this(INITIAL_LENGTH);
+    }
+
+    public Candles(int initialLength) {
+        int length = Math.max(1, initialLength);
+        this.timestamps = new long[length];
+        this.opens = new double[length];
+        this.highs = new double[length];
+        this.lows = new double[length];
+        this.closes = new double[length];
+        this.volumes = new long[length];
+    }
+
+    // Append a candle; its timestamp must not be older than the last one
+    public void add(long timestamp, double open, double high, double low, double close, long volume) {
+        if (size > 0 && timestamp < timestamps[size - 1]) {
+            throw new IllegalArgumentException("Candles must be added in time order");
+        }
+        ensureLength(size + 1);
+        timestamps[size] = timestamp;
+        opens[size] = open;
+        highs[size] = high;
+        lows[size] = low;
+        closes[size] = close;
+        volumes[size] = volume;
+        size++;
+    }
+
+    // Fold a tick into the candle of its bucket; a bucket older than the last candle's is clamped to it
+    public void addTick(long bucket, double price, long volume) {
+        if (size > 0 && bucket <= timestamps[size - 1]) {
+            int last = size - 1;
+            highs[last] = Math.max(highs[last], price);
+            lows[last] = Math.min(lows[last], price);
+            closes[last] = price;
+            volumes[last] = volume;
+        } else {
+            add(bucket, price, price, price, price, volume);
+        }
+    }
+
+    // Merge time-ordered runs into one; candles with equal timestamps keep the order of their runs
+    public static Candles merge(List<Candles> runs) {
+        int total = 0;
+        for (Candles run : runs) {
+            total += run.size;
+        }
+        Candles merged = new Candles(total);
+        int[] positions = new int[runs.size()];
+        for (int n = 0; n < total; n++) {
+            int best = -1;
+            for (int r = 0; r < runs.size(); r++) {
+                Candles run = runs.get(r);
+                if (positions[r] < run.size && (best < 0
+                        || run.timestamps[positions[r]] < runs.get(best).timestamps[positions[best]])) {
+                    best = r;
+                }
+            }
+            Candles run = runs.get(best);
+            int i = positions[best]++;
+            merged.add(run.timestamps[i], run.opens[i], run.highs[i], run.lows[i], run.closes[i], run.volumes[i]);
+        }
+        return merged;
+    }
+
+    /**
+     * Candles with from <= timestamp <= to, at most limit of them (the most recent ones)
+     */
+    public Candles range(long from, long to, int limit) {
+        int hi = lowerBound(to == Long.MAX_VALUE ? to : to + 1);
+        int lo = Math.max(lowerBound(from), hi - Math.max(0, limit));
+        return copy(lo, Math.max(lo, hi));
+    }
+
+    // Oldest candle with from <= timestamp <= to (none if there isn't one)
+    public Candles first(long from, long to) {
+        int lo = lowerBound(from);
+        return copy(lo, lo < size && timestamps[lo] <= to ? lo + 1 : lo);
+    }
+
+    // Copy of the candles at positions [from, to)
+    public Candles copy(int from, int to) {
+        Candles copy = new Candles(to - from);
+        System.arraycopy(timestamps, from, copy.timestamps, 0, to - from);
+        System.arraycopy(opens, from, copy.opens, 0, to - from);
+        System.arraycopy(highs, from, copy.highs, 0, to - from);
+        System.arraycopy(lows, from, copy.lows, 0, to - from);
+        System.arraycopy(closes, from, copy.closes, 0, to - from);
+        System.arraycopy(volumes, from, copy.volumes, 0, to - from);
+        copy.size = to - from;
+        return copy;
+    }
+
+    // Drop the oldest count candles
+    public void removeFirst(int count) {
+        count = Math.min(count, size);
+        System.arraycopy(timestamps, count, timestamps, 0, size - count);
+        System.arraycopy(opens, count, opens, 0, size - count);
+        System.arraycopy(highs, count, highs, 0, size - count);
+        System.arraycopy(lows, count, lows, 0, size - count);
+        System.arraycopy(closes, count, closes, 0, size - count);
+        System.arraycopy(volumes, count, volumes, 0, size - count);
+        size -= count;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long timestamp(int i) { return timestamps[i]; }
+    public double open(int i) { return opens[i]; }
+    public double high(int i) { return highs[i]; }
+    public double low(int i) { return lows[i]; }
+    public double close(int i) { return closes[i]; }
+    public long volume(int i) { return volumes[i]; }
+
+    // Position of the first candle with timestamp >= t
+    private int lowerBound(long t) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timestamps[mid] < t) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private void ensureLength(int required) {
+        if (required <= timestamps.length) {
+            return;
+        }
+        int length = Math.max(required, 2 * timestamps.length);
+        timestamps = Arrays.copyOf(timestamps, length);
+        opens = Arrays.copyOf(opens, length);
+        highs = Arrays.copyOf(highs, length);
+        lows = Arrays.copyOf(lows, length);
+        closes = Arrays.copyOf(closes, length);
+        volumes = Arrays.copyOf(volumes, length);
+    }
+}
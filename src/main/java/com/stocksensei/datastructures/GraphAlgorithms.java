@@ -0,0 +1,513 @@
+package com.stocksensei.datastructures;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Weighted algorithms over a GraphSnapshot.
+ * Edge weights are correlations in [-1, 1]; shortest paths use the
+ * correlation distance sqrt(2 * (1 - rho)), while PageRank and community
+ * detection use the positive part of the correlation as edge strength.
+ * Methods using parallel streams run on whichever ForkJoinPool invokes them.
+ */
+public final class GraphAlgorithms {
+    private static final ThreadLocal<DijkstraScratch> SCRATCH =
+            ThreadLocal.withInitial(DijkstraScratch::new);
+
+    private GraphAlgorithms() {
+    }
+
+    // Correlation distance: 0 for perfectly correlated, 2 for perfectly anti-correlated
+    public static double correlationDistance(double weight) {
+        double rho = Math.max(-1.0, Math.min(1.0, weight));
+        return Math.sqrt(2.0 * (1.0 - rho));
+    }
+
+    // Non-negative strength used by PageRank and Louvain
+    public static double strength(double weight) {
+        return weight > 0 ? weight : 0;
+    }
+
+    /**
+     * Dijkstra from source, stopping once k other vertices are settled.
+     * Returns the settled vertices in order; their distances go to distancesOut.
+     */
+    public static int[] nearest(GraphSnapshot graph, int source, int k, double[] distancesOut) {
+        DijkstraScratch s = SCRATCH.get();
+        s.reset(graph.vertexCount());
+
+        int[] result = new int[k];
+        int found = 0;
+        s.relax(source, 0.0, -1);
+
+        while (!s.heap.isEmpty() && found < k) {
+            int u = s.heap.pollId();
+            if (s.settled.get(u)) {
+                continue;
+            }
+            s.settled.set(u);
+            if (u != source) {
+                result[found] = u;
+                distancesOut[found] = s.dist[u];
+                found++;
+            }
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                int v = graph.target(e);
+                if (!s.settled.get(v)) {
+                    s.relax(v, s.dist[u] + correlationDistance(graph.weight(e)), u);
+                }
+            }
+        }
+
+        s.clear();
+        return Arrays.copyOf(result, found);
+    }
+
+    /**
+     * Weighted shortest path between two vertices.
+     * Returns the vertex sequence (empty if unreachable); the length goes to lengthOut[0].
+     */
+    public static int[] shortestPath(GraphSnapshot graph, int source, int target, double[] lengthOut) {
+        DijkstraScratch s = SCRATCH.get();
+        s.reset(graph.vertexCount());
+        s.relax(source, 0.0, -1);
+
+        int[] path = new int[0];
+        while (!s.heap.isEmpty()) {
+            int u = s.heap.pollId();
+            if (s.settled.get(u)) {
+                continue;
+            }
+            s.settled.set(u);
+            if (u == target) {
+                int length = 0;
+                for (int v = target; v != -1; v = s.previous[v]) {
+                    length++;
+                }
+                path = new int[length];
+                for (int v = target, i = length - 1; v != -1; v = s.previous[v], i--) {
+                    path[i] = v;
+                }
+                lengthOut[0] = s.dist[target];
+                break;
+            }
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                int v = graph.target(e);
+                if (!s.settled.get(v)) {
+                    s.relax(v, s.dist[u] + correlationDistance(graph.weight(e)), u);
+                }
+            }
+        }
+
+        s.clear();
+        return path;
+    }
+
+    /**
+     * Weighted PageRank using pull iterations over the reverse adjacency,
+     * each iteration parallel across vertices.
+     */
+    public static double[] pageRank(GraphSnapshot graph, double damping, int maxIterations, double tolerance) {
+        int n = graph.vertexCount();
+        if (n == 0) {
+            return new double[0];
+        }
+        graph.buildReverse();
+
+        double[] outStrength = new double[n];
+        for (int u = 0; u < n; u++) {
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                outStrength[u] += strength(graph.weight(e));
+            }
+        }
+
+        double[] rank = new double[n];
+        double[] next = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+
+        for (int iter = 0; iter < maxIterations; iter++) {
+            double dangling = 0;
+            for (int u = 0; u < n; u++) {
+                if (outStrength[u] == 0) {
+                    dangling += rank[u];
+                }
+            }
+            final double base = (1.0 - damping) / n + damping * dangling / n;
+            final double[] current = rank;
+            final double[] updated = next;
+
+            IntStream.range(0, n).parallel().forEach(v -> {
+                double sum = 0;
+                for (int e = graph.reverseEdgeStart(v); e < graph.reverseEdgeEnd(v); e++) {
+                    int u = graph.reverseSource(e);
+                    sum += current[u] * strength(graph.reverseWeight(e)) / outStrength[u];
+                }
+                updated[v] = base + damping * sum;
+            });
+
+            double delta = 0;
+            for (int v = 0; v < n; v++) {
+                delta += Math.abs(next[v] - rank[v]);
+            }
+            double[] t = rank; rank = next; next = t;
+            if (delta < tolerance) {
+                break;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Louvain community detection: repeated local moving and aggregation
+     * on the symmetrised positive-strength graph. Returns a community id per vertex.
+     */
+    public static int[] louvain(GraphSnapshot graph) {
+        int n = graph.vertexCount();
+        int[] membership = new int[n];
+        for (int i = 0; i < n; i++) {
+            membership[i] = i;
+        }
+        if (n == 0) {
+            return membership;
+        }
+
+        WeightedGraph level = WeightedGraph.symmetrise(graph);
+        while (true) {
+            int[] communities = level.localMoving();
+            int count = renumber(communities);
+            if (count == level.size()) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                membership[i] = communities[membership[i]];
+            }
+            level = level.aggregate(communities, count);
+        }
+        return membership;
+    }
+
+    // Map community labels onto 0..count-1 in place, returning count
+    private static int renumber(int[] labels) {
+        int[] mapping = new int[labels.length];
+        Arrays.fill(mapping, -1);
+        int count = 0;
+        for (int i = 0; i < labels.length; i++) {
+            int label = labels[i];
+            if (mapping[label] == -1) {
+                mapping[label] = count++;
+            }
+            labels[i] = mapping[label];
+        }
+        return count;
+    }
+
+    /**
+     * Undirected weighted graph in CSR form used between Louvain levels.
+     * A self-loop entry holds the total internal weight of an aggregated node.
+     */
+    static class WeightedGraph {
+        final int[] offsets;
+        final int[] targets;
+        final double[] weights;
+        final double[] nodeStrength;
+        final double totalStrength;
+
+        WeightedGraph(int[] offsets, int[] targets, double[] weights) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+            int n = offsets.length - 1;
+            this.nodeStrength = new double[n];
+            double total = 0;
+            for (int i = 0; i < n; i++) {
+                for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                    nodeStrength[i] += weights[e];
+                }
+                total += nodeStrength[i];
+            }
+            this.totalStrength = total;
+        }
+
+        int size() {
+            return offsets.length - 1;
+        }
+
+        static WeightedGraph symmetrise(GraphSnapshot graph) {
+            int n = graph.vertexCount();
+            int[][] neighbours = new int[n][];
+            double[][] strengths = new double[n][];
+            int[] counts = new int[n];
+            for (int u = 0; u < n; u++) {
+                neighbours[u] = new int[4];
+                strengths[u] = new double[4];
+            }
+            for (int u = 0; u < n; u++) {
+                for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                    int v = graph.target(e);
+                    double w = strength(graph.weight(e));
+                    if (w == 0 || u == v) {
+                        continue;
+                    }
+                    append(neighbours, strengths, counts, u, v, w);
+                    append(neighbours, strengths, counts, v, u, w);
+                }
+            }
+            RowBuilder builder = new RowBuilder(n);
+            for (int u = 0; u < n; u++) {
+                for (int i = 0; i < counts[u]; i++) {
+                    builder.add(neighbours[u][i], strengths[u][i]);
+                }
+                builder.endRow();
+            }
+            return builder.build();
+        }
+
+        private static void append(int[][] neighbours, double[][] strengths, int[] counts,
+                                   int u, int v, double w) {
+            if (counts[u] == neighbours[u].length) {
+                neighbours[u] = Arrays.copyOf(neighbours[u], counts[u] * 2);
+                strengths[u] = Arrays.copyOf(strengths[u], counts[u] * 2);
+            }
+            neighbours[u][counts[u]] = v;
+            strengths[u][counts[u]] = w;
+            counts[u]++;
+        }
+
+        // One Louvain phase: move nodes to the neighbouring community with the best gain
+        int[] localMoving() {
+            int n = size();
+            int[] community = new int[n];
+            double[] communityStrength = new double[n];
+            for (int i = 0; i < n; i++) {
+                community[i] = i;
+                communityStrength[i] = nodeStrength[i];
+            }
+            if (totalStrength == 0) {
+                return community;
+            }
+
+            double[] linkWeight = new double[n];
+            int[] touched = new int[n];
+            boolean improved = true;
+            int passes = 0;
+
+            while (improved && passes++ < 32) {
+                improved = false;
+                for (int i = 0; i < n; i++) {
+                    int own = community[i];
+                    int touchedCount = 0;
+                    for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                        int j = targets[e];
+                        if (j == i) {
+                            continue;
+                        }
+                        int c = community[j];
+                        if (linkWeight[c] == 0) {
+                            touched[touchedCount++] = c;
+                        }
+                        linkWeight[c] += weights[e];
+                    }
+
+                    communityStrength[own] -= nodeStrength[i];
+                    double ki = nodeStrength[i];
+                    int best = own;
+                    double bestGain = linkWeight[own] - communityStrength[own] * ki / totalStrength;
+                    for (int t = 0; t < touchedCount; t++) {
+                        int c = touched[t];
+                        double gain = linkWeight[c] - communityStrength[c] * ki / totalStrength;
+                        if (gain > bestGain + 1e-12) {
+                            bestGain = gain;
+                            best = c;
+                        }
+                    }
+                    communityStrength[best] += ki;
+                    if (best != own) {
+                        community[i] = best;
+                        improved = true;
+                    }
+
+                    for (int t = 0; t < touchedCount; t++) {
+                        linkWeight[touched[t]] = 0;
+                    }
+                    linkWeight[own] = 0;
+                }
+            }
+            return community;
+        }
+
+        // Collapse each community into a single node
+        WeightedGraph aggregate(int[] community, int count) {
+            int n = size();
+            int[] memberOffsets = new int[count + 1];
+            for (int i = 0; i < n; i++) {
+                memberOffsets[community[i] + 1]++;
+            }
+            for (int c = 0; c < count; c++) {
+                memberOffsets[c + 1] += memberOffsets[c];
+            }
+            int[] members = new int[n];
+            int[] fill = new int[count];
+            for (int i = 0; i < n; i++) {
+                int c = community[i];
+                members[memberOffsets[c] + fill[c]++] = i;
+            }
+
+            RowBuilder builder = new RowBuilder(count);
+            double[] rowWeight = new double[count];
+            int[] touched = new int[count];
+            for (int c = 0; c < count; c++) {
+                int touchedCount = 0;
+                for (int m = memberOffsets[c]; m < memberOffsets[c + 1]; m++) {
+                    int i = members[m];
+                    for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                        int d = community[targets[e]];
+                        if (rowWeight[d] == 0) {
+                            touched[touchedCount++] = d;
+                        }
+                        rowWeight[d] += weights[e];
+                    }
+                }
+                for (int t = 0; t < touchedCount; t++) {
+                    int d = touched[t];
+                    builder.add(d, rowWeight[d]);
+                    rowWeight[d] = 0;
+                }
+                builder.endRow();
+            }
+            return builder.build();
+        }
+    }
+
+    // Appends CSR rows one at a time
+    static class RowBuilder {
+        private final int[] offsets;
+        private int[] targets = new int[16];
+        private double[] weights = new double[16];
+        private int size;
+        private int row;
+
+        RowBuilder(int rows) {
+            this.offsets = new int[rows + 1];
+        }
+
+        void add(int target, double weight) {
+            if (size == targets.length) {
+                targets = Arrays.copyOf(targets, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            targets[size] = target;
+            weights[size] = weight;
+            size++;
+        }
+
+        void endRow() {
+            offsets[++row] = size;
+        }
+
+        WeightedGraph build() {
+            return new WeightedGraph(offsets, Arrays.copyOf(targets, size), Arrays.copyOf(weights, size));
+        }
+    }
+
+    // Per-thread Dijkstra state, reset by clearing only the touched vertices
+    static class DijkstraScratch {
+        double[] dist = new double[0];
+        int[] previous = new int[0];
+        final java.util.BitSet settled = new java.util.BitSet();
+        final DistanceHeap heap = new DistanceHeap();
+        int[] touched = new int[0];
+        int touchedCount;
+
+        void reset(int n) {
+            if (dist.length < n) {
+                dist = new double[n];
+                previous = new int[n];
+                touched = new int[n];
+                Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            }
+        }
+
+        void relax(int v, double d, int from) {
+            if (d < dist[v]) {
+                if (dist[v] == Double.POSITIVE_INFINITY) {
+                    touched[touchedCount++] = v;
+                }
+                dist[v] = d;
+                previous[v] = from;
+                heap.push(v, d);
+            }
+        }
+
+        void clear() {
+            for (int i = 0; i < touchedCount; i++) {
+                int v = touched[i];
+                dist[v] = Double.POSITIVE_INFINITY;
+                settled.clear(v);
+            }
+            touchedCount = 0;
+            heap.clear();
+        }
+    }
+
+    // Binary min-heap of (vertex, distance) with lazy deletion
+    static class DistanceHeap {
+        private int[] ids = new int[64];
+        private double[] keys = new double[64];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void push(int id, double key) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                ids[i] = ids[parent];
+                keys[i] = keys[parent];
+                i = parent;
+            }
+            ids[i] = id;
+            keys[i] = key;
+        }
+
+        int pollId() {
+            int top = ids[0];
+            size--;
+            if (size > 0) {
+                int id = ids[size];
+                double key = keys[size];
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && keys[child + 1] < keys[child]) {
+                        child++;
+                    }
+                    if (keys[child] >= key) {
+                        break;
+                    }
+                    ids[i] = ids[child];
+                    keys[i] = keys[child];
+                    i = child;
+                }
+                ids[i] = id;
+                keys[i] = key;
+            }
+            return top;
+        }
+    }
+}
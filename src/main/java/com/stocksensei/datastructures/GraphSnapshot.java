@@ -0,0 +1,89 @@
+package com.stocksensei.datastructures;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable CSR snapshot of a StockGraph, safe to share between threads.
+ * Edges of vertex v are targets[offsets[v] .. offsets[v + 1]) with matching weights.
+ */
+public class GraphSnapshot {
+    private final long version;
+    private final String[] symbols;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    private final Map<String, Integer> indexBySymbol;
+
+    // Reverse (incoming) adjacency, built on first use
+    private int[] reverseOffsets;
+    private int[] reverseSources;
+    private double[] reverseWeights;
+
+    public GraphSnapshot(long version, String[] symbols, int[] offsets,
+                         int[] targets, double[] weights) {
+        this.version = version;
+        this.symbols = symbols;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.indexBySymbol = new HashMap<>(symbols.length * 2);
+        for (int i = 0; i < symbols.length; i++) {
+            indexBySymbol.put(symbols[i], i);
+        }
+    }
+
+    public long getVersion() { return version; }
+    public int vertexCount() { return symbols.length; }
+    public int edgeCount() { return targets.length; }
+    public String symbol(int v) { return symbols[v]; }
+
+    // Vertex index of a symbol, or -1 if unknown
+    public int indexOf(String symbol) {
+        Integer index = indexBySymbol.get(symbol);
+        return index != null ? index : -1;
+    }
+
+    public int edgeStart(int v) { return offsets[v]; }
+    public int edgeEnd(int v) { return offsets[v + 1]; }
+    public int target(int e) { return targets[e]; }
+    public double weight(int e) { return weights[e]; }
+
+    // Incoming edges of v; buildReverse() must have been called first
+    public int reverseEdgeStart(int v) { return reverseOffsets[v]; }
+    public int reverseEdgeEnd(int v) { return reverseOffsets[v + 1]; }
+
+    public int reverseSource(int e) { return reverseSources[e]; }
+    public double reverseWeight(int e) { return reverseWeights[e]; }
+
+    // Build incoming adjacency with a counting sort over edge targets
+    public synchronized void buildReverse() {
+        if (reverseOffsets != null) {
+            return;
+        }
+        int n = symbols.length;
+        int[] rOffsets = new int[n + 1];
+        for (int t : targets) {
+            rOffsets[t + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            rOffsets[i + 1] += rOffsets[i];
+        }
+
+        int[] fill = new int[n];
+        int[] sources = new int[targets.length];
+        double[] rWeights = new double[targets.length];
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int t = targets[e];
+                int pos = rOffsets[t] + fill[t]++;
+                sources[pos] = u;
+                rWeights[pos] = weights[e];
+            }
+        }
+
+        reverseSources = sources;
+        reverseWeights = rWeights;
+        reverseOffsets = rOffsets;
+    }
+}
@@ -0,0 +1,212 @@
+package com.stocksensei.datastructures;
+
+/**
+ * Bounded price history of one symbol: a ring buffer of parallel primitive
+ * arrays (timestamp, price, volume) in time order. The arrays grow on demand
+ * up to the capacity; once full, the oldest points are overwritten.
+ * Timestamps never decrease, so range queries are binary searches over the ring.
+ */
+public class PriceSeries {
+    private static final int INITIAL_LENGTH = 16;
+
+    private final int capacity;
+    private long[] timestamps;
+    private double[] prices;
+    private long[] volumes;
+    private int head; // index of the oldest point
+    private int size;
+
+    public PriceSeries(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        int length = Math.min(capacity, INITIAL_LENGTH);
+        this.timestamps = new long[length];
+        this.prices = new double[length];
+        this.volumes = new long[length];
+    }
+
+    // Append a point; a timestamp older than the last one is clamped to it
+    public synchronized void append(long timestamp, double price, long volume) {
+        if (size > 0) {
+            timestamp = Math.max(timestamp, timestamps[physical(size - 1)]);
+        }
+        int index;
+        if (size < capacity) {
+            ensureLength(size + 1);
+            index = physical(size++);
+        } else {
+            index = head;
+            head = (head + 1) % capacity;
+        }
+        timestamps[index] = timestamp;
+        prices[index] = price;
+        volumes[index] = volume;
+    }
+
+    // Append a time-ordered run of points with bulk array copies
+    public synchronized void appendAll(long[] ts, double[] px, long[] vol, int from, int to) {
+        int count = to - from;
+        if (count <= 0) {
+            return;
+        }
+        if (count >= capacity) {
+            // Only the newest points survive
+            from = to - capacity;
+            count = capacity;
+            head = 0;
+            size = 0;
+        }
+        if (size > 0 && ts[from] < timestamps[physical(size - 1)]) {
+            for (int i = from; i < to; i++) {
+                append(ts[i], px[i], vol[i]);
+            }
+            return;
+        }
+
+        ensureLength(size + count);
+        int length = timestamps.length;
+        int overflow = Math.max(0, size + count - length);
+        head = (head + overflow) % length;
+        size -= overflow;
+        int start = physical(size);
+        int firstRun = Math.min(count, length - start);
+        System.arraycopy(ts, from, timestamps, start, firstRun);
+        System.arraycopy(px, from, prices, start, firstRun);
+        System.arraycopy(vol, from, volumes, start, firstRun);
+        if (firstRun < count) {
+            System.arraycopy(ts, from + firstRun, timestamps, 0, count - firstRun);
+            System.arraycopy(px, from + firstRun, prices, 0, count - firstRun);
+            System.arraycopy(vol, from + firstRun, volumes, 0, count - firstRun);
+        }
+        size += count;
+    }
+
+    /**
+     * Points with from <= timestamp <= to, at most limit of them (the most recent ones)
+     */
+    public synchronized Points range(long from, long to, int limit) {
+        int lo = lowerBound(from);
+        int hi = lowerBound(to == Long.MAX_VALUE ? to : to + 1);
+        lo = Math.max(lo, hi - Math.max(0, limit));
+
+        Points points = new Points(hi - lo);
+        for (int i = lo; i < hi; i++) {
+            int index = physical(i);
+            points.timestamps[i - lo] = timestamps[index];
+            points.prices[i - lo] = prices[index];
+            points.volumes[i - lo] = volumes[index];
+        }
+        return points;
+    }
+
+    // Oldest point with from <= timestamp <= to (none if there isn't one)
+    public synchronized Points first(long from, long to) {
+        int lo = lowerBound(from);
+        boolean found = lo < size && timestamps[physical(lo)] <= to;
+        Points points = new Points(found ? 1 : 0);
+        if (found) {
+            int index = physical(lo);
+            points.timestamps[0] = timestamps[index];
+            points.prices[0] = prices[index];
+            points.volumes[0] = volumes[index];
+        }
+        return points;
+    }
+
+    // Remove and return the oldest count points (fewer if there aren't as many)
+    public synchronized Points removeOldest(int count) {
+        count = Math.max(0, Math.min(count, size));
+        Points points = new Points(count);
+        for (int i = 0; i < count; i++) {
+            int index = physical(i);
+            points.timestamps[i] = timestamps[index];
+            points.prices[i] = prices[index];
+            points.volumes[i] = volumes[index];
+        }
+        head = physical(count);
+        size -= count;
+        return points;
+    }
+
+    // Most recent point, or null when empty
+    public synchronized Points last() {
+        return size == 0 ? null : range(Long.MIN_VALUE, Long.MAX_VALUE, 1);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public synchronized void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    // Logical position of the first point with timestamp >= t
+    private int lowerBound(long t) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timestamps[physical(mid)] < t) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int physical(int logical) {
+        int index = head + logical;
+        return index >= timestamps.length ? index - timestamps.length : index;
+    }
+
+    // Grow the arrays (up to the capacity) to hold at least required points, unrolling the ring
+    private void ensureLength(int required) {
+        int length = timestamps.length;
+        if (required <= length || length == capacity) {
+            return;
+        }
+        int newLength = (int) Math.min(capacity, Math.max(required, 2L * length));
+        long[] newTimestamps = new long[newLength];
+        double[] newPrices = new double[newLength];
+        long[] newVolumes = new long[newLength];
+        int firstRun = Math.min(size, length - head);
+        System.arraycopy(timestamps, head, newTimestamps, 0, firstRun);
+        System.arraycopy(prices, head, newPrices, 0, firstRun);
+        System.arraycopy(volumes, head, newVolumes, 0, firstRun);
+        System.arraycopy(timestamps, 0, newTimestamps, firstRun, size - firstRun);
+        System.arraycopy(prices, 0, newPrices, firstRun, size - firstRun);
+        System.arraycopy(volumes, 0, newVolumes, firstRun, size - firstRun);
+        timestamps = newTimestamps;
+        prices = newPrices;
+        volumes = newVolumes;
+        head = 0;
+    }
+
+    /**
+     * Columnar copy of a range of points
+     */
+    public static class Points {
+        public final long[] timestamps;
+        public final double[] prices;
+        public final long[] volumes;
+
+        Points(int size) {
+            this.timestamps = new long[size];
+            this.prices = new double[size];
+            this.volumes = new long[size];
+        }
+
+        public int size() {
+            return timestamps.length;
+        }
+    }
+}
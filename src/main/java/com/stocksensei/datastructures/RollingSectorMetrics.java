@@ -0,0 +1,130 @@
+package com.stocksensei.datastructures;
+
+import java.util.*;
+
+/**
+ * Sector performance over a sliding time window (e.g. the last 5 minutes)
+ *
+ * Each symbol keeps its samples inside the window, so its windowed return
+ * and volume (the latest level, as quote volume is not a per-tick
+ * increment) are known in O(1); a global time-ordered queue (one entry per
+ * sample) says whose oldest sample expires next, as in WindowedLeaderboard.
+ * Whenever a symbol's window changes, its previous contribution is removed
+ * from its sector's SectorMetrics and the new one added, so reading every
+ * sector's metrics costs O(sectors) regardless of the number of stocks.
+ */
+public class RollingSectorMetrics {
+    private final long windowMillis;
+    private final Map<String, SymbolWindow> windows;
+    private final ArrayDeque<SymbolWindow> expiryQueue;
+    private final Map<String, SectorMetrics> sectors;
+    private long now;
+
+    public RollingSectorMetrics(long windowMillis) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        this.windowMillis = windowMillis;
+        this.windows = new HashMap<>();
+        this.expiryQueue = new ArrayDeque<>();
+        this.sectors = new HashMap<>();
+        this.now = Long.MIN_VALUE;
+    }
+
+    // Record a tick; timestamps older than the latest one seen are treated as "now"
+    public synchronized void record(String symbol, String sector, long timestamp, double price, long volume) {
+        now = Math.max(now, timestamp);
+        SymbolWindow window = windows.computeIfAbsent(symbol, SymbolWindow::new);
+        withdraw(window);
+        window.sector = sector;
+        window.add(new WindowedLeaderboard.Sample(now, price, volume));
+        expiryQueue.addLast(window);
+        contribute(window);
+
+        expire();
+    }
+
+    // Move the window forward without a tick
+    public synchronized void advance(long timestamp) {
+        now = Math.max(now, timestamp);
+        expire();
+    }
+
+    // Metrics of every sector with a sample in the window, with relative strength against them all
+    public synchronized Map<String, SectorMetrics> getMetrics() {
+        return SectorMetrics.compare(sectors.values());
+    }
+
+    public synchronized void clear() {
+        windows.clear();
+        expiryQueue.clear();
+        sectors.clear();
+        now = Long.MIN_VALUE;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    // Evict samples that fell out of (now - window, now]
+    private void expire() {
+        long cutoff = now - windowMillis;
+        while (!expiryQueue.isEmpty() && expiryQueue.peekFirst().oldestTimestamp() <= cutoff) {
+            SymbolWindow window = expiryQueue.pollFirst();
+            withdraw(window);
+            window.evictOldest();
+            contribute(window);
+        }
+    }
+
+    private void contribute(SymbolWindow window) {
+        if (window.sector == null || window.samples.isEmpty()) {
+            return;
+        }
+        window.contributedSector = sectors.computeIfAbsent(window.sector, SectorMetrics::new);
+        window.contributedChange = window.changePercent();
+        window.contributedVolume = window.samples.peekLast().volume;
+        window.contributedSector.add(window.contributedChange, window.contributedVolume);
+    }
+
+    private void withdraw(SymbolWindow window) {
+        if (window.contributedSector != null) {
+            window.contributedSector.remove(window.contributedChange, window.contributedVolume);
+            window.contributedSector = null;
+        }
+    }
+
+    static class SymbolWindow {
+        final String symbol;
+        final ArrayDeque<WindowedLeaderboard.Sample> samples = new ArrayDeque<>();
+        String sector;
+        // Last price before the window started, NaN until a sample expires
+        double priceBeforeWindow = Double.NaN;
+        // What this symbol currently adds to its sector's metrics
+        SectorMetrics contributedSector;
+        double contributedChange;
+        long contributedVolume;
+
+        SymbolWindow(String symbol) {
+            this.symbol = symbol;
+        }
+
+        void add(WindowedLeaderboard.Sample sample) {
+            samples.addLast(sample);
+        }
+
+        void evictOldest() {
+            WindowedLeaderboard.Sample oldest = samples.pollFirst();
+            priceBeforeWindow = oldest.price;
+        }
+
+        long oldestTimestamp() {
+            return samples.peekFirst().timestamp;
+        }
+
+        double changePercent() {
+            double base = Double.isNaN(priceBeforeWindow) ? samples.peekFirst().price : priceBeforeWindow;
+            return base != 0 ? (samples.peekLast().price - base) / base * 100 : 0;
+        }
+    }
+}
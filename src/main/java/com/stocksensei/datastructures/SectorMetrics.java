@@ -2,16 +2,29 @@ package com.stocksensei.datastructures;
 
 import com.stocksensei.model.Stock;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Sector metrics aggregator for analyzing sector performance
+ *
+ * Keeps running sums over its members' returns (percent) and volumes, so a
+ * member's contribution can be added and removed again when it changes and
+ * every metric is read in O(1): average and volume-weighted return, breadth
+ * (advancers vs decliners), dispersion (standard deviation of returns) and,
+ * once compared against the market, relative strength.
  */
 public class SectorMetrics {
     private String sector;
     private double totalChange;
+    private double totalSquaredChange;
+    private double totalWeightedChange;
     private long totalVolume;
     private int stockCount;
-    private double avgChange;
-    private double avgVolume;
+    private int advancers;
+    private int decliners;
+    private double relativeStrength;
 
     public SectorMetrics(String sector) {
         this.sector = sector;
@@ -20,16 +33,93 @@ public class SectorMetrics {
         this.stockCount = 0;
     }
 
+    public SectorMetrics(SectorMetrics other) {
+        this.sector = other.sector;
+        this.totalChange = other.totalChange;
+        this.totalSquaredChange = other.totalSquaredChange;
+        this.totalWeightedChange = other.totalWeightedChange;
+        this.totalVolume = other.totalVolume;
+        this.stockCount = other.stockCount;
+        this.advancers = other.advancers;
+        this.decliners = other.decliners;
+        this.relativeStrength = other.relativeStrength;
+    }
+
     public void addStock(Stock stock) {
-        totalChange += stock.getPriceChangePercent();
-        totalVolume += stock.getVolume();
+        add(stock.getPriceChangePercent(), stock.getVolume());
+    }
+
+    public void removeStock(Stock stock) {
+        remove(stock.getPriceChangePercent(), stock.getVolume());
+    }
+
+    // Add a member with the given return (percent) and volume
+    public void add(double changePercent, long volume) {
+        totalChange += changePercent;
+        totalSquaredChange += changePercent * changePercent;
+        totalWeightedChange += changePercent * volume;
+        totalVolume += volume;
         stockCount++;
-        calculateAverages();
+        if (changePercent > 0) {
+            advancers++;
+        } else if (changePercent < 0) {
+            decliners++;
+        }
+    }
+
+    // Remove a member previously added with exactly these values
+    public void remove(double changePercent, long volume) {
+        stockCount--;
+        if (stockCount <= 0) {
+            // Start from exact zeros instead of accumulated rounding
+            stockCount = 0;
+            totalChange = 0;
+            totalSquaredChange = 0;
+            totalWeightedChange = 0;
+            totalVolume = 0;
+            advancers = 0;
+            decliners = 0;
+            return;
+        }
+        totalChange -= changePercent;
+        totalSquaredChange -= changePercent * changePercent;
+        totalWeightedChange -= changePercent * volume;
+        totalVolume -= volume;
+        if (changePercent > 0) {
+            advancers--;
+        } else if (changePercent < 0) {
+            decliners--;
+        }
     }
 
-    private void calculateAverages() {
-        avgChange = stockCount > 0 ? totalChange / stockCount : 0;
-        avgVolume = stockCount > 0 ? (double) totalVolume / stockCount : 0;
+    public void merge(SectorMetrics other) {
+        totalChange += other.totalChange;
+        totalSquaredChange += other.totalSquaredChange;
+        totalWeightedChange += other.totalWeightedChange;
+        totalVolume += other.totalVolume;
+        stockCount += other.stockCount;
+        advancers += other.advancers;
+        decliners += other.decliners;
+    }
+
+    /**
+     * Copies of the non-empty sectors by name, with relative strength against
+     * the market they make up together
+     */
+    public static Map<String, SectorMetrics> compare(Collection<SectorMetrics> sectors) {
+        SectorMetrics market = new SectorMetrics("Market");
+        for (SectorMetrics sector : sectors) {
+            market.merge(sector);
+        }
+        Map<String, SectorMetrics> metrics = new HashMap<>();
+        for (SectorMetrics sector : sectors) {
+            if (sector.stockCount > 0) {
+                SectorMetrics copy = new SectorMetrics(sector);
+                copy.relativeStrength = copy.getVolumeWeightedChange() - market.getVolumeWeightedChange();
+                metrics.put(copy.sector, copy);
+            }
+        }
+        return metrics;
     }
 
     // Getters
@@ -54,16 +144,48 @@ public class SectorMetrics {
     }
 
     public double getAvgChange() {
-        return avgChange;
+        return stockCount > 0 ? totalChange / stockCount : 0;
     }
 
     public double getAvgVolume() {
-        return avgVolume;
+        return stockCount > 0 ? (double) totalVolume / stockCount : 0;
+    }
+
+    // Volume-weighted return; the plain average when nothing traded
+    public double getVolumeWeightedChange() {
+        return totalVolume > 0 ? totalWeightedChange / totalVolume : getAvgChange();
+    }
+
+    public int getAdvancers() {
+        return advancers;
+    }
+
+    public int getDecliners() {
+        return decliners;
+    }
+
+    // (advancers - decliners) / stocks, from -1 (all down) to 1 (all up)
+    public double getBreadth() {
+        return stockCount > 0 ? (double) (advancers - decliners) / stockCount : 0;
+    }
+
+    // Standard deviation of the members' returns
+    public double getDispersion() {
+        if (stockCount == 0) {
+            return 0;
+        }
+        double mean = totalChange / stockCount;
+        return Math.sqrt(Math.max(0, totalSquaredChange / stockCount - mean * mean));
+    }
+
+    // Volume-weighted return minus the market's, in percentage points
+    public double getRelativeStrength() {
+        return relativeStrength;
     }
 
     @Override
     public String toString() {
         return String.format("SectorMetrics{sector='%s', stocks=%d, avgChange=%.2f%%, avgVolume=%.0f}",
-                sector, stockCount, avgChange, avgVolume);
+                sector, stockCount, getAvgChange(), getAvgVolume());
     }
-}
\ No newline at end of file
+}
@@ -2,150 +2,444 @@ package com.stocksensei.datastructures;
 
 import com.stocksensei.model.Stock;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Graph implementation to model relationships between stocks
  * Edges represent correlations or sector relationships
+ *
+ * Vertices are numbered densely in insertion order. Edges are appended to
+ * per-vertex arrays and compacted into a CSR (compressed sparse row) layout
+ * on the first traversal after a change. Connected components are kept
+ * up to date with a union-find as edges are added, and related-stock
+ * queries are served from an LRU cache tagged with the graph version.
+ *
+ * Symbols are resolved to vertices through their global SymbolDictionary id
+ * (an int array, no boxing or string hashing per lookup), and sector
+ * membership is a bitset of vertices per sector id. Each sector's
+ * SectorMetrics is updated as its members' quotes change, so sector
+ * performance is read without visiting the stocks.
  */
 public class StockGraph {
-    private Map<String, Stock> stocks;
-    private Map<String, List<Edge>> adjacencyList;
+    private static final int RELATED_CACHE_SIZE = 256;
+    private static final int[] NO_EDGES = new int[0];
+    private static final double[] NO_WEIGHTS = new double[0];
+
+    private final SymbolDictionary symbolIds;
+    // Vertex + 1 by symbol id, 0 when the symbol has no vertex
+    private int[] vertexBySymbolId;
+    private final List<Stock> stocks;
+
+    // Sector membership: sector id of each vertex (-1 when unknown) and vertices per sector
+    private final SymbolDictionary sectorIds;
+    private int[] sectorOfVertex;
+    private final List<BitSet> sectorMembers;
+
+    // Running metrics per sector id, and the return / volume each vertex contributed to them
+    private final List<SectorMetrics> sectorTotals;
+    private double[] changeOfVertex;
+    private long[] volumeOfVertex;
+
+    // Mutable adjacency, one growable array per vertex
+    private int[][] edgeTargets;
+    private double[][] edgeWeights;
+    private int[] degree;
+    private int edgeCount;
+
+    // CSR snapshot of the adjacency, rebuilt lazily
+    private int[] csrOffsets;
+    private int[] csrTargets;
+    private double[] csrWeights;
+    private long csrVersion;
+
+    // Union-find over undirected connectivity, rebuilt after edges are replaced
+    private int[] parent;
+    private byte[] rank;
+    private boolean componentsDirty;
+
+    // Reusable traversal scratch space
+    private final BitSet visited;
+    private int[] queue;
+
+    private long version;
+    private final Map<Long, CachedResult> relatedCache;
 
     public StockGraph() {
-        this.stocks = new HashMap<>();
-        this.adjacencyList = new HashMap<>();
+        this.symbolIds = SymbolDictionary.global();
+        this.vertexBySymbolId = new int[16];
+        this.stocks = new ArrayList<>();
+        this.sectorIds = new SymbolDictionary();
+        this.sectorOfVertex = new int[16];
+        this.sectorMembers = new ArrayList<>();
+        this.sectorTotals = new ArrayList<>();
+        this.changeOfVertex = new double[16];
+        this.volumeOfVertex = new long[16];
+        this.edgeTargets = new int[16][];
+        this.edgeWeights = new double[16][];
+        this.degree = new int[16];
+        this.parent = new int[16];
+        this.rank = new byte[16];
+        this.visited = new BitSet();
+        this.queue = new int[16];
+        this.version = 0;
+        this.csrVersion = -1;
+        this.relatedCache = new LinkedHashMap<>(RELATED_CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedResult> eldest) {
+                return size() > RELATED_CACHE_SIZE;
+            }
+        };
     }
 
     // Add stock as vertex
-    public void addStock(Stock stock) {
-        stocks.put(stock.getSymbol(), stock);
-        adjacencyList.putIfAbsent(stock.getSymbol(), new ArrayList<>());
+    public synchronized void addStock(Stock stock) {
+        int symbolId = stock.getSymbolId();
+        int index = vertexOf(symbolId);
+        if (index >= 0) {
+            // Same vertex, newer quote: topology (and cached ids) unchanged
+            stocks.set(index, stock);
+            withdrawMetrics(index);
+            setSector(index, stock.getSector());
+            contributeMetrics(index, stock);
+            return;
+        }
+
+        int id = stocks.size();
+        ensureVertexCapacity(id + 1);
+        if (symbolId >= vertexBySymbolId.length) {
+            vertexBySymbolId = Arrays.copyOf(vertexBySymbolId, Math.max(symbolId + 1, vertexBySymbolId.length * 2));
+        }
+        vertexBySymbolId[symbolId] = id + 1;
+        stocks.add(stock);
+        sectorOfVertex[id] = -1;
+        setSector(id, stock.getSector());
+        contributeMetrics(id, stock);
+        edgeTargets[id] = NO_EDGES;
+        edgeWeights[id] = NO_WEIGHTS;
+        parent[id] = id;
+        version++;
     }
 
     // Add edge (relationship) between stocks
-    public void addEdge(String from, String to, double weight) {
-        adjacencyList.get(from).add(new Edge(to, weight));
+    public synchronized void addEdge(String from, String to, double weight) {
+        int u = requireIndex(from);
+        int v = requireIndex(to);
+
+        int d = degree[u];
+        if (d == edgeTargets[u].length) {
+            int capacity = Math.max(4, d * 2);
+            edgeTargets[u] = Arrays.copyOf(edgeTargets[u], capacity);
+            edgeWeights[u] = Arrays.copyOf(edgeWeights[u], capacity);
+        }
+        edgeTargets[u][d] = v;
+        edgeWeights[u][d] = weight;
+        degree[u] = d + 1;
+        edgeCount++;
+
+        if (!componentsDirty) {
+            union(u, v);
+        }
+        version++;
+    }
+
+    // Replace all outgoing edges of a stock
+    public synchronized void setEdges(String from, List<String> to, double[] weights) {
+        if (to.size() != weights.length) {
+            throw new IllegalArgumentException("Each edge needs exactly one weight");
+        }
+        int u = requireIndex(from);
+        int[] targets = new int[to.size()];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = requireIndex(to.get(i));
+        }
+
+        edgeCount += targets.length - degree[u];
+        edgeTargets[u] = targets;
+        edgeWeights[u] = Arrays.copyOf(weights, targets.length);
+        degree[u] = targets.length;
+
+        // Union-find cannot delete edges, so components are recomputed on next read
+        componentsDirty = true;
+        version++;
+    }
+
+    // Immutable CSR view of the current graph for background analytics
+    public synchronized GraphSnapshot snapshot() {
+        buildCsr();
+        String[] symbols = new String[stocks.size()];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = stocks.get(i).getSymbol();
+        }
+        return new GraphSnapshot(version, symbols, csrOffsets, csrTargets, csrWeights);
     }
 
     // Get related stocks based on sector
-    public List<Stock> getStocksBySector(String sector) {
+    public synchronized List<Stock> getStocksBySector(String sector) {
         List<Stock> sectorStocks = new ArrayList<>();
-        for (Stock stock : stocks.values()) {
-            if (stock.getSector().equals(sector)) {
-                sectorStocks.add(stock);
-            }
+        int sectorId = sector != null ? sectorIds.idOf(sector) : -1;
+        if (sectorId < 0) {
+            return sectorStocks;
+        }
+        BitSet members = sectorMembers.get(sectorId);
+        for (int v = members.nextSetBit(0); v >= 0; v = members.nextSetBit(v + 1)) {
+            sectorStocks.add(stocks.get(v));
         }
         return sectorStocks;
     }
 
     // Find most connected stocks (hub stocks)
-    public List<Stock> getHubStocks(int topK) {
-        List<StockNode> nodes = new ArrayList<>();
+    public synchronized List<Stock> getHubStocks(int topK) {
+        int n = stocks.size();
+        int k = Math.min(Math.max(topK, 0), n);
 
-        for (Map.Entry<String, List<Edge>> entry : adjacencyList.entrySet()) {
-            String symbol = entry.getKey();
-            int connections = entry.getValue().size();
-            nodes.add(new StockNode(stocks.get(symbol), connections));
+        // Pack (degree, -index) into one long so a primitive sort orders by
+        // degree descending and keeps insertion order for ties
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = ((long) degree[i] << 32) | (Integer.MAX_VALUE - i);
         }
+        Arrays.sort(keys);
 
-        nodes.sort((a, b) -> Integer.compare(b.connections, a.connections));
-
-        List<Stock> hubStocks = new ArrayList<>();
-        for (int i = 0; i < Math.min(topK, nodes.size()); i++) {
-            hubStocks.add(nodes.get(i).stock);
+        List<Stock> hubStocks = new ArrayList<>(k);
+        for (int i = 0; i < k; i++) {
+            int index = Integer.MAX_VALUE - (int) (keys[n - 1 - i] & 0xFFFFFFFFL);
+            hubStocks.add(stocks.get(index));
         }
 
         return hubStocks;
     }
 
     // BFS to find related stocks
-    public List<Stock> findRelatedStocks(String symbol, int maxDepth) {
-        Set<String> visited = new HashSet<>();
-        Queue<String> queue = new LinkedList<>();
-        List<Stock> relatedStocks = new ArrayList<>();
+    public synchronized List<Stock> findRelatedStocks(String symbol, int maxDepth) {
+        int source = vertexOf(symbol);
+        if (source < 0) {
+            return new ArrayList<>();
+        }
 
-        queue.offer(symbol);
-        visited.add(symbol);
-        int depth = 0;
+        long key = ((long) source << 32) | (maxDepth & 0xFFFFFFFFL);
+        CachedResult cached = relatedCache.get(key);
+        if (cached == null || cached.version != version) {
+            cached = new CachedResult(version, bfs(source, maxDepth));
+            relatedCache.put(key, cached);
+        }
+
+        List<Stock> relatedStocks = new ArrayList<>(cached.ids.length);
+        for (int id : cached.ids) {
+            relatedStocks.add(stocks.get(id));
+        }
+        return relatedStocks;
+    }
 
-        while (!queue.isEmpty() && depth < maxDepth) {
-            int levelSize = queue.size();
-            for (int i = 0; i < levelSize; i++) {
-                String current = queue.poll();
+    // Level-by-level BFS over the CSR arrays; returns vertices found before maxDepth levels
+    private int[] bfs(int source, int maxDepth) {
+        buildCsr();
 
-                if (!current.equals(symbol)) {
-                    relatedStocks.add(stocks.get(current));
-                }
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        visited.set(source);
 
-                List<Edge> edges = adjacencyList.get(current);
-                if (edges != null) {
-                    for (Edge edge : edges) {
-                        if (!visited.contains(edge.to)) {
-                            visited.add(edge.to);
-                            queue.offer(edge.to);
-                        }
+        int resultStart = 1;
+        int resultEnd = 1;
+        int depth = 0;
+
+        while (head < tail && depth < maxDepth) {
+            int levelEnd = tail;
+            resultEnd = levelEnd;
+            while (head < levelEnd) {
+                int current = queue[head++];
+                for (int e = csrOffsets[current]; e < csrOffsets[current + 1]; e++) {
+                    int next = csrTargets[e];
+                    if (!visited.get(next)) {
+                        visited.set(next);
+                        queue[tail++] = next;
                     }
                 }
             }
             depth++;
         }
 
-        return relatedStocks;
+        // Clear only the marks this traversal set
+        for (int i = 0; i < tail; i++) {
+            visited.clear(queue[i]);
+        }
+
+        return resultEnd > resultStart
+                ? Arrays.copyOfRange(queue, resultStart, resultEnd)
+                : NO_EDGES;
     }
 
-    // DFS to detect strongly related clusters
-    public List<List<Stock>> findStockClusters() {
-        Set<String> visited = new HashSet<>();
-        List<List<Stock>> clusters = new ArrayList<>();
+    // Connected components, read from the union-find
+    public synchronized List<List<Stock>> findStockClusters() {
+        if (componentsDirty) {
+            rebuildComponents();
+        }
+        int n = stocks.size();
+        Map<Integer, List<Stock>> byRoot = new LinkedHashMap<>();
 
-        for (String symbol : stocks.keySet()) {
-            if (!visited.contains(symbol)) {
-                List<Stock> cluster = new ArrayList<>();
-                dfs(symbol, visited, cluster);
-                if (!cluster.isEmpty()) {
-                    clusters.add(cluster);
-                }
-            }
+        for (int i = 0; i < n; i++) {
+            byRoot.computeIfAbsent(find(i), r -> new ArrayList<>()).add(stocks.get(i));
         }
 
-        return clusters;
+        return new ArrayList<>(byRoot.values());
     }
 
-    private void dfs(String symbol, Set<String> visited, List<Stock> cluster) {
-        visited.add(symbol);
-        cluster.add(stocks.get(symbol));
+    // Sector performance (return since previous close), from the running totals
+    public synchronized Map<String, SectorMetrics> getSectorMetrics() {
+        return SectorMetrics.compare(sectorTotals);
+    }
 
-        List<Edge> edges = adjacencyList.get(symbol);
-        if (edges != null) {
-            for (Edge edge : edges) {
-                if (!visited.contains(edge.to)) {
-                    dfs(edge.to, visited, cluster);
-                }
+    // Get all stocks
+    public synchronized List<Stock> getAllStocks() {
+        return new ArrayList<>(stocks);
+    }
+
+    public synchronized Stock getStock(String symbol) {
+        int index = vertexOf(symbol);
+        return index >= 0 ? stocks.get(index) : null;
+    }
+
+    public synchronized int getVertexCount() {
+        return stocks.size();
+    }
+
+    public synchronized int getEdgeCount() {
+        return edgeCount;
+    }
+
+    // Incremented on every topology change (new vertex or edge)
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    private int requireIndex(String symbol) {
+        int index = vertexOf(symbol);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown stock: " + symbol);
+        }
+        return index;
+    }
+
+    // Vertex of a symbol, -1 if absent
+    private int vertexOf(String symbol) {
+        return symbol != null ? vertexOf(symbolIds.idOf(symbol)) : -1;
+    }
+
+    private int vertexOf(int symbolId) {
+        return symbolId >= 0 && symbolId < vertexBySymbolId.length ? vertexBySymbolId[symbolId] - 1 : -1;
+    }
+
+    // Move a vertex to the members of its (possibly new) sector
+    private void setSector(int vertex, String sector) {
+        int sectorId = sector != null ? sectorIds.intern(sector) : -1;
+        int current = sectorOfVertex[vertex];
+        if (sectorId == current) {
+            return;
+        }
+        if (current >= 0) {
+            sectorMembers.get(current).clear(vertex);
+        }
+        if (sectorId >= 0) {
+            while (sectorMembers.size() <= sectorId) {
+                sectorMembers.add(new BitSet());
+                sectorTotals.add(new SectorMetrics(sectorIds.nameOf(sectorMembers.size() - 1)));
             }
+            sectorMembers.get(sectorId).set(vertex);
         }
+        sectorOfVertex[vertex] = sectorId;
     }
 
-    // Calculate sector performance
-    public Map<String, SectorMetrics> getSectorMetrics() {
-        Map<String, SectorMetrics> metrics = new HashMap<>();
+    private void contributeMetrics(int vertex, Stock stock) {
+        changeOfVertex[vertex] = stock.getPriceChangePercent();
+        volumeOfVertex[vertex] = stock.getVolume();
+        if (sectorOfVertex[vertex] >= 0) {
+            sectorTotals.get(sectorOfVertex[vertex]).add(changeOfVertex[vertex], volumeOfVertex[vertex]);
+        }
+    }
 
-        for (Stock stock : stocks.values()) {
-            String sector = stock.getSector();
-            metrics.putIfAbsent(sector, new SectorMetrics(sector));
-            metrics.get(sector).addStock(stock);
+    private void withdrawMetrics(int vertex) {
+        if (sectorOfVertex[vertex] >= 0) {
+            sectorTotals.get(sectorOfVertex[vertex]).remove(changeOfVertex[vertex], volumeOfVertex[vertex]);
         }
+    }
 
-        return metrics;
+    private void ensureVertexCapacity(int required) {
+        if (required <= degree.length) {
+            return;
+        }
+        int capacity = Math.max(required, degree.length * 2);
+        edgeTargets = Arrays.copyOf(edgeTargets, capacity);
+        edgeWeights = Arrays.copyOf(edgeWeights, capacity);
+        degree = Arrays.copyOf(degree, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        rank = Arrays.copyOf(rank, capacity);
+        sectorOfVertex = Arrays.copyOf(sectorOfVertex, capacity);
+        changeOfVertex = Arrays.copyOf(changeOfVertex, capacity);
+        volumeOfVertex = Arrays.copyOf(volumeOfVertex, capacity);
+        queue = Arrays.copyOf(queue, capacity);
     }
 
-    // Get all stocks
-    public Collection<Stock> getAllStocks() {
-        return stocks.values();
+    // Compact the per-vertex arrays into CSR form if the graph changed
+    private void buildCsr() {
+        if (csrVersion == version) {
+            return;
+        }
+
+        int n = stocks.size();
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[edgeCount];
+        double[] weights = new double[edgeCount];
+
+        int pos = 0;
+        for (int i = 0; i < n; i++) {
+            offsets[i] = pos;
+            System.arraycopy(edgeTargets[i], 0, targets, pos, degree[i]);
+            System.arraycopy(edgeWeights[i], 0, weights, pos, degree[i]);
+            pos += degree[i];
+        }
+        offsets[n] = pos;
+
+        csrOffsets = offsets;
+        csrTargets = targets;
+        csrWeights = weights;
+        csrVersion = version;
     }
 
-    public Stock getStock(String symbol) {
-        return stocks.get(symbol);
+    private void rebuildComponents() {
+        int n = stocks.size();
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            rank[i] = 0;
+        }
+        for (int u = 0; u < n; u++) {
+            for (int e = 0; e < degree[u]; e++) {
+                union(u, edgeTargets[u][e]);
+            }
+        }
+        componentsDirty = false;
+    }
+
+    // Union-find with path halving and union by rank
+    private int find(int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    private void union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra == rb) {
+            return;
+        }
+        if (rank[ra] < rank[rb]) {
+            int t = ra; ra = rb; rb = t;
+        }
+        parent[rb] = ra;
+        if (rank[ra] == rank[rb]) {
+            rank[ra]++;
+        }
     }
 
     // Inner class for edge representation
@@ -159,14 +453,14 @@ public class StockGraph {
         }
     }
 
-    // Inner class for stock node with connection count
-    static class StockNode {
-        Stock stock;
-        int connections;
+    // Related-stock ids computed at a given graph version
+    static class CachedResult {
+        final long version;
+        final int[] ids;
 
-        StockNode(Stock stock, int connections) {
-            this.stock = stock;
-            this.connections = connections;
+        CachedResult(long version, int[] ids) {
+            this.version = version;
+            this.ids = ids;
         }
     }
-}
\ No newline at end of file
+}
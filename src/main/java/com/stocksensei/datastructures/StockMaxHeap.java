@@ -2,25 +2,35 @@ package com.stocksensei.datastructures;
 
 import com.stocksensei.model.Stock;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 
 /**
  * Max Heap implementation for efficient stock ranking
  * Supports different ranking criteria through comparators
+ *
+ * Indexed heap: the position of every stock is tracked in an int array keyed
+ * by its symbol id, so updating a symbol already in the heap is O(log n)
+ * instead of a linear search.
  */
 public class StockMaxHeap {
     private List<Stock> heap;
     private Comparator<Stock> comparator;
+    // Heap position + 1 by symbol id, 0 when absent
+    private int[] positions;
 
     public StockMaxHeap(Comparator<Stock> comparator) {
         this.heap = new ArrayList<>();
         this.comparator = comparator;
+        this.positions = new int[16];
     }
 
     // Insert stock into heap
     public void insert(Stock stock) {
         heap.add(stock);
+        setPosition(stock, heap.size() - 1);
         heapifyUp(heap.size() - 1);
     }
 
@@ -32,9 +42,11 @@ public class StockMaxHeap {
 
         Stock max = heap.get(0);
         Stock last = heap.remove(heap.size() - 1);
+        positions[max.getSymbolId()] = 0;
 
         if (!heap.isEmpty()) {
             heap.set(0, last);
+            setPosition(last, 0);
             heapifyDown(0);
         }
 
@@ -47,19 +59,44 @@ public class StockMaxHeap {
     }
 
     // Get top K stocks
+    // Walks the heap from the root with an auxiliary max-heap of candidate
+    // positions, so only O(k log k) entries are examined
     public List<Stock> getTopK(int k) {
         List<Stock> topStocks = new ArrayList<>();
-        List<Stock> tempHeap = new ArrayList<>(heap);
+        if (heap.isEmpty() || k <= 0) {
+            return topStocks;
+        }
+
+        PriorityQueue<Integer> candidates = new PriorityQueue<>(
+                (a, b) -> comparator.compare(heap.get(b), heap.get(a)));
+        candidates.offer(0);
 
-        for (int i = 0; i < Math.min(k, heap.size()); i++) {
-            topStocks.add(heap.get(i));
+        while (!candidates.isEmpty() && topStocks.size() < k) {
+            int index = candidates.poll();
+            topStocks.add(heap.get(index));
+
+            int left = 2 * index + 1;
+            int right = 2 * index + 2;
+            if (left < heap.size()) {
+                candidates.offer(left);
+            }
+            if (right < heap.size()) {
+                candidates.offer(right);
+            }
         }
 
-        // Sort the top K using heap sort principle
-        topStocks.sort(comparator.reversed());
         return topStocks;
     }
 
+    // Insert a new stock or reposition an existing one (same symbol)
+    public void insertOrUpdate(Stock stock) {
+        if (indexOf(stock) >= 0) {
+            updateStock(stock);
+        } else {
+            insert(stock);
+        }
+    }
+
     // Heapify up (bubble up)
     private void heapifyUp(int index) {
         while (index > 0) {
@@ -103,11 +140,13 @@ public class StockMaxHeap {
         Stock temp = heap.get(i);
         heap.set(i, heap.get(j));
         heap.set(j, temp);
+        setPosition(heap.get(i), i);
+        setPosition(temp, j);
     }
 
     // Update stock and re-heapify
     public void updateStock(Stock stock) {
-        int index = heap.indexOf(stock);
+        int index = indexOf(stock);
         if (index != -1) {
             heap.set(index, stock);
             heapifyUp(index);
@@ -115,9 +154,24 @@ public class StockMaxHeap {
         }
     }
 
+    // Heap position of a stock's symbol, -1 if absent
+    private int indexOf(Stock stock) {
+        int id = stock.getSymbolId();
+        return id < positions.length ? positions[id] - 1 : -1;
+    }
+
+    private void setPosition(Stock stock, int index) {
+        int id = stock.getSymbolId();
+        if (id >= positions.length) {
+            positions = Arrays.copyOf(positions, Math.max(id + 1, positions.length * 2));
+        }
+        positions[id] = index + 1;
+    }
+
     // Clear heap
     public void clear() {
         heap.clear();
+        Arrays.fill(positions, 0);
     }
 
     public int size() {
@@ -0,0 +1,124 @@
+package com.stocksensei.datastructures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Dictionary assigning dense int ids to strings (symbols, sectors) at first sight.
+ *
+ * Open addressing with linear probing over parallel key / id arrays, kept at
+ * most half full. Lookups are lock-free: a key is published with release
+ * semantics after its id, and a resize publishes a complete new table.
+ * Interning takes the lock and re-checks the current table. Ids are never
+ * reused, so structures can index plain arrays by them.
+ *
+ * {@link #global()} is the process-wide symbol dictionary shared by the
+ * market data structures.
+ */
+public class SymbolDictionary {
+    private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(String[].class);
+    private static final SymbolDictionary GLOBAL = new SymbolDictionary();
+
+    private volatile Table table;
+    private volatile String[] names;
+    private int size;
+
+    public SymbolDictionary() {
+        this.table = new Table(64);
+        this.names = new String[32];
+    }
+
+    public static SymbolDictionary global() {
+        return GLOBAL;
+    }
+
+    // Id of a string, or -1 if it was never interned (or is null)
+    public int idOf(String name) {
+        if (name == null) {
+            return -1;
+        }
+        Table current = table;
+        int mask = current.keys.length - 1;
+        for (int slot = slot(name, mask); ; slot = (slot + 1) & mask) {
+            String key = (String) KEYS.getAcquire(current.keys, slot);
+            if (key == null) {
+                return -1;
+            }
+            if (key.equals(name)) {
+                return current.ids[slot];
+            }
+        }
+    }
+
+    // Id of a string, assigning the next id on first sight
+    public int intern(String name) {
+        int id = idOf(name);
+        return id >= 0 ? id : internLocked(name);
+    }
+
+    private synchronized int internLocked(String name) {
+        int id = idOf(name);
+        if (id >= 0) {
+            return id;
+        }
+        if (name == null) {
+            throw new IllegalArgumentException("Cannot intern null");
+        }
+
+        id = size;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, id * 2);
+        }
+        names[id] = name;
+        if (2 * (size + 1) > table.keys.length) {
+            table = rehash(table.keys.length * 2);
+        }
+        insert(table, name, id);
+        size++;
+        return id;
+    }
+
+    // String of an id handed out by this dictionary
+    public String nameOf(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private Table rehash(int capacity) {
+        Table resized = new Table(capacity);
+        String[] current = names;
+        for (int id = 0; id < size; id++) {
+            insert(resized, current[id], id);
+        }
+        return resized;
+    }
+
+    private static void insert(Table target, String name, int id) {
+        int mask = target.keys.length - 1;
+        int slot = slot(name, mask);
+        while (target.keys[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        target.ids[slot] = id;
+        KEYS.setRelease(target.keys, slot, name);
+    }
+
+    private static int slot(String name, int mask) {
+        int h = name.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    static class Table {
+        final String[] keys;
+        final int[] ids;
+
+        Table(int capacity) {
+            this.keys = new String[capacity];
+            this.ids = new int[capacity];
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.stocksensei.datastructures;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Sorted index of threshold levels (price, percent, ratio, ...)
+ * A move of a value from one level to another is a stabbing query over the
+ * interval between them, so only the entries inside that range are visited.
+ */
+public class ThresholdIndex<T> {
+    private final NavigableMap<Double, List<T>> levels;
+    private int size;
+
+    public ThresholdIndex() {
+        this.levels = new TreeMap<>();
+        this.size = 0;
+    }
+
+    // Register an entry at a threshold level
+    public void add(double threshold, T entry) {
+        levels.computeIfAbsent(threshold, t -> new ArrayList<>(1)).add(entry);
+        size++;
+    }
+
+    // Remove an entry from a threshold level
+    public boolean remove(double threshold, T entry) {
+        List<T> entries = levels.get(threshold);
+        if (entries == null || !entries.remove(entry)) {
+            return false;
+        }
+        if (entries.isEmpty()) {
+            levels.remove(threshold);
+        }
+        size--;
+        return true;
+    }
+
+    // Entries with from < threshold <= to (value moved up through them)
+    public void collectCrossedUpward(double from, double to, List<T> out) {
+        if (!(to > from)) {
+            return;
+        }
+        for (Map.Entry<Double, List<T>> level : levels.subMap(from, false, to, true).entrySet()) {
+            out.addAll(level.getValue());
+        }
+    }
+
+    // Entries with to <= threshold < from (value moved down through them)
+    public void collectCrossedDownward(double from, double to, List<T> out) {
+        if (!(to < from)) {
+            return;
+        }
+        for (Map.Entry<Double, List<T>> level : levels.subMap(to, true, from, false).entrySet()) {
+            out.addAll(level.getValue());
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,254 @@
+package com.stocksensei.datastructures;
+
+import java.util.*;
+
+/**
+ * Top movers over a sliding time window (e.g. the last 5 minutes)
+ *
+ * Each symbol keeps its samples inside the window in a deque, plus monotonic
+ * deques for the window high and low, so its windowed return and range are
+ * maintained in O(1) amortized per sample. Quote volume is a level, not a
+ * per-tick increment, so a symbol's windowed volume is the change in that
+ * level since the window started (like its return). A global time-ordered
+ * queue (one entry per sample) says whose oldest sample expires next, so
+ * advancing time only touches expiring samples. Rankings are sorted sets per
+ * criterion; only symbols whose window changed are re-positioned.
+ */
+public class WindowedLeaderboard {
+    public static final String CHANGE = "priceChange";
+    public static final String RANGE = "volatility";
+    public static final String VOLUME = "volume";
+
+    private static final List<String> CRITERIA = List.of(CHANGE, RANGE, VOLUME);
+    private static final Comparator<Ranked> RANKING = Comparator
+            .comparingDouble((Ranked r) -> -r.score)
+            .thenComparing(r -> r.symbol);
+
+    private final long windowMillis;
+    private final Map<String, SymbolWindow> windows;
+    private final ArrayDeque<SymbolWindow> expiryQueue;
+    private final List<TreeSet<Ranked>> rankings;
+    private long now;
+
+    public WindowedLeaderboard(long windowMillis) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        this.windowMillis = windowMillis;
+        this.windows = new HashMap<>();
+        this.expiryQueue = new ArrayDeque<>();
+        this.rankings = new ArrayList<>();
+        for (int i = 0; i < CRITERIA.size(); i++) {
+            rankings.add(new TreeSet<>(RANKING));
+        }
+        this.now = Long.MIN_VALUE;
+    }
+
+    public static boolean isCriterion(String criterion) {
+        return CRITERIA.contains(criterion);
+    }
+
+    // Record a tick; timestamps older than the latest one seen are treated as "now"
+    public synchronized void record(String symbol, long timestamp, double price, long volume) {
+        now = Math.max(now, timestamp);
+        SymbolWindow window = windows.computeIfAbsent(symbol, SymbolWindow::new);
+        window.add(new Sample(now, price, volume));
+        expiryQueue.addLast(window);
+
+        expire();
+        rerank(window);
+    }
+
+    // Move the window forward without a tick
+    public synchronized void advance(long timestamp) {
+        now = Math.max(now, timestamp);
+        expire();
+    }
+
+    // Top K symbols by a windowed criterion, best first
+    public synchronized List<Mover> getTopK(String criterion, int k) {
+        int c = CRITERIA.indexOf(criterion);
+        List<Mover> top = new ArrayList<>();
+        if (c < 0) {
+            return top;
+        }
+        for (Ranked ranked : rankings.get(c)) {
+            if (top.size() >= k) {
+                break;
+            }
+            top.add(windows.get(ranked.symbol).toMover());
+        }
+        return top;
+    }
+
+    // Windowed metrics of one symbol, null if it has no sample in the window
+    public synchronized Mover get(String symbol) {
+        SymbolWindow window = windows.get(symbol);
+        return window != null && !window.samples.isEmpty() ? window.toMover() : null;
+    }
+
+    // Number of symbols with at least one sample in the window
+    public synchronized int size() {
+        return rankings.get(0).size();
+    }
+
+    public synchronized void clear() {
+        windows.clear();
+        expiryQueue.clear();
+        rankings.forEach(TreeSet::clear);
+        now = Long.MIN_VALUE;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    // Evict samples that fell out of (now - window, now]
+    private void expire() {
+        long cutoff = now - windowMillis;
+        while (!expiryQueue.isEmpty() && expiryQueue.peekFirst().oldestTimestamp() <= cutoff) {
+            SymbolWindow window = expiryQueue.pollFirst();
+            window.evictOldest();
+            rerank(window);
+        }
+    }
+
+    private void rerank(SymbolWindow window) {
+        for (int c = 0; c < CRITERIA.size(); c++) {
+            if (window.ranked[c] != null) {
+                rankings.get(c).remove(window.ranked[c]);
+                window.ranked[c] = null;
+            }
+        }
+        if (window.samples.isEmpty()) {
+            return;
+        }
+        double[] scores = {window.changePercent(), window.rangePercent(), window.volume()};
+        for (int c = 0; c < CRITERIA.size(); c++) {
+            window.ranked[c] = new Ranked(window.symbol, scores[c]);
+            rankings.get(c).add(window.ranked[c]);
+        }
+    }
+
+    /**
+     * Windowed metrics of one symbol
+     */
+    public static class Mover {
+        private final String symbol;
+        private final double lastPrice;
+        private final double changePercent;
+        private final double rangePercent;
+        private final long volume;
+        private final int samples;
+
+        public Mover(String symbol, double lastPrice, double changePercent,
+                     double rangePercent, long volume, int samples) {
+            this.symbol = symbol;
+            this.lastPrice = lastPrice;
+            this.changePercent = changePercent;
+            this.rangePercent = rangePercent;
+            this.volume = volume;
+            this.samples = samples;
+        }
+
+        public String getSymbol() { return symbol; }
+        public double getLastPrice() { return lastPrice; }
+        public double getChangePercent() { return changePercent; }
+        public double getRangePercent() { return rangePercent; }
+        public long getVolume() { return volume; }
+        public int getSamples() { return samples; }
+    }
+
+    // Immutable ranking key; replaced (not mutated) when the score changes
+    static class Ranked {
+        final String symbol;
+        final double score;
+
+        Ranked(String symbol, double score) {
+            this.symbol = symbol;
+            this.score = score;
+        }
+    }
+
+    static class Sample {
+        final long timestamp;
+        final double price;
+        final long volume;
+
+        Sample(long timestamp, double price, long volume) {
+            this.timestamp = timestamp;
+            this.price = price;
+            this.volume = volume;
+        }
+    }
+
+    static class SymbolWindow {
+        final String symbol;
+        final ArrayDeque<Sample> samples = new ArrayDeque<>();
+        // Decreasing / increasing prices; the head is the window high / low
+        final ArrayDeque<Sample> highs = new ArrayDeque<>();
+        final ArrayDeque<Sample> lows = new ArrayDeque<>();
+        final Ranked[] ranked = new Ranked[CRITERIA.size()];
+        // Last price and volume level before the window started, NaN / -1 until a sample expires
+        double priceBeforeWindow = Double.NaN;
+        long volumeBeforeWindow = -1;
+
+        SymbolWindow(String symbol) {
+            this.symbol = symbol;
+        }
+
+        void add(Sample sample) {
+            samples.addLast(sample);
+            while (!highs.isEmpty() && highs.peekLast().price <= sample.price) {
+                highs.pollLast();
+            }
+            highs.addLast(sample);
+            while (!lows.isEmpty() && lows.peekLast().price >= sample.price) {
+                lows.pollLast();
+            }
+            lows.addLast(sample);
+        }
+
+        void evictOldest() {
+            Sample oldest = samples.pollFirst();
+            priceBeforeWindow = oldest.price;
+            volumeBeforeWindow = oldest.volume;
+            if (highs.peekFirst() == oldest) {
+                highs.pollFirst();
+            }
+            if (lows.peekFirst() == oldest) {
+                lows.pollFirst();
+            }
+        }
+
+        long oldestTimestamp() {
+            return samples.peekFirst().timestamp;
+        }
+
+        // Price the window return is measured from
+        double basePrice() {
+            return Double.isNaN(priceBeforeWindow) ? samples.peekFirst().price : priceBeforeWindow;
+        }
+
+        double changePercent() {
+            double base = basePrice();
+            return base != 0 ? (samples.peekLast().price - base) / base * 100 : 0;
+        }
+
+        double rangePercent() {
+            double base = basePrice();
+            return base != 0 ? (highs.peekFirst().price - lows.peekFirst().price) / base * 100 : 0;
+        }
+
+        // Volume traded in the window; a level that fell (e.g. a new session) counts as none
+        long volume() {
+            long base = volumeBeforeWindow >= 0 ? volumeBeforeWindow : samples.peekFirst().volume;
+            return Math.max(0, samples.peekLast().volume - base);
+        }
+
+        Mover toMover() {
+            return new Mover(symbol, samples.peekLast().price, changePercent(), rangePercent(),
+                    volume(), samples.size());
+        }
+    }
+}
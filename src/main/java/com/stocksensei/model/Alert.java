@@ -0,0 +1,56 @@
+package com.stocksensei.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Alert fired when a rule's condition is met
+ */
+public class Alert {
+    private long ruleId;
+    private String userId;
+    private String symbol;
+    private AlertCondition condition;
+    private double threshold;
+    private double value;
+    private double currentPrice;
+    private LocalDateTime triggeredAt;
+
+    public Alert() {
+        this.triggeredAt = LocalDateTime.now();
+    }
+
+    public Alert(AlertRule rule, double value, Stock stock) {
+        this.ruleId = rule.getId();
+        this.userId = rule.getUserId();
+        this.symbol = rule.getSymbol();
+        this.condition = rule.getCondition();
+        this.threshold = rule.getThreshold();
+        this.value = value;
+        this.currentPrice = stock.getCurrentPrice();
+        this.triggeredAt = LocalDateTime.now();
+    }
+
+    public long getRuleId() { return ruleId; }
+    public void setRuleId(long ruleId) { this.ruleId = ruleId; }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public AlertCondition getCondition() { return condition; }
+    public void setCondition(AlertCondition condition) { this.condition = condition; }
+
+    public double getThreshold() { return threshold; }
+    public void setThreshold(double threshold) { this.threshold = threshold; }
+
+    public double getValue() { return value; }
+    public void setValue(double value) { this.value = value; }
+
+    public double getCurrentPrice() { return currentPrice; }
+    public void setCurrentPrice(double currentPrice) { this.currentPrice = currentPrice; }
+
+    public LocalDateTime getTriggeredAt() { return triggeredAt; }
+    public void setTriggeredAt(LocalDateTime triggeredAt) { this.triggeredAt = triggeredAt; }
+}
@@ -0,0 +1,20 @@
+package com.stocksensei.model;
+
+/**
+ * Conditions an alert rule can watch for.
+ * All conditions are edge-triggered: a rule fires when the watched value
+ * crosses its threshold between two consecutive updates of the symbol.
+ */
+public enum AlertCondition {
+    PRICE_CROSSES_ABOVE,
+    PRICE_CROSSES_BELOW,
+    CHANGE_PERCENT_ABOVE,
+    CHANGE_PERCENT_BELOW,
+    VOLUME_SPIKE,
+    VOLATILITY_ABOVE;
+
+    // True when the rule fires on an upward crossing of the threshold
+    public boolean isUpward() {
+        return this != PRICE_CROSSES_BELOW && this != CHANGE_PERCENT_BELOW;
+    }
+}
@@ -0,0 +1,54 @@
+package com.stocksensei.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * User-registered alert rule evaluated on every stock update.
+ * For VOLUME_SPIKE the threshold is a multiple of the symbol's average volume.
+ */
+public class AlertRule {
+    private long id;
+    private String userId;
+    private String symbol;
+    private AlertCondition condition;
+    private double threshold;
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public AlertRule() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public AlertRule(String userId, String symbol, AlertCondition condition, double threshold) {
+        this.userId = userId;
+        this.symbol = symbol;
+        this.condition = condition;
+        this.threshold = threshold;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public AlertCondition getCondition() { return condition; }
+    public void setCondition(AlertCondition condition) { this.condition = condition; }
+
+    public double getThreshold() { return threshold; }
+    public void setThreshold(double threshold) { this.threshold = threshold; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    @Override
+    public String toString() {
+        return String.format("AlertRule{id=%d, user='%s', symbol='%s', %s %.2f}",
+                id, userId, symbol, condition, threshold);
+    }
+}
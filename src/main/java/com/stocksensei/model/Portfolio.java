@@ -0,0 +1,51 @@
+package com.stocksensei.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * User portfolio: positions per symbol, valued live by the portfolio engine
+ */
+public class Portfolio {
+    private long id;
+    private String userId;
+    private String name;
+    private List<Position> positions;
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public Portfolio() {
+        this.positions = new ArrayList<>();
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Portfolio(String userId, String name, List<Position> positions) {
+        this.userId = userId;
+        this.name = name;
+        this.positions = new ArrayList<>(positions);
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public List<Position> getPositions() { return positions; }
+    public void setPositions(List<Position> positions) { this.positions = positions; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    @Override
+    public String toString() {
+        return String.format("Portfolio{id=%d, user='%s', name='%s', %d positions}",
+                id, userId, name, positions != null ? positions.size() : 0);
+    }
+}
@@ -0,0 +1,35 @@
+package com.stocksensei.model;
+
+/**
+ * Holding of one symbol in a portfolio
+ */
+public class Position {
+    private String symbol;
+    private double quantity;
+    private double averageCost;
+
+    // Constructors
+    public Position() {
+    }
+
+    public Position(String symbol, double quantity, double averageCost) {
+        this.symbol = symbol;
+        this.quantity = quantity;
+        this.averageCost = averageCost;
+    }
+
+    // Getters and Setters
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public double getQuantity() { return quantity; }
+    public void setQuantity(double quantity) { this.quantity = quantity; }
+
+    public double getAverageCost() { return averageCost; }
+    public void setAverageCost(double averageCost) { this.averageCost = averageCost; }
+
+    @Override
+    public String toString() {
+        return String.format("Position{%s x %.4f @ %.2f}", symbol, quantity, averageCost);
+    }
+}
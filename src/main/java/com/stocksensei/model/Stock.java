@@ -1,5 +1,8 @@
 package com.stocksensei.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.stocksensei.datastructures.SymbolDictionary;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
@@ -18,6 +21,11 @@ public class Stock implements Comparable<Stock> {
     private double volatility;
     private LocalDateTime lastUpdated;
     private String sector;
+    // Id of the symbol in the global SymbolDictionary, resolved on first use
+    private int symbolId = -1;
+    // System.nanoTime() at ingest and market sequence number, for latency tracing
+    private long ingestNanos;
+    private long sequence;
 
     // Constructors
     public Stock() {
@@ -47,7 +55,18 @@ public class Stock implements Comparable<Stock> {
 
     // Getters and Setters
     public String getSymbol() { return symbol; }
-    public void setSymbol(String symbol) { this.symbol = symbol; }
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+        this.symbolId = -1;
+    }
+
+    @JsonIgnore
+    public int getSymbolId() {
+        if (symbolId < 0) {
+            symbolId = SymbolDictionary.global().intern(symbol);
+        }
+        return symbolId;
+    }
 
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
@@ -81,6 +100,15 @@ public class Stock implements Comparable<Stock> {
     public String getSector() { return sector; }
     public void setSector(String sector) { this.sector = sector; }
 
+    // Server-assigned: serialized for clients (latency echo) but never read from requests
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public long getIngestNanos() { return ingestNanos; }
+    public void setIngestNanos(long ingestNanos) { this.ingestNanos = ingestNanos; }
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public long getSequence() { return sequence; }
+    public void setSequence(long sequence) { this.sequence = sequence; }
+
     // Compare based on price change percentage (for default sorting)
     @Override
     public int compareTo(Stock other) {
@@ -92,6 +120,9 @@ public class Stock implements Comparable<Stock> {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Stock stock = (Stock) o;
+        if (symbolId >= 0 && stock.symbolId >= 0) {
+            return symbolId == stock.symbolId;
+        }
         return Objects.equals(symbol, stock.symbol);
     }
 
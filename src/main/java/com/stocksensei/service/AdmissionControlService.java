@@ -0,0 +1,155 @@
+package com.stocksensei.service;
+
+import com.stocksensei.datastructures.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for the REST API.
+ *
+ * Each client (by address) has a token bucket; each endpoint class (cheap
+ * reads, graph traversals, writes) has a fixed number of concurrent slots.
+ * A request waits for a slot at most stock.admission.queue-budget and is
+ * shed otherwise, so a burst queues briefly instead of piling up on Tomcat
+ * threads. Result sizes (k, depth) are capped. Admissions, rejections,
+ * queue wait and slots in use are exported as Micrometer metrics
+ * (stocksensei.admission.*).
+ */
+@Service
+public class AdmissionControlService {
+
+    public enum EndpointClass { READ, GRAPH, WRITE }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${stock.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${stock.admission.rate:50}")
+    private double rate;
+
+    @Value("${stock.admission.burst:100}")
+    private int burst;
+
+    @Value("${stock.admission.concurrency.read:64}")
+    private int readConcurrency;
+
+    @Value("${stock.admission.concurrency.graph:8}")
+    private int graphConcurrency;
+
+    @Value("${stock.admission.concurrency.write:16}")
+    private int writeConcurrency;
+
+    @Value("${stock.admission.queue-budget:100ms}")
+    private Duration queueBudget;
+
+    @Value("${stock.admission.max-k:100}")
+    private int maxK;
+
+    @Value("${stock.admission.max-depth:4}")
+    private int maxDepth;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<EndpointClass, Semaphore> slots = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> admitted = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> rateLimited = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> shed = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Timer> queueWait = new EnumMap<>(EndpointClass.class);
+
+    @PostConstruct
+    public void initialize() {
+        slots.put(EndpointClass.READ, new Semaphore(readConcurrency, true));
+        slots.put(EndpointClass.GRAPH, new Semaphore(graphConcurrency, true));
+        slots.put(EndpointClass.WRITE, new Semaphore(writeConcurrency, true));
+
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String tag = endpointClass.name().toLowerCase();
+            Semaphore semaphore = slots.get(endpointClass);
+            int capacity = semaphore.availablePermits();
+            admitted.put(endpointClass, Counter.builder("stocksensei.admission.admitted")
+                    .tag("class", tag).register(meterRegistry));
+            rateLimited.put(endpointClass, Counter.builder("stocksensei.admission.rejected")
+                    .tag("class", tag).tag("reason", "rate_limited").register(meterRegistry));
+            shed.put(endpointClass, Counter.builder("stocksensei.admission.rejected")
+                    .tag("class", tag).tag("reason", "shed").register(meterRegistry));
+            queueWait.put(endpointClass, Timer.builder("stocksensei.admission.queue.wait")
+                    .tag("class", tag).publishPercentiles(0.5, 0.99).register(meterRegistry));
+            Gauge.builder("stocksensei.admission.in.flight", semaphore, s -> capacity - s.availablePermits())
+                    .tag("class", tag).register(meterRegistry);
+        }
+        Gauge.builder("stocksensei.admission.clients", buckets, Map::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Take a token from the client's bucket.
+     * Returns 0 if admitted, otherwise the nanoseconds until the client may retry.
+     */
+    public long tryAcquireToken(String client, EndpointClass endpointClass) {
+        long now = System.nanoTime();
+        long wait = buckets.computeIfAbsent(client, c -> new TokenBucket(rate, burst, now)).tryAcquire(now);
+        if (wait > 0) {
+            rateLimited.get(endpointClass).increment();
+        }
+        return wait;
+    }
+
+    /**
+     * Wait up to the queue budget for a slot of the endpoint class.
+     * Returns false (and counts the request as shed) if none freed up in time.
+     */
+    public boolean acquireSlot(EndpointClass endpointClass) {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = slots.get(endpointClass).tryAcquire(queueBudget.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        queueWait.get(endpointClass).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        (acquired ? admitted : shed).get(endpointClass).increment();
+        return acquired;
+    }
+
+    public void releaseSlot(EndpointClass endpointClass) {
+        slots.get(endpointClass).release();
+    }
+
+    // Clamp a requested result size (top K, hubs, nearest, ...)
+    public int capK(int k) {
+        return Math.max(0, Math.min(k, maxK));
+    }
+
+    // Clamp a requested graph traversal depth
+    public int capDepth(int depth) {
+        return Math.max(0, Math.min(depth, maxDepth));
+    }
+
+    /**
+     * Drop the buckets of idle clients (refilled completely) so the map stays bounded
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdleClients() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+}
@@ -0,0 +1,206 @@
+package com.stocksensei.service;
+
+import com.stocksensei.datastructures.ThresholdIndex;
+import com.stocksensei.model.Alert;
+import com.stocksensei.model.AlertCondition;
+import com.stocksensei.model.AlertRule;
+import com.stocksensei.model.Stock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-side alert / screener engine.
+ * Rules are indexed by symbol and then by threshold level per condition, so an
+ * update only visits the rules whose threshold lies between the old and new value.
+ * Fired alerts are pushed to /user/{userId}/queue/alerts.
+ * In cluster mode rules live on the node that owns their symbol.
+ */
+@Service
+public class AlertEngine {
+    private static final double VOLUME_AVERAGE_WEIGHT = 0.1;
+
+    @Autowired(required = false)
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired(required = false)
+    private ClusterService clusterService;
+
+    private final Map<String, SymbolRuleBook> ruleBooks = new ConcurrentHashMap<>();
+    private final Map<Long, AlertRule> rulesById = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> rulesByUser = new ConcurrentHashMap<>();
+    private final AtomicLong nextRuleId = new AtomicLong(1);
+
+    // Register a rule and return it with its assigned id
+    public AlertRule registerRule(AlertRule rule) {
+        if (rule.getUserId() == null || rule.getUserId().isBlank()) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        if (rule.getSymbol() == null || rule.getSymbol().isBlank()) {
+            throw new IllegalArgumentException("symbol is required");
+        }
+        if (rule.getCondition() == null) {
+            throw new IllegalArgumentException("condition is required");
+        }
+        if (Double.isNaN(rule.getThreshold()) || Double.isInfinite(rule.getThreshold())) {
+            throw new IllegalArgumentException("threshold must be a finite number");
+        }
+
+        long sequence = nextRuleId.getAndIncrement();
+        rule.setId(clusterService != null ? clusterService.nodeUniqueId(sequence) : sequence);
+        rulesById.put(rule.getId(), rule);
+        rulesByUser.computeIfAbsent(rule.getUserId(), u -> ConcurrentHashMap.newKeySet())
+                .add(rule.getId());
+        ruleBooks.computeIfAbsent(rule.getSymbol(), s -> new SymbolRuleBook()).add(rule);
+        return rule;
+    }
+
+    // Remove a rule, returns false if it does not exist
+    public boolean removeRule(long ruleId) {
+        AlertRule rule = rulesById.remove(ruleId);
+        if (rule == null) {
+            return false;
+        }
+        Set<Long> userRules = rulesByUser.get(rule.getUserId());
+        if (userRules != null) {
+            userRules.remove(ruleId);
+        }
+        SymbolRuleBook book = ruleBooks.get(rule.getSymbol());
+        if (book != null) {
+            book.remove(rule);
+        }
+        return true;
+    }
+
+    public AlertRule getRule(long ruleId) {
+        return rulesById.get(ruleId);
+    }
+
+    // Get all rules registered by a user
+    public List<AlertRule> getRulesForUser(String userId) {
+        Set<Long> ids = rulesByUser.getOrDefault(userId, Collections.emptySet());
+        List<AlertRule> rules = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            AlertRule rule = rulesById.get(id);
+            if (rule != null) {
+                rules.add(rule);
+            }
+        }
+        rules.sort(Comparator.comparingLong(AlertRule::getId));
+        return rules;
+    }
+
+    public int getRuleCount() {
+        return rulesById.size();
+    }
+
+    @EventListener
+    public void onStockUpdate(StockUpdateEvent event) {
+        for (Alert alert : evaluate(event.getPrevious(), event.getCurrent())) {
+            dispatch(alert);
+        }
+    }
+
+    // Evaluate only the rules registered for this symbol that can fire on this move
+    public List<Alert> evaluate(Stock previous, Stock current) {
+        SymbolRuleBook book = ruleBooks.get(current.getSymbol());
+        if (book == null) {
+            return Collections.emptyList();
+        }
+        return book.evaluate(previous, current);
+    }
+
+    private void dispatch(Alert alert) {
+        if (messagingTemplate != null) {
+            try {
+                messagingTemplate.convertAndSendToUser(alert.getUserId(), "/queue/alerts", alert);
+            } catch (MessageDeliveryException e) {
+                // Broker relay not connected (cluster mode); the alert is dropped
+            }
+        }
+    }
+
+    /**
+     * Rules for a single symbol, one threshold index per condition
+     */
+    static class SymbolRuleBook {
+        private final EnumMap<AlertCondition, ThresholdIndex<AlertRule>> indexes =
+                new EnumMap<>(AlertCondition.class);
+        private double averageVolume = Double.NaN;
+        private double lastVolumeRatio = Double.NaN;
+
+        synchronized void add(AlertRule rule) {
+            indexes.computeIfAbsent(rule.getCondition(), c -> new ThresholdIndex<>())
+                    .add(rule.getThreshold(), rule);
+        }
+
+        synchronized void remove(AlertRule rule) {
+            ThresholdIndex<AlertRule> index = indexes.get(rule.getCondition());
+            if (index != null) {
+                index.remove(rule.getThreshold(), rule);
+            }
+        }
+
+        synchronized List<Alert> evaluate(Stock previous, Stock current) {
+            List<Alert> fired = new ArrayList<>();
+
+            double volumeRatio = updateVolumeRatio(current.getVolume());
+            if (previous == null) {
+                return fired;
+            }
+
+            collect(AlertCondition.PRICE_CROSSES_ABOVE,
+                    previous.getCurrentPrice(), current.getCurrentPrice(), current, fired);
+            collect(AlertCondition.PRICE_CROSSES_BELOW,
+                    previous.getCurrentPrice(), current.getCurrentPrice(), current, fired);
+            collect(AlertCondition.CHANGE_PERCENT_ABOVE,
+                    previous.getPriceChangePercent(), current.getPriceChangePercent(), current, fired);
+            collect(AlertCondition.CHANGE_PERCENT_BELOW,
+                    previous.getPriceChangePercent(), current.getPriceChangePercent(), current, fired);
+            collect(AlertCondition.VOLATILITY_ABOVE,
+                    previous.getVolatility(), current.getVolatility(), current, fired);
+            collect(AlertCondition.VOLUME_SPIKE,
+                    lastVolumeRatio, volumeRatio, current, fired);
+
+            lastVolumeRatio = volumeRatio;
+            return fired;
+        }
+
+        // Volume relative to the running average, then fold the new volume in
+        private double updateVolumeRatio(long volume) {
+            if (Double.isNaN(averageVolume)) {
+                averageVolume = volume;
+                lastVolumeRatio = 1.0;
+                return 1.0;
+            }
+            double ratio = averageVolume > 0 ? volume / averageVolume : 0;
+            averageVolume += VOLUME_AVERAGE_WEIGHT * (volume - averageVolume);
+            return ratio;
+        }
+
+        private void collect(AlertCondition condition, double from, double to,
+                             Stock current, List<Alert> fired) {
+            ThresholdIndex<AlertRule> index = indexes.get(condition);
+            if (index == null || index.isEmpty() || Double.isNaN(from)) {
+                return;
+            }
+
+            List<AlertRule> crossed = new ArrayList<>();
+            if (condition.isUpward()) {
+                index.collectCrossedUpward(from, to, crossed);
+            } else {
+                index.collectCrossedDownward(from, to, crossed);
+            }
+
+            for (AlertRule rule : crossed) {
+                fired.add(new Alert(rule, to, current));
+            }
+        }
+    }
+}
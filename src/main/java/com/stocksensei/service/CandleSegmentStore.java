@@ -0,0 +1,212 @@
+package com.stocksensei.service;
+
+import com.stocksensei.datastructures.CandleCodec;
+import com.stocksensei.datastructures.Candles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Cold tier of the price history: per-symbol segment files of compressed
+ * candles (see CandleCodec) under one directory, as
+ * directory/SYMBOL/firstTimestamp-lastTimestamp.seg.
+ *
+ * The header of every segment is read once into a per-symbol index ordered
+ * by last timestamp. A range query memory-maps only the segments overlapping
+ * it, newest first, and stops as soon as the remaining ones are all older
+ * than the candles it already has. Segments are written to a temporary file
+ * and moved into place, so a crash never leaves a partial one behind.
+ */
+class CandleSegmentStore {
+    private static final Logger log = LoggerFactory.getLogger(CandleSegmentStore.class);
+    private static final String EXTENSION = ".seg";
+    private static final Comparator<Segment> BY_LAST_TIMESTAMP =
+            Comparator.comparingLong((Segment segment) -> segment.lastTimestamp)
+                    .thenComparingLong(segment -> segment.firstTimestamp);
+
+    private final Path directory;
+    // Segments of every symbol, oldest last timestamp first; replaced on write
+    private final Map<String, List<Segment>> index = new ConcurrentHashMap<>();
+
+    CandleSegmentStore(Path directory) {
+        this.directory = directory.toAbsolutePath();
+    }
+
+    // Index the segments already on disk; unreadable files are skipped
+    synchronized void open() throws IOException {
+        index.clear();
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> symbols = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path symbolDirectory : symbols) {
+                String symbol = URLDecoder.decode(symbolDirectory.getFileName().toString(), StandardCharsets.UTF_8);
+                List<Segment> segments = new ArrayList<>();
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(symbolDirectory, "*" + EXTENSION)) {
+                    for (Path file : files) {
+                        try {
+                            segments.add(new Segment(file, readHeader(file)));
+                        } catch (IOException | IllegalArgumentException e) {
+                            log.warn("Skipping candle segment {}: {}", file, e.getMessage());
+                        }
+                    }
+                }
+                if (!segments.isEmpty()) {
+                    segments.sort(BY_LAST_TIMESTAMP);
+                    index.put(symbol, List.copyOf(segments));
+                }
+            }
+        }
+    }
+
+    // Write the candles at positions [from, to) of a symbol as a new segment
+    synchronized void write(String symbol, Candles candles, int from, int to) throws IOException {
+        byte[] encoded = CandleCodec.encode(candles, from, to);
+        CandleCodec.Header header = CandleCodec.readHeader(ByteBuffer.wrap(encoded));
+
+        Path symbolDirectory = directory.resolve(directoryName(symbol));
+        Files.createDirectories(symbolDirectory);
+        String name = header.firstTimestamp + "-" + header.lastTimestamp;
+        Path path = symbolDirectory.resolve(name + EXTENSION);
+        for (int n = 1; Files.exists(path); n++) {
+            path = symbolDirectory.resolve(name + "-" + n + EXTENSION);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temp, encoded);
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+
+        List<Segment> segments = new ArrayList<>(index.getOrDefault(symbol, List.of()));
+        segments.add(new Segment(path, header));
+        segments.sort(BY_LAST_TIMESTAMP);
+        index.put(symbol, List.copyOf(segments));
+    }
+
+    /**
+     * Candles of a symbol with from <= timestamp <= to, the newest limit of them
+     */
+    Candles read(String symbol, long from, long to, int limit) throws IOException {
+        List<Segment> segments = index.getOrDefault(symbol, List.of());
+        List<Candles> runs = new ArrayList<>();
+        // Timestamps of the candles found so far, to know when older segments cannot contribute
+        PriorityQueue<Long> newest = new PriorityQueue<>();
+        for (int i = segments.size() - 1; i >= 0 && limit > 0; i--) {
+            Segment segment = segments.get(i);
+            if (newest.size() >= limit && segment.lastTimestamp < newest.peek()) {
+                break;
+            }
+            if (segment.lastTimestamp < from || segment.firstTimestamp > to) {
+                continue;
+            }
+            Candles run = map(segment.path).range(from, to, limit);
+            for (int j = 0; j < run.size(); j++) {
+                newest.add(run.timestamp(j));
+                if (newest.size() > limit) {
+                    newest.poll();
+                }
+            }
+            runs.add(run);
+        }
+        Candles merged = Candles.merge(runs);
+        return merged.copy(Math.max(0, merged.size() - Math.max(0, limit)), merged.size());
+    }
+
+    // Oldest candle of a symbol with from <= timestamp <= to; only segments that can hold an older one are decoded
+    Candles readFirst(String symbol, long from, long to) throws IOException {
+        Candles first = new Candles(1);
+        for (Segment segment : index.getOrDefault(symbol, List.of())) {
+            if (segment.lastTimestamp < from || segment.firstTimestamp > to
+                    || (first.size() > 0 && segment.firstTimestamp >= first.timestamp(0))) {
+                continue;
+            }
+            Candles candidate = map(segment.path).first(from, to);
+            if (candidate.size() > 0 && (first.size() == 0 || candidate.timestamp(0) < first.timestamp(0))) {
+                first = candidate;
+            }
+        }
+        return first;
+    }
+
+    // First timestamp of the oldest segment of any symbol, Long.MAX_VALUE when there are none
+    long oldestTimestamp() {
+        long oldest = Long.MAX_VALUE;
+        for (List<Segment> segments : index.values()) {
+            for (Segment segment : segments) {
+                oldest = Math.min(oldest, segment.firstTimestamp);
+            }
+        }
+        return oldest;
+    }
+
+    // Delete every segment
+    synchronized void clear() throws IOException {
+        index.clear();
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> symbols = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path symbolDirectory : symbols) {
+                try (Stream<Path> files = Files.list(symbolDirectory)) {
+                    for (Path file : (Iterable<Path>) files::iterator) {
+                        String name = file.getFileName().toString();
+                        if (name.endsWith(EXTENSION) || name.endsWith(EXTENSION + ".tmp")) {
+                            Files.delete(file);
+                        }
+                    }
+                }
+                try {
+                    Files.delete(symbolDirectory);
+                } catch (DirectoryNotEmptyException e) {
+                    // Not only ours; leave it
+                }
+            }
+        }
+    }
+
+    int segmentCount(String symbol) {
+        return index.getOrDefault(symbol, List.of()).size();
+    }
+
+    private static CandleCodec.Header readHeader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(CandleCodec.HEADER_BYTES);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading until the header is complete or the file ends
+            }
+            buffer.flip();
+            return CandleCodec.readHeader(buffer);
+        }
+    }
+
+    private static Candles map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return CandleCodec.decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // Symbols become directory names; dots are escaped too, so none can be "." or ".."
+    private static String directoryName(String symbol) {
+        return URLEncoder.encode(symbol, StandardCharsets.UTF_8).replace(".", "%2E").replace("*", "%2A");
+    }
+
+    private static class Segment {
+        final Path path;
+        final long firstTimestamp;
+        final long lastTimestamp;
+
+        Segment(Path path, CandleCodec.Header header) {
+            this.path = path;
+            this.firstTimestamp = header.firstTimestamp;
+            this.lastTimestamp = header.lastTimestamp;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.stocksensei.service;
+
+import com.stocksensei.model.Stock;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Multi-node (cluster) mode.
+ *
+ * Symbols are partitioned across the nodes listed in stock.cluster.nodes by
+ * symbol hash; each node ingests and analyses only the symbols it owns.
+ * Writes for other symbols are forwarded to their owner, and global queries
+ * (top-K, market summary, all stocks) scatter to every partition and merge
+ * the answers. With clustering disabled this node owns every symbol and all
+ * calls stay local.
+ */
+@Service
+public class ClusterService {
+    private static final Logger log = LoggerFactory.getLogger(ClusterService.class);
+
+    @Autowired
+    private StockAnalysisService analysisService;
+
+    @Autowired
+    private RestClient.Builder restClientBuilder;
+
+    @Value("${stock.cluster.enabled:false}")
+    private boolean enabled;
+
+    @Value("${stock.cluster.node-index:0}")
+    private int nodeIndex;
+
+    @Value("${stock.cluster.nodes:}")
+    private List<String> nodes;
+
+    @Value("${stock.cluster.request-timeout:2000}")
+    private long requestTimeoutMillis;
+
+    private RestClient restClient;
+    private ExecutorService gatherExecutor;
+    // Addresses of the cluster nodes, trusted to report the original client in X-Forwarded-For
+    private final Set<String> peerAddresses = new HashSet<>();
+
+    @PostConstruct
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+        if (nodes.isEmpty() || nodeIndex < 0 || nodeIndex >= nodes.size()) {
+            throw new IllegalStateException("stock.cluster.node-index " + nodeIndex
+                    + " is not a position in stock.cluster.nodes " + nodes);
+        }
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(requestTimeoutMillis))
+                .build());
+        requestFactory.setReadTimeout(Duration.ofMillis(requestTimeoutMillis));
+        restClient = restClientBuilder.requestFactory(requestFactory).build();
+
+        for (String node : nodes) {
+            try {
+                for (InetAddress address : InetAddress.getAllByName(URI.create(node).getHost())) {
+                    peerAddresses.add(address.getHostAddress());
+                }
+            } catch (UnknownHostException | IllegalArgumentException e) {
+                log.warn("Cannot resolve cluster node {}: {}", node, e.getMessage());
+            }
+        }
+
+        gatherExecutor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "cluster-gather");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (gatherExecutor != null) {
+            gatherExecutor.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getNodeIndex() {
+        return enabled ? nodeIndex : 0;
+    }
+
+    public int getNodeCount() {
+        return enabled ? nodes.size() : 1;
+    }
+
+    public List<String> getNodes() {
+        return enabled ? nodes : Collections.emptyList();
+    }
+
+    // Node that owns a symbol (String.hashCode is stable across JVMs)
+    public int ownerOf(String symbol) {
+        return Math.floorMod(symbol.hashCode(), getNodeCount());
+    }
+
+    public boolean isLocal(String symbol) {
+        return ownerOf(symbol) == getNodeIndex();
+    }
+
+    // Ids allocated on this node are congruent to the node index, so any node can route them
+    public long nodeUniqueId(long sequence) {
+        return sequence * getNodeCount() + getNodeIndex();
+    }
+
+    public int ownerOfId(long id) {
+        return (int) Math.floorMod(id, (long) getNodeCount());
+    }
+
+    /**
+     * Add or update a stock on the node that owns it
+     * @throws IllegalArgumentException if the stock has no symbol
+     */
+    public ResponseEntity<Stock> addOrUpdateStock(Stock stock) {
+        if (stock.getSymbol() == null || stock.getSymbol().isBlank()) {
+            throw new IllegalArgumentException("Stock symbol is required");
+        }
+        int owner = ownerOf(stock.getSymbol());
+        if (owner == getNodeIndex()) {
+            analysisService.addOrUpdateStock(stock);
+            return ResponseEntity.ok(stock);
+        }
+        return forward(owner, HttpMethod.POST, "/api/stocks", stock, Stock.class);
+    }
+
+    // Whether a request comes straight from another cluster node
+    public boolean isPeer(HttpServletRequest request) {
+        return enabled && peerAddresses.contains(request.getRemoteAddr());
+    }
+
+    // Address of the client behind a request; for requests forwarded by a peer, the original client
+    public String clientAddress(HttpServletRequest request) {
+        String remote = request.getRemoteAddr();
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor != null && isPeer(request)) {
+            int comma = forwardedFor.indexOf(',');
+            return (comma < 0 ? forwardedFor : forwardedFor.substring(0, comma)).trim();
+        }
+        return remote;
+    }
+
+    // Path of a request to another node from a URI template, every variable encoded (so a symbol
+    // such as "A/B?x" cannot add path segments or parameters)
+    public static String path(String template, Object... variables) {
+        return UriComponentsBuilder.fromUriString(template).encode().buildAndExpand(variables).toUriString();
+    }
+
+    // Send a request to another node's public API and relay its status and body
+    // (the path is sent as is: encode request values with path())
+    public <T> ResponseEntity<T> forward(int node, HttpMethod method, String path, Object body, Class<T> type) {
+        RestClient.RequestBodySpec request = restClient.method(method).uri(URI.create(nodes.get(node) + path));
+        if (body != null) {
+            request.body(body);
+        }
+        // Rate limits on the owner apply to the original client, not to this node
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            request.header("X-Forwarded-For", clientAddress(((ServletRequestAttributes) attributes).getRequest()));
+        }
+        try {
+            return request.exchange((req, res) -> ResponseEntity.status(res.getStatusCode())
+                    .body(res.getStatusCode().is2xxSuccessful() ? res.bodyTo(type) : null));
+        } catch (RestClientException e) {
+            log.warn("Cluster node {} ({}) unreachable: {}", node, nodes.get(node), e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+        }
+    }
+
+    // Global top K: per-partition top K lists merged in ranking order
+    public List<Stock> getTopStocks(String criterion, int k) {
+        Comparator<Stock> ranking = analysisService.getRankingComparator(criterion);
+        if (!enabled || ranking == null) {
+            return analysisService.getTopStocks(criterion, k);
+        }
+        List<Stock[]> partitions = gather(
+                () -> analysisService.getTopStocks(criterion, k).toArray(new Stock[0]),
+                path("/api/cluster/partition/top?criterion={criterion}&k={k}", criterion, k), Stock[].class);
+        return mergeTopK(partitions, ranking.reversed(), k);
+    }
+
+    // Global market summary combined from the partition summaries
+    public MarketSummary getMarketSummary() {
+        if (!enabled) {
+            return analysisService.getMarketSummary();
+        }
+        List<MarketSummary> partitions = gather(analysisService::getMarketSummary,
+                "/api/cluster/partition/summary", MarketSummary.class);
+        return mergeSummaries(partitions);
+    }
+
+    // Every stock across all partitions
+    public List<Stock> getAllStocks() {
+        if (!enabled) {
+            return analysisService.getAllStocks();
+        }
+        List<Stock> stocks = new ArrayList<>();
+        for (Stock[] partition : gather(() -> analysisService.getAllStocks().toArray(new Stock[0]),
+                "/api/cluster/partition/stocks", Stock[].class)) {
+            stocks.addAll(Arrays.asList(partition));
+        }
+        return stocks;
+    }
+
+    /**
+     * Run the local query on the caller's thread while the peers are queried in parallel.
+     * Unreachable peers are logged and left out, so the result covers the partitions that answered.
+     */
+    public <T> List<T> gather(Supplier<T> local, String path, Class<T> type) {
+        Map<Integer, CompletableFuture<T>> remote = new LinkedHashMap<>();
+        for (int node = 0; node < nodes.size(); node++) {
+            if (node != nodeIndex) {
+                int target = node;
+                remote.put(node, CompletableFuture.supplyAsync(
+                        () -> forward(target, HttpMethod.GET, path, null, type).getBody(), gatherExecutor));
+            }
+        }
+
+        List<T> results = new ArrayList<>(nodes.size());
+        results.add(local.get());
+        for (CompletableFuture<T> future : remote.values()) {
+            T result = future.join();
+            if (result != null) {
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    // K-way merge of lists already sorted by the given order
+    public static <T> List<T> mergeTopK(List<T[]> partitions, Comparator<? super T> order, int k) {
+        PriorityQueue<int[]> heads = new PriorityQueue<>(
+                (a, b) -> order.compare(partitions.get(a[0])[a[1]], partitions.get(b[0])[b[1]]));
+        for (int p = 0; p < partitions.size(); p++) {
+            if (partitions.get(p).length > 0) {
+                heads.offer(new int[]{p, 0});
+            }
+        }
+
+        List<T> merged = new ArrayList<>(Math.max(k, 0));
+        while (!heads.isEmpty() && merged.size() < k) {
+            int[] head = heads.poll();
+            T[] partition = partitions.get(head[0]);
+            merged.add(partition[head[1]]);
+            if (++head[1] < partition.length) {
+                heads.offer(head);
+            }
+        }
+        return merged;
+    }
+
+    static MarketSummary mergeSummaries(List<MarketSummary> partitions) {
+        MarketSummary merged = new MarketSummary();
+        double weightedChange = 0;
+        for (MarketSummary partition : partitions) {
+            merged.setTotalStocks(merged.getTotalStocks() + partition.getTotalStocks());
+            merged.setTotalVolume(merged.getTotalVolume() + partition.getTotalVolume());
+            merged.setGainers(merged.getGainers() + partition.getGainers());
+            merged.setLosers(merged.getLosers() + partition.getLosers());
+            merged.setUnchanged(merged.getUnchanged() + partition.getUnchanged());
+            weightedChange += partition.getAvgChange() * partition.getTotalStocks();
+        }
+        if (merged.getTotalStocks() > 0) {
+            merged.setAvgChange(weightedChange / merged.getTotalStocks());
+        }
+        return merged;
+    }
+}
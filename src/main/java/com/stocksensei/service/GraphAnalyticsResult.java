@@ -0,0 +1,96 @@
+package com.stocksensei.service;
+
+import com.stocksensei.datastructures.GraphSnapshot;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cached output of one background graph analytics run
+ */
+public class GraphAnalyticsResult {
+    private final GraphSnapshot snapshot;
+    private final int[][] nearestIds;
+    private final double[][] nearestDistances;
+    private final double[] pageRank;
+    private final int[] rankOrder;
+    private final List<List<String>> communities;
+    private final LocalDateTime computedAt;
+    private final long durationMillis;
+
+    public GraphAnalyticsResult(GraphSnapshot snapshot, int[][] nearestIds, double[][] nearestDistances,
+                                double[] pageRank, int[] rankOrder, List<List<String>> communities,
+                                long durationMillis) {
+        this.snapshot = snapshot;
+        this.nearestIds = nearestIds;
+        this.nearestDistances = nearestDistances;
+        this.pageRank = pageRank;
+        this.rankOrder = rankOrder;
+        this.communities = communities;
+        this.computedAt = LocalDateTime.now();
+        this.durationMillis = durationMillis;
+    }
+
+    public GraphSnapshot getSnapshot() { return snapshot; }
+    public long getVersion() { return snapshot.getVersion(); }
+    public LocalDateTime getComputedAt() { return computedAt; }
+    public long getDurationMillis() { return durationMillis; }
+    public List<List<String>> getCommunities() { return communities; }
+
+    // Up to k nearest symbols by correlation distance
+    public List<RankedSymbol> getNearest(String symbol, int k) {
+        List<RankedSymbol> nearest = new ArrayList<>();
+        int v = snapshot.indexOf(symbol);
+        if (v < 0) {
+            return nearest;
+        }
+        int[] ids = nearestIds[v];
+        for (int i = 0; i < Math.min(k, ids.length); i++) {
+            nearest.add(new RankedSymbol(snapshot.symbol(ids[i]), nearestDistances[v][i]));
+        }
+        return nearest;
+    }
+
+    // Top k symbols by PageRank centrality
+    public List<RankedSymbol> getCentrality(int k) {
+        List<RankedSymbol> ranked = new ArrayList<>();
+        for (int i = 0; i < Math.min(k, rankOrder.length); i++) {
+            int v = rankOrder[i];
+            ranked.add(new RankedSymbol(snapshot.symbol(v), pageRank[v]));
+        }
+        return ranked;
+    }
+
+    /**
+     * Symbol with an analytics score (distance or centrality)
+     */
+    public static class RankedSymbol {
+        private final String symbol;
+        private final double score;
+
+        public RankedSymbol(String symbol, double score) {
+            this.symbol = symbol;
+            this.score = score;
+        }
+
+        public String getSymbol() { return symbol; }
+        public double getScore() { return score; }
+    }
+
+    /**
+     * Weighted shortest path between two symbols
+     */
+    public static class GraphPath {
+        private final List<String> symbols;
+        private final double distance;
+
+        public GraphPath(List<String> symbols, double distance) {
+            this.symbols = symbols;
+            this.distance = distance;
+        }
+
+        public List<String> getSymbols() { return symbols; }
+        public double getDistance() { return distance; }
+    }
+}
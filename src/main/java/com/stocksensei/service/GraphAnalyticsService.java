@@ -0,0 +1,343 @@
+package com.stocksensei.service;
+
+import com.stocksensei.datastructures.GraphAlgorithms;
+import com.stocksensei.datastructures.GraphSnapshot;
+import com.stocksensei.model.Stock;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Background weighted analytics over the stock graph.
+ *
+ * On a fixed schedule this service samples prices, refreshes correlation
+ * edges between stocks of the same sector, and - when the graph changed -
+ * recomputes k-nearest neighbours, PageRank centrality and Louvain
+ * communities on a dedicated fork-join pool. REST reads only touch the
+ * cached result; path queries run on the same pool, never on the request thread.
+ */
+@Service
+public class GraphAnalyticsService {
+    private static final int MAX_NEAREST = 20;
+    private static final int MIN_SECTOR_SIZE = 2;
+
+    @Autowired
+    private StockAnalysisService analysisService;
+
+    @Value("${stock.graph.correlation.enabled:true}")
+    private boolean correlationEnabled;
+
+    @Value("${stock.graph.correlation.window:24}")
+    private int correlationWindow;
+
+    @Value("${stock.graph.correlation.max-peers:5}")
+    private int maxPeers;
+
+    @Value("${stock.graph.correlation.min:0.3}")
+    private double minCorrelation;
+
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    // Only touched by the scheduler thread
+    private final Map<String, ReturnWindow> returns = new HashMap<>();
+    private final Map<String, PeerSet> appliedPeers = new HashMap<>();
+    // Set on clear; the scheduler thread drops the maps above before its next sample
+    private final AtomicBoolean cleared = new AtomicBoolean();
+
+    private volatile GraphAnalyticsResult result;
+
+    /**
+     * Scheduled refresh of correlations and graph analytics
+     */
+    @Scheduled(fixedDelayString = "${stock.graph.analytics.interval:5000}")
+    public void refresh() {
+        if (cleared.getAndSet(false)) {
+            // Symbols that come back get a new graph: no edges, and returns only from new prices
+            returns.clear();
+            appliedPeers.clear();
+        }
+        if (correlationEnabled) {
+            sampleReturns(analysisService.getAllStocks());
+            updateCorrelationEdges();
+        }
+
+        GraphSnapshot snapshot = analysisService.getGraphSnapshot();
+        GraphAnalyticsResult current = result;
+        if (current != null && isSameGraph(current.getSnapshot(), snapshot)) {
+            return;
+        }
+        result = pool.submit(() -> compute(snapshot)).join();
+    }
+
+    @EventListener
+    public void onMarketCleared(MarketClearedEvent event) {
+        cleared.set(true);
+        result = null;
+    }
+
+    // Latest cached result, null before the first run
+    public GraphAnalyticsResult getResult() {
+        return result;
+    }
+
+    public List<GraphAnalyticsResult.RankedSymbol> getNearest(String symbol, int k) {
+        GraphAnalyticsResult current = result;
+        return current != null ? current.getNearest(symbol, Math.min(k, MAX_NEAREST)) : new ArrayList<>();
+    }
+
+    public List<GraphAnalyticsResult.RankedSymbol> getCentrality(int k) {
+        GraphAnalyticsResult current = result;
+        return current != null ? current.getCentrality(k) : new ArrayList<>();
+    }
+
+    public List<List<String>> getCommunities() {
+        GraphAnalyticsResult current = result;
+        return current != null ? current.getCommunities() : new ArrayList<>();
+    }
+
+    // Weighted shortest path over the cached snapshot, computed on the analytics pool
+    public CompletableFuture<GraphAnalyticsResult.GraphPath> findPath(String from, String to) {
+        GraphAnalyticsResult current = result;
+        if (current == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        GraphSnapshot snapshot = current.getSnapshot();
+        return CompletableFuture.supplyAsync(() -> {
+            int source = snapshot.indexOf(from);
+            int target = snapshot.indexOf(to);
+            if (source < 0 || target < 0) {
+                return null;
+            }
+            double[] length = new double[1];
+            int[] path = GraphAlgorithms.shortestPath(snapshot, source, target, length);
+            if (path.length == 0) {
+                return null;
+            }
+            List<String> symbols = new ArrayList<>(path.length);
+            for (int v : path) {
+                symbols.add(snapshot.symbol(v));
+            }
+            return new GraphAnalyticsResult.GraphPath(symbols, length[0]);
+        }, pool);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // Runs inside the fork-join pool
+    private GraphAnalyticsResult compute(GraphSnapshot snapshot) {
+        long start = System.currentTimeMillis();
+        int n = snapshot.vertexCount();
+
+        // Community detection is sequential; overlap it with the parallel work
+        ForkJoinTask<int[]> communitiesTask = ForkJoinTask.adapt(() -> GraphAlgorithms.louvain(snapshot)).fork();
+
+        int[][] nearestIds = new int[n][];
+        double[][] nearestDistances = new double[n][];
+        IntStream.range(0, n).parallel().forEach(v -> {
+            double[] distances = new double[MAX_NEAREST];
+            int[] ids = GraphAlgorithms.nearest(snapshot, v, MAX_NEAREST, distances);
+            nearestIds[v] = ids;
+            nearestDistances[v] = Arrays.copyOf(distances, ids.length);
+        });
+
+        double[] pageRank = GraphAlgorithms.pageRank(snapshot, 0.85, 50, 1e-9);
+        int[] rankOrder = IntStream.range(0, n).boxed()
+                .sorted((a, b) -> Double.compare(pageRank[b], pageRank[a]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        int[] membership = communitiesTask.join();
+        Map<Integer, List<String>> byCommunity = new HashMap<>();
+        for (int v = 0; v < n; v++) {
+            byCommunity.computeIfAbsent(membership[v], c -> new ArrayList<>()).add(snapshot.symbol(v));
+        }
+        List<List<String>> communities = new ArrayList<>(byCommunity.values());
+        communities.sort((a, b) -> Integer.compare(b.size(), a.size()));
+
+        return new GraphAnalyticsResult(snapshot, nearestIds, nearestDistances, pageRank, rankOrder,
+                communities, System.currentTimeMillis() - start);
+    }
+
+    private boolean isSameGraph(GraphSnapshot a, GraphSnapshot b) {
+        return a.getVersion() == b.getVersion()
+                && a.vertexCount() == b.vertexCount()
+                && a.edgeCount() == b.edgeCount();
+    }
+
+    // Sample every stock once per refresh so return windows stay aligned in time
+    private void sampleReturns(List<Stock> stocks) {
+        Set<String> seen = new HashSet<>(stocks.size() * 2);
+        for (Stock stock : stocks) {
+            seen.add(stock.getSymbol());
+            returns.computeIfAbsent(stock.getSymbol(), s -> new ReturnWindow(correlationWindow))
+                    .addPrice(stock.getCurrentPrice());
+        }
+        returns.keySet().retainAll(seen);
+        appliedPeers.keySet().retainAll(seen);
+    }
+
+    // Link each stock to its most correlated peers within the same sector
+    private void updateCorrelationEdges() {
+        Map<String, List<String>> bySector = new HashMap<>();
+        for (Stock stock : analysisService.getAllStocks()) {
+            ReturnWindow window = returns.get(stock.getSymbol());
+            if (window != null && window.isFull()) {
+                bySector.computeIfAbsent(stock.getSector(), s -> new ArrayList<>()).add(stock.getSymbol());
+            }
+        }
+
+        for (List<String> symbols : bySector.values()) {
+            if (symbols.size() < MIN_SECTOR_SIZE) {
+                continue;
+            }
+            double[][] z = new double[symbols.size()][];
+            for (int i = 0; i < z.length; i++) {
+                z[i] = returns.get(symbols.get(i)).standardised();
+            }
+
+            PeerSet[] peers = pool.submit(() -> IntStream.range(0, z.length).parallel()
+                    .mapToObj(i -> topPeers(i, z, symbols))
+                    .toArray(PeerSet[]::new)).join();
+
+            for (int i = 0; i < peers.length; i++) {
+                applyPeers(symbols.get(i), peers[i]);
+            }
+        }
+    }
+
+    private PeerSet topPeers(int i, double[][] z, List<String> symbols) {
+        PriorityQueue<double[]> best = new PriorityQueue<>(Comparator.comparingDouble(p -> p[1]));
+        for (int j = 0; j < z.length; j++) {
+            if (j == i || z[i] == null || z[j] == null) {
+                continue;
+            }
+            double rho = 0;
+            for (int t = 0; t < z[i].length; t++) {
+                rho += z[i][t] * z[j][t];
+            }
+            if (rho >= minCorrelation) {
+                best.offer(new double[]{j, rho});
+                if (best.size() > maxPeers) {
+                    best.poll();
+                }
+            }
+        }
+
+        List<double[]> sorted = new ArrayList<>(best);
+        sorted.sort((a, b) -> Double.compare(b[1], a[1]));
+        List<String> names = new ArrayList<>(sorted.size());
+        double[] weights = new double[sorted.size()];
+        for (int p = 0; p < sorted.size(); p++) {
+            names.add(symbols.get((int) sorted.get(p)[0]));
+            weights[p] = sorted.get(p)[1];
+        }
+        return new PeerSet(names, weights);
+    }
+
+    // Only touch the graph (and bump its version) when the peer set moved noticeably
+    private void applyPeers(String symbol, PeerSet peers) {
+        PeerSet previous = appliedPeers.get(symbol);
+        if (previous != null && previous.isCloseTo(peers)) {
+            return;
+        }
+        try {
+            analysisService.setRelationships(symbol, peers.symbols, peers.weights);
+            appliedPeers.put(symbol, peers);
+        } catch (IllegalArgumentException e) {
+            // Data was cleared between sampling and applying; retry next refresh
+            appliedPeers.remove(symbol);
+        }
+    }
+
+    /**
+     * Ring buffer of log returns between consecutive samples
+     */
+    static class ReturnWindow {
+        private final double[] values;
+        private int next;
+        private int count;
+        private double lastPrice = Double.NaN;
+
+        ReturnWindow(int size) {
+            this.values = new double[size];
+        }
+
+        void addPrice(double price) {
+            if (price > 0 && lastPrice > 0) {
+                values[next] = Math.log(price / lastPrice);
+                next = (next + 1) % values.length;
+                count = Math.min(count + 1, values.length);
+            }
+            lastPrice = price;
+        }
+
+        boolean isFull() {
+            return count == values.length;
+        }
+
+        // Zero-mean, unit-norm copy in time order, or null for a flat series
+        double[] standardised() {
+            int n = values.length;
+            double[] z = new double[n];
+            double mean = 0;
+            for (int t = 0; t < n; t++) {
+                z[t] = values[(next + t) % n];
+                mean += z[t];
+            }
+            mean /= n;
+            double norm = 0;
+            for (int t = 0; t < n; t++) {
+                z[t] -= mean;
+                norm += z[t] * z[t];
+            }
+            if (norm == 0) {
+                return null;
+            }
+            norm = Math.sqrt(norm);
+            for (int t = 0; t < n; t++) {
+                z[t] /= norm;
+            }
+            return z;
+        }
+    }
+
+    /**
+     * Correlated peers of one stock with their correlation weights
+     */
+    static class PeerSet {
+        private static final double WEIGHT_TOLERANCE = 0.05;
+
+        final List<String> symbols;
+        final double[] weights;
+
+        PeerSet(List<String> symbols, double[] weights) {
+            this.symbols = symbols;
+            this.weights = weights;
+        }
+
+        boolean isCloseTo(PeerSet other) {
+            if (!symbols.equals(other.symbols)) {
+                return false;
+            }
+            for (int i = 0; i < weights.length; i++) {
+                if (Math.abs(weights[i] - other.weights[i]) > WEIGHT_TOLERANCE) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.stocksensei.service;
+
+import com.stocksensei.datastructures.PriceSeries;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk-loads historical tick files from the replay directory (and market snapshots).
+ *
+ * Parsing runs on a dedicated fork-join pool (ParallelTickLoader); the
+ * result is applied in one go: every symbol's newest points go into its
+ * history buffer, then the latest quotes are upserted as a single batch.
+ */
+@Service
+public class HistoryLoaderService {
+
+    @Autowired
+    private StockAnalysisService analysisService;
+
+    @Autowired
+    private PriceHistoryService historyService;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Autowired
+    private ReplayService replayService;
+
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Load a tick file; in cluster mode only this node's symbols are kept.
+     * @param reset: clear market data and history first
+     */
+    public LoadReport load(String fileName, boolean reset) throws IOException {
+        return load(replayService.resolve(fileName), fileName, reset);
+    }
+
+    /**
+     * Load a tick file from any path (e.g. the market snapshot at startup)
+     */
+    public synchronized LoadReport load(Path path, String fileName, boolean reset) throws IOException {
+        if (replayService.isReplaying()) {
+            throw new IllegalStateException("A replay is running");
+        }
+        if (reset) {
+            analysisService.clearData();
+        }
+
+        long start = System.nanoTime();
+        ParallelTickLoader.Result result =
+                new ParallelTickLoader(pool, historyService.getCapacity(), clusterService::isLocal).load(path);
+        long parsed = System.nanoTime();
+
+        for (Map.Entry<String, PriceSeries> entry : result.getHistory().entrySet()) {
+            historyService.appendAll(entry.getKey(),
+                    entry.getValue().range(Long.MIN_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE));
+        }
+        analysisService.addOrUpdateStocks(result.getLatestQuotes(ZoneId.systemDefault()));
+        long elapsedNanos = System.nanoTime() - start;
+
+        LoadReport report = new LoadReport();
+        double seconds = elapsedNanos / 1e9;
+        report.setFile(fileName);
+        report.setFileSize(result.getBytes());
+        report.setChunks(result.getChunks());
+        report.setParallelism(pool.getParallelism());
+        report.setTicksLoaded(result.getTicks());
+        report.setTicksSkipped(result.getSkipped());
+        report.setMalformedLines(result.getMalformed());
+        report.setSymbols(result.getSymbolCount());
+        report.setParseMillis(TimeUnit.NANOSECONDS.toMillis(parsed - start));
+        report.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        report.setTicksPerSecond(seconds > 0 ? result.getTicks() / seconds : 0);
+        report.setMegabytesPerSecond(seconds > 0 ? result.getBytes() / seconds / (1024 * 1024) : 0);
+        return report;
+    }
+}
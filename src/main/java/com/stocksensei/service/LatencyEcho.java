@@ -0,0 +1,14 @@
+package com.stocksensei.service;
+
+/**
+ * A stock update echoed back by a client (/app/latency-echo), by its sequence
+ */
+public class LatencyEcho {
+    private long sequence;
+
+    public LatencyEcho() {
+    }
+
+    public long getSequence() { return sequence; }
+    public void setSequence(long sequence) { this.sequence = sequence; }
+}
@@ -0,0 +1,168 @@
+package com.stocksensei.service;
+
+import com.stocksensei.model.Stock;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * End-to-end latency of price updates, per pipeline stage.
+ *
+ * Every update is stamped with System.nanoTime() at ingest; each stage
+ * records the time elapsed since then, so a stage's percentiles are the
+ * latency from ingest up to that point:
+ * store (applied to the graph) → ranking (heaps updated) → serialize
+ * (converted and handed to the broker) → send (written to a WebSocket
+ * session) → echo (a client echoed the update back on /app/latency-echo).
+ *
+ * Echoes carry only the update's sequence: the ingest time is looked up
+ * among the last RECENT_BROADCASTS updates this node broadcast, so a client
+ * cannot report arbitrary timings, and echoes of unknown or evicted
+ * sequences (e.g. updates broadcast by another cluster node, whose nanoTime
+ * is not comparable) are ignored. Each session's echoes only count for
+ * sequences newer than the last one it echoed, so replaying one cannot
+ * flood the histogram.
+ *
+ * Recording goes to HdrHistogram Recorders (wait-free, no allocation);
+ * reads swap out the interval histograms and add them to running totals.
+ * Exposed by the actuator 'latency' endpoint.
+ */
+@Service
+public class LatencyTracker {
+    // Message header carrying the ingest timestamp of a broadcast to the outbound channel
+    public static final String INGEST_NANOS_HEADER = "stocksensei.ingestNanos";
+
+    private static final long HIGHEST_TRACKABLE = TimeUnit.MINUTES.toNanos(1);
+    private static final int RECENT_BROADCASTS = 4096;
+
+    public enum Stage { STORE, RANKING, SERIALIZE, SEND, ECHO }
+
+    @Value("${stock.latency.enabled:true}")
+    private boolean enabled = true;
+
+    private final Map<Stage, Recorder> recorders = new EnumMap<>(Stage.class);
+    private final Map<Stage, Histogram> totals = new EnumMap<>(Stage.class);
+    private final Map<Stage, Histogram> intervals = new EnumMap<>(Stage.class);
+    private long since = System.currentTimeMillis();
+
+    // Ring of recently broadcast updates, slot = sequence mod RECENT_BROADCASTS; a slot's sequence
+    // is cleared while its ingest time is rewritten, so readers re-check it around the read
+    private final AtomicLongArray broadcastSequences = new AtomicLongArray(RECENT_BROADCASTS);
+    private final AtomicLongArray broadcastIngestNanos = new AtomicLongArray(RECENT_BROADCASTS);
+    // Newest sequence each session has echoed
+    private final Map<String, Long> lastEchoed = new ConcurrentHashMap<>();
+
+    public LatencyTracker() {
+        for (Stage stage : Stage.values()) {
+            recorders.put(stage, new Recorder(HIGHEST_TRACKABLE, 2));
+            totals.put(stage, new Histogram(HIGHEST_TRACKABLE, 2));
+        }
+    }
+
+    // Stamp an update entering the system, unless an ingest source already did
+    public static void stamp(Stock stock) {
+        if (stock.getIngestNanos() == 0) {
+            stock.setIngestNanos(System.nanoTime());
+        }
+    }
+
+    // Record the time since ingestNanos for a stage; unstamped or implausible values are ignored
+    public void record(Stage stage, long ingestNanos) {
+        if (!enabled || ingestNanos == 0) {
+            return;
+        }
+        long elapsed = System.nanoTime() - ingestNanos;
+        if (elapsed >= 0 && elapsed <= HIGHEST_TRACKABLE) {
+            recorders.get(stage).recordValue(elapsed);
+        }
+    }
+
+    // Remember the ingest time of a broadcast update, for echoes of its sequence
+    public void broadcast(long sequence, long ingestNanos) {
+        if (!enabled || sequence <= 0 || ingestNanos == 0) {
+            return;
+        }
+        int slot = (int) (sequence % RECENT_BROADCASTS);
+        broadcastSequences.set(slot, 0);
+        broadcastIngestNanos.set(slot, ingestNanos);
+        broadcastSequences.set(slot, sequence);
+    }
+
+    /**
+     * Record a session's echo of a broadcast update; sequences not broadcast
+     * recently, or not newer than the session's last echo, are ignored
+     */
+    public void recordEcho(String sessionId, long sequence) {
+        if (sessionId == null || sequence <= 0) {
+            return;
+        }
+        int slot = (int) (sequence % RECENT_BROADCASTS);
+        if (broadcastSequences.get(slot) != sequence) {
+            return;
+        }
+        long ingestNanos = broadcastIngestNanos.get(slot);
+        if (broadcastSequences.get(slot) != sequence) {
+            return;
+        }
+        // compute() is atomic per session, so of concurrent duplicates only one is newer
+        boolean[] newer = new boolean[1];
+        lastEchoed.compute(sessionId, (id, last) -> {
+            if (last != null && last >= sequence) {
+                return last;
+            }
+            newer[0] = true;
+            return sequence;
+        });
+        if (newer[0]) {
+            record(Stage.ECHO, ingestNanos);
+        }
+    }
+
+    // Forget a closed session's echo position
+    public void forgetSession(String sessionId) {
+        lastEchoed.remove(sessionId);
+    }
+
+    /**
+     * Percentiles (microseconds) per stage since the last reset
+     */
+    public synchronized Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("since", since);
+        for (Stage stage : Stage.values()) {
+            Histogram interval = recorders.get(stage).getIntervalHistogram(intervals.get(stage));
+            intervals.put(stage, interval);
+            Histogram total = totals.get(stage);
+            total.add(interval);
+
+            Map<String, Object> percentiles = new LinkedHashMap<>();
+            percentiles.put("count", total.getTotalCount());
+            percentiles.put("p50", micros(total.getValueAtPercentile(50)));
+            percentiles.put("p99", micros(total.getValueAtPercentile(99)));
+            percentiles.put("p999", micros(total.getValueAtPercentile(99.9)));
+            percentiles.put("max", micros(total.getMaxValue()));
+            report.put(stage.name().toLowerCase(), percentiles);
+        }
+        return report;
+    }
+
+    public synchronized void reset() {
+        for (Stage stage : Stage.values()) {
+            recorders.get(stage).reset();
+            totals.get(stage).reset();
+        }
+        since = System.currentTimeMillis();
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+}
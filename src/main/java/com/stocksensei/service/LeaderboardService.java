@@ -0,0 +1,176 @@
+package com.stocksensei.service;
+
+import com.stocksensei.datastructures.WindowedLeaderboard;
+import com.stocksensei.model.Stock;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sliding time-window leaderboards ("top movers in the last 5 minutes").
+ *
+ * Every stock update is fed into one WindowedLeaderboard per configured
+ * window, keyed by the update's lastUpdated time, so top-K per window is
+ * answered from maintained rankings instead of scanning history. Changes to
+ * each window's top movers are published as LeaderboardUpdate events and
+ * pushed on /topic/top-stocks.
+ *
+ * The market clock is the latest update time plus the wall time since that
+ * update arrived; the publisher moves every window to it, so movers still
+ * expire while the feed is paused or idle.
+ */
+@Service
+public class LeaderboardService {
+
+    @Autowired
+    private StockAnalysisService analysisService;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Autowired(required = false)
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${stock.leaderboard.windows:1m,5m,15m}")
+    private List<String> windowLabels;
+
+    @Value("${stock.leaderboard.push-size:10}")
+    private int pushSize;
+
+    private final Map<String, WindowedLeaderboard> leaderboards = new LinkedHashMap<>();
+
+    // Last pushed top movers per window, as "symbol:change" strings
+    private final Map<String, List<String>> lastPushed = new ConcurrentHashMap<>();
+
+    // Latest update time seen (epoch millis) and when it arrived (System.nanoTime)
+    private volatile long lastUpdateMillis = Long.MIN_VALUE;
+    private volatile long lastUpdateNanos;
+
+    @PostConstruct
+    public void initialize() {
+        for (String label : windowLabels) {
+            leaderboards.put(label, new WindowedLeaderboard(DurationStyle.detectAndParse(label).toMillis()));
+        }
+    }
+
+    @EventListener
+    public void onStockUpdate(StockUpdateEvent event) {
+        Stock stock = event.getCurrent();
+        long timestamp = stock.getLastUpdated() != null
+                ? stock.getLastUpdated().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : System.currentTimeMillis();
+        for (WindowedLeaderboard leaderboard : leaderboards.values()) {
+            leaderboard.record(stock.getSymbol(), timestamp, stock.getCurrentPrice(), stock.getVolume());
+        }
+        if (timestamp >= lastUpdateMillis) {
+            lastUpdateNanos = System.nanoTime();
+            lastUpdateMillis = timestamp;
+        }
+    }
+
+    @EventListener
+    public void onMarketCleared(MarketClearedEvent event) {
+        leaderboards.values().forEach(WindowedLeaderboard::clear);
+        lastPushed.clear();
+        lastUpdateMillis = Long.MIN_VALUE;
+    }
+
+    // Move every window to the market clock, expiring samples that left it without a new tick
+    public void advanceWindows() {
+        long last = lastUpdateMillis;
+        if (last == Long.MIN_VALUE) {
+            return;
+        }
+        long now = last + (System.nanoTime() - lastUpdateNanos) / 1_000_000;
+        for (WindowedLeaderboard leaderboard : leaderboards.values()) {
+            leaderboard.advance(now);
+        }
+    }
+
+    // Configured window labels, e.g. [1m, 5m, 15m]
+    public Set<String> getWindows() {
+        return leaderboards.keySet();
+    }
+
+    public boolean hasWindow(String window) {
+        return leaderboards.containsKey(window);
+    }
+
+    // Top K movers of a window across the whole market (all partitions in cluster mode)
+    public List<WindowedMover> getTopMovers(String window, String criterion, int k) {
+        Comparator<WindowedMover> ranking = getRankingComparator(criterion);
+        if (!clusterService.isEnabled() || ranking == null) {
+            return getLocalTopMovers(window, criterion, k);
+        }
+        List<WindowedMover[]> partitions = clusterService.gather(
+                () -> getLocalTopMovers(window, criterion, k).toArray(new WindowedMover[0]),
+                ClusterService.path("/api/cluster/partition/top?criterion={criterion}&k={k}&window={window}",
+                        criterion, k, window),
+                WindowedMover[].class);
+        return ClusterService.mergeTopK(partitions, ranking.reversed(), k);
+    }
+
+    // Top K movers of a window among the symbols held by this node
+    public List<WindowedMover> getLocalTopMovers(String window, String criterion, int k) {
+        WindowedLeaderboard leaderboard = leaderboards.get(window);
+        List<WindowedMover> movers = new ArrayList<>();
+        if (leaderboard == null) {
+            return movers;
+        }
+        for (WindowedLeaderboard.Mover mover : leaderboard.getTopK(criterion, k)) {
+            Stock stock = analysisService.getStock(mover.getSymbol());
+            movers.add(new WindowedMover(window, mover.getSymbol(),
+                    stock != null ? stock.getName() : null,
+                    stock != null ? stock.getSector() : null,
+                    mover.getLastPrice(), mover.getChangePercent(), mover.getRangePercent(), mover.getVolume()));
+        }
+        return movers;
+    }
+
+    // Ranking order used for a windowed criterion (ascending), null if unknown
+    public Comparator<WindowedMover> getRankingComparator(String criterion) {
+        switch (criterion) {
+            case WindowedLeaderboard.CHANGE:
+                return Comparator.comparingDouble(WindowedMover::getChangePercent);
+            case WindowedLeaderboard.RANGE:
+                return Comparator.comparingDouble(WindowedMover::getRangePercent);
+            case WindowedLeaderboard.VOLUME:
+                return Comparator.comparingLong(WindowedMover::getVolume);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Move the windows to the market clock, then publish the top movers of every window whose
+     * ranking (or displayed change) moved.
+     * In cluster mode only the first node publishes, from the merged view.
+     */
+    @Scheduled(fixedDelayString = "${stock.leaderboard.push-interval:1000}")
+    public void publishChanges() {
+        advanceWindows();
+        if (eventPublisher == null || clusterService.getNodeIndex() != 0) {
+            return;
+        }
+        for (String window : leaderboards.keySet()) {
+            List<WindowedMover> movers = getTopMovers(window, WindowedLeaderboard.CHANGE, pushSize);
+            List<String> signature = new ArrayList<>(movers.size());
+            for (WindowedMover mover : movers) {
+                signature.add(mover.getSymbol() + ":" + Math.round(mover.getChangePercent() * 100));
+            }
+            if (!signature.equals(lastPushed.getOrDefault(window, Collections.emptyList()))) {
+                lastPushed.put(window, signature);
+                eventPublisher.publishEvent(new LeaderboardUpdate(window, WindowedLeaderboard.CHANGE, movers));
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.stocksensei.service;
+
+import java.util.List;
+
+/**
+ * Published by LeaderboardService when a window's top movers change;
+ * also the payload pushed on /topic/top-stocks.
+ */
+public class LeaderboardUpdate {
+    private final String window;
+    private final String criterion;
+    private final List<WindowedMover> movers;
+
+    public LeaderboardUpdate(String window, String criterion, List<WindowedMover> movers) {
+        this.window = window;
+        this.criterion = criterion;
+        this.movers = movers;
+    }
+
+    public String getWindow() { return window; }
+    public String getCriterion() { return criterion; }
+    public List<WindowedMover> getMovers() { return movers; }
+}
@@ -0,0 +1,55 @@
+package com.stocksensei.service;
+
+/**
+ * Result of a bulk historical load: what was read and how fast.
+ */
+public class LoadReport {
+    private String file;
+    private long fileSize;
+    private int chunks;
+    private int parallelism;
+    private long ticksLoaded;
+    private long ticksSkipped;
+    private long malformedLines;
+    private int symbols;
+    private long parseMillis;
+    private long elapsedMillis;
+    private double ticksPerSecond;
+    private double megabytesPerSecond;
+
+    public String getFile() { return file; }
+    public void setFile(String file) { this.file = file; }
+
+    public long getFileSize() { return fileSize; }
+    public void setFileSize(long fileSize) { this.fileSize = fileSize; }
+
+    public int getChunks() { return chunks; }
+    public void setChunks(int chunks) { this.chunks = chunks; }
+
+    public int getParallelism() { return parallelism; }
+    public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+
+    public long getTicksLoaded() { return ticksLoaded; }
+    public void setTicksLoaded(long ticksLoaded) { this.ticksLoaded = ticksLoaded; }
+
+    public long getTicksSkipped() { return ticksSkipped; }
+    public void setTicksSkipped(long ticksSkipped) { this.ticksSkipped = ticksSkipped; }
+
+    public long getMalformedLines() { return malformedLines; }
+    public void setMalformedLines(long malformedLines) { this.malformedLines = malformedLines; }
+
+    public int getSymbols() { return symbols; }
+    public void setSymbols(int symbols) { this.symbols = symbols; }
+
+    public long getParseMillis() { return parseMillis; }
+    public void setParseMillis(long parseMillis) { this.parseMillis = parseMillis; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public double getTicksPerSecond() { return ticksPerSecond; }
+    public void setTicksPerSecond(double ticksPerSecond) { this.ticksPerSecond = ticksPerSecond; }
+
+    public double getMegabytesPerSecond() { return megabytesPerSecond; }
+    public void setMegabytesPerSecond(double megabytesPerSecond) { this.megabytesPerSecond = megabytesPerSecond; }
+}
@@ -0,0 +1,14 @@
+package com.stocksensei.service;
+
+/**
+ * Published by StockAnalysisService after all market data was cleared.
+ */
+public class MarketClearedEvent {
+    private final long version;
+
+    public MarketClearedEvent(long version) {
+        this.version = version;
+    }
+
+    public long getVersion() { return version; }
+}
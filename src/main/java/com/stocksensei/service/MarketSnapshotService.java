@@ -0,0 +1,127 @@
+package com.stocksensei.service;
+
+import com.stocksensei.datastructures.PriceSeries;
+import com.stocksensei.model.Stock;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Warm start: periodically (and on shutdown) writes the market state to a
+ * snapshot file, and restores it at startup before the web server and the
+ * simulator start, so the first /api/stocks request is served from the
+ * last known quotes and history instead of an empty market.
+ *
+ * The snapshot is a tick file (TickCsvParser format): each symbol's newest
+ * history points followed by its latest quote, so it is restored by the
+ * parallel bulk loader and can also be replayed.
+ */
+@Service
+@ConditionalOnProperty(name = "stock.snapshot.enabled", havingValue = "true")
+public class MarketSnapshotService implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(MarketSnapshotService.class);
+
+    @Autowired
+    private StockAnalysisService analysisService;
+
+    @Autowired
+    private PriceHistoryService historyService;
+
+    @Autowired
+    private HistoryLoaderService historyLoader;
+
+    @Value("${stock.snapshot.file:snapshots/market.csv}")
+    private String snapshotFile;
+
+    @Value("${stock.snapshot.history-points:256}")
+    private int historyPoints;
+
+    // Runs once all singletons exist, i.e. before the context starts serving
+    @Override
+    public void afterSingletonsInstantiated() {
+        Path path = Paths.get(snapshotFile);
+        if (!Files.isRegularFile(path)) {
+            return;
+        }
+        try {
+            LoadReport report = historyLoader.load(path, snapshotFile, false);
+            log.info("Restored {} symbols ({} ticks) from {} in {} ms", report.getSymbols(),
+                    report.getTicksLoaded(), snapshotFile, report.getElapsedMillis());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cannot restore market snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stock.snapshot.interval:60000}",
+            initialDelayString = "${stock.snapshot.interval:60000}")
+    public void scheduledSave() {
+        try {
+            save();
+        } catch (IOException e) {
+            log.warn("Cannot write market snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void saveOnShutdown() {
+        scheduledSave();
+    }
+
+    /**
+     * Write the snapshot (to a temporary file first, then moved over the old one).
+     * Returns the number of symbols written; an empty market keeps the old snapshot.
+     */
+    public synchronized int save() throws IOException {
+        List<Stock> stocks = analysisService.getAllStocks();
+        if (stocks.isEmpty()) {
+            return 0;
+        }
+        Path path = Paths.get(snapshotFile).toAbsolutePath();
+        Files.createDirectories(path.getParent());
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(TickCsvParser.HEADER);
+            writer.newLine();
+            for (Stock stock : stocks) {
+                long timestamp = stock.getLastUpdated() != null
+                        ? stock.getLastUpdated().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                        : System.currentTimeMillis();
+                // Raw points only: older candles are already kept in the history segments
+                PriceSeries.Points points = historyService.getPoints(stock.getSymbol(),
+                        Long.MIN_VALUE, Long.MAX_VALUE, historyPoints);
+                int count = points != null ? points.size() : 0;
+                for (int i = 0; i < count; i++) {
+                    writer.write(TickCsvParser.format(points.timestamps[i], stock, points.prices[i], points.volumes[i]));
+                    writer.newLine();
+                }
+
+                // The latest quote, unless it is already the newest history point
+                if (count == 0 || points.timestamps[count - 1] != timestamp
+                        || points.prices[count - 1] != stock.getCurrentPrice()
+                        || points.volumes[count - 1] != stock.getVolume()) {
+                    writer.write(TickCsvParser.format(timestamp, stock));
+                    writer.newLine();
+                }
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return stocks.size();
+    }
+}
@@ -0,0 +1,50 @@
+package com.stocksensei.service;
+
+import com.stocksensei.model.Stock;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.Set;
+
+/**
+ * Reactive multicast of market updates for streaming endpoints.
+ *
+ * The update path emits into a best-effort multicast sink, so the writer never
+ * waits on a subscriber. Each subscriber holds at most two pending updates per
+ * symbol: the one flatMap has already prefetched, and the latest after it (older
+ * ones are dropped), so a slow consumer skips stale ticks instead of buffering them.
+ */
+@Service
+public class MarketStreamService {
+
+    private final Sinks.Many<Stock> sink = Sinks.many().multicast().directBestEffort();
+
+    @EventListener
+    public void onStockUpdate(StockUpdateEvent event) {
+        // Events are published under the analysis service lock, so emission is serialised
+        sink.tryEmitNext(event.getCurrent());
+    }
+
+    // Live updates, optionally filtered by symbols and/or sector
+    public Flux<Stock> stream(Set<String> symbols, String sector) {
+        Flux<Stock> updates = sink.asFlux();
+        if (symbols != null && !symbols.isEmpty()) {
+            updates = updates.filter(s -> symbols.contains(s.getSymbol()));
+        }
+        if (sector != null && !sector.isBlank()) {
+            updates = updates.filter(s -> sector.equalsIgnoreCase(s.getSector()));
+        }
+
+        // Per-symbol conflation: each symbol keeps only its latest undelivered update
+        // (behind the one flatMap prefetches from every group)
+        return updates
+                .groupBy(Stock::getSymbol)
+                .flatMap(Flux::onBackpressureLatest, Integer.MAX_VALUE, 1);
+    }
+
+    public int getSubscriberCount() {
+        return sink.currentSubscriberCount();
+    }
+}
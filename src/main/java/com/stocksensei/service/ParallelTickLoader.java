@@ -0,0 +1,253 @@
+package com.stocksensei.service;
+
+import com.stocksensei.datastructures.PriceSeries;
+import com.stocksensei.model.Stock;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * Loads a whole tick file (the replay/recorder CSV format) in parallel.
+ *
+ * The file is split into fixed-size chunks; every chunk is memory-mapped and
+ * parsed by its own TickCsvParser on a fork-join pool, starting at the first
+ * line that begins inside it. Each chunk produces, per symbol, its newest
+ * historyLimit points and its latest quote; results are merged pairwise in
+ * file order as the fork-join tasks complete, so memory stays bounded by the
+ * history limit rather than the file size.
+ *
+ * Points are expected in time order per symbol, as the recorder writes them;
+ * out-of-order points are clamped like live ticks.
+ */
+public class ParallelTickLoader {
+    static final int DEFAULT_CHUNK_SIZE = 32 * 1024 * 1024;
+    static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int historyLimit;
+    private final Predicate<String> accept;
+    private final int chunkSize;
+
+    /**
+     * @param historyLimit: points kept per symbol
+     * @param accept: symbols to load; others are counted as skipped
+     */
+    public ParallelTickLoader(ForkJoinPool pool, int historyLimit, Predicate<String> accept) {
+        this(pool, historyLimit, accept, DEFAULT_CHUNK_SIZE);
+    }
+
+    ParallelTickLoader(ForkJoinPool pool, int historyLimit, Predicate<String> accept, int chunkSize) {
+        this.pool = pool;
+        this.historyLimit = historyLimit;
+        this.accept = accept;
+        this.chunkSize = chunkSize;
+    }
+
+    public Result load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunks = (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+            Result result = pool.invoke(new ChunkTask(channel, size, 0, chunks));
+            result.bytes = size;
+            return result;
+        } catch (RuntimeException e) {
+            // Fork-join may rethrow a copy; unwrap to the original I/O failure
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+            }
+            throw e;
+        }
+    }
+
+    // Parse the lines starting in chunk [index * chunkSize, (index + 1) * chunkSize)
+    private Result parseChunk(FileChannel channel, long size, int index) throws IOException {
+        long start = (long) index * chunkSize;
+        long end = Math.min(size, start + chunkSize);
+        // One byte before the chunk tells whether it starts on a line boundary;
+        // the slack after it holds the rest of the last line
+        long mapStart = Math.max(0, start - 1);
+        long mapEnd = Math.min(size, end + MAX_LINE_LENGTH);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+
+        int limit = buffer.limit();
+        int chunkEnd = (int) (end - mapStart);
+        int position = (int) (start - mapStart);
+        while (position > 0 && position < limit && buffer.get(position - 1) != '\n') {
+            position++;
+        }
+
+        TickCsvParser parser = new TickCsvParser();
+        Result result = new Result(historyLimit);
+        while (position < chunkEnd) {
+            int lineEnd = position;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            if (lineEnd == limit && mapEnd < size) {
+                throw new IOException("Line at offset " + (mapStart + position) + " exceeds " + MAX_LINE_LENGTH + " bytes");
+            }
+
+            int lineStop = lineEnd;
+            if (lineStop > position && buffer.get(lineStop - 1) == '\r') {
+                lineStop--;
+            }
+            if (parser.parseLine(buffer, position, lineStop)) {
+                if (accept.test(parser.getSymbol())) {
+                    result.add(parser);
+                } else {
+                    result.skipped++;
+                }
+            }
+            position = lineEnd + 1;
+        }
+        result.malformed = parser.getMalformedLines();
+        result.chunks = 1;
+        return result;
+    }
+
+    private class ChunkTask extends RecursiveTask<Result> {
+        private final FileChannel channel;
+        private final long size;
+        private final int from;
+        private final int to;
+
+        ChunkTask(FileChannel channel, long size, int from, int to) {
+            this.channel = channel;
+            this.size = size;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from == 1) {
+                try {
+                    return parseChunk(channel, size, from);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int mid = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(channel, size, from, mid);
+            left.fork();
+            Result right = new ChunkTask(channel, size, mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Newest points and latest quote per symbol, plus line counters
+     */
+    public static class Result {
+        private final int historyLimit;
+        private final Map<String, SymbolData> symbols = new HashMap<>();
+        private long ticks;
+        private long skipped;
+        private long malformed;
+        private long bytes;
+        private int chunks;
+
+        Result(int historyLimit) {
+            this.historyLimit = historyLimit;
+        }
+
+        void add(TickCsvParser parser) {
+            SymbolData data = symbols.get(parser.getSymbol());
+            if (data == null) {
+                data = new SymbolData(historyLimit);
+                symbols.put(parser.getSymbol(), data);
+            }
+            long timestamp = parser.getTimestamp();
+            data.history.append(timestamp, parser.getPrice(), parser.getVolume());
+            if (timestamp >= data.timestamp) {
+                data.timestamp = timestamp;
+                data.name = parser.getName();
+                data.sector = parser.getSector();
+                data.price = parser.getPrice();
+                data.previousClose = parser.getPreviousClose();
+                data.volume = parser.getVolume();
+            }
+            ticks++;
+        }
+
+        // Append a later part of the file to this one
+        Result merge(Result later) {
+            for (Map.Entry<String, SymbolData> entry : later.symbols.entrySet()) {
+                SymbolData data = symbols.get(entry.getKey());
+                SymbolData next = entry.getValue();
+                if (data == null) {
+                    symbols.put(entry.getKey(), next);
+                    continue;
+                }
+                PriceSeries.Points points = next.history.range(Long.MIN_VALUE, Long.MAX_VALUE, historyLimit);
+                data.history.appendAll(points.timestamps, points.prices, points.volumes, 0, points.size());
+                if (next.timestamp >= data.timestamp) {
+                    data.timestamp = next.timestamp;
+                    data.name = next.name;
+                    data.sector = next.sector;
+                    data.price = next.price;
+                    data.previousClose = next.previousClose;
+                    data.volume = next.volume;
+                }
+            }
+            ticks += later.ticks;
+            skipped += later.skipped;
+            malformed += later.malformed;
+            chunks += later.chunks;
+            return this;
+        }
+
+        // Latest quote of every loaded symbol
+        public List<Stock> getLatestQuotes(ZoneId zone) {
+            List<Stock> quotes = new ArrayList<>(symbols.size());
+            for (Map.Entry<String, SymbolData> entry : symbols.entrySet()) {
+                SymbolData data = entry.getValue();
+                Stock stock = new Stock(entry.getKey(), data.name, data.price, data.previousClose, data.volume, data.sector);
+                stock.setLastUpdated(LocalDateTime.ofInstant(Instant.ofEpochMilli(data.timestamp), zone));
+                quotes.add(stock);
+            }
+            return quotes;
+        }
+
+        // Newest points of every loaded symbol
+        public Map<String, PriceSeries> getHistory() {
+            Map<String, PriceSeries> history = new HashMap<>();
+            symbols.forEach((symbol, data) -> history.put(symbol, data.history));
+            return history;
+        }
+
+        public int getSymbolCount() { return symbols.size(); }
+        public long getTicks() { return ticks; }
+        public long getSkipped() { return skipped; }
+        public long getMalformed() { return malformed; }
+        public long getBytes() { return bytes; }
+        public int getChunks() { return chunks; }
+    }
+
+    static class SymbolData {
+        final PriceSeries history;
+        long timestamp = Long.MIN_VALUE;
+        String name;
+        String sector;
+        double price;
+        double previousClose;
+        long volume;
+
+        SymbolData(int historyLimit) {
+            this.history = new PriceSeries(historyLimit);
+        }
+    }
+}
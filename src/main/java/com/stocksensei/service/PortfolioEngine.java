@@ -0,0 +1,362 @@
+package com.stocksensei.service;
+
+import com.stocksensei.model.Portfolio;
+import com.stocksensei.model.Position;
+import com.stocksensei.model.Stock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Portfolio valuation and P&L engine.
+ *
+ * Every portfolio keeps running totals (market value, previous-close value,
+ * cost basis and value per sector). A reverse index maps each symbol to the
+ * positions holding it, so a tick only visits those positions and adds
+ * quantity * price delta to their portfolios' totals instead of revaluing
+ * every portfolio. Totals are rebuilt from the positions whenever a
+ * portfolio's positions change.
+ *
+ * Changed portfolios are collected and published as PortfolioValuation
+ * events once per push interval (sent on /topic/portfolios/{id}).
+ * In cluster mode portfolios live on the node that created them and are
+ * valued with the quotes of that node's partition.
+ */
+@Service
+public class PortfolioEngine {
+    private static final String UNKNOWN_SECTOR = "Unknown";
+
+    @Autowired(required = false)
+    private StockAnalysisService analysisService;
+
+    @Autowired(required = false)
+    private ClusterService clusterService;
+
+    @Autowired(required = false)
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, PortfolioBook> books = new HashMap<>();
+    private final Map<String, Set<Long>> booksByUser = new HashMap<>();
+    // Reverse index: symbol -> positions holding it
+    private final Map<String, SymbolHoldings> holdings = new HashMap<>();
+    private final List<PortfolioBook> dirty = new ArrayList<>();
+    private final AtomicLong nextPortfolioId = new AtomicLong(1);
+    private long version;
+
+    // Create a portfolio and return it with its assigned id
+    public synchronized Portfolio createPortfolio(Portfolio portfolio) {
+        if (portfolio.getUserId() == null || portfolio.getUserId().isBlank()) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        List<Position> positions = portfolio.getPositions() != null ? portfolio.getPositions() : List.of();
+        Set<String> symbols = new HashSet<>();
+        for (Position position : positions) {
+            validate(position);
+            if (!symbols.add(position.getSymbol())) {
+                throw new IllegalArgumentException("Duplicate position for " + position.getSymbol());
+            }
+        }
+
+        long sequence = nextPortfolioId.getAndIncrement();
+        portfolio.setId(clusterService != null ? clusterService.nodeUniqueId(sequence) : sequence);
+        PortfolioBook book = new PortfolioBook(portfolio);
+        for (Position position : positions) {
+            if (position.getQuantity() != 0) {
+                book.add(new Holding(book, copy(position), entryFor(position.getSymbol())));
+            }
+        }
+        book.recompute();
+        books.put(portfolio.getId(), book);
+        booksByUser.computeIfAbsent(portfolio.getUserId(), u -> new HashSet<>()).add(portfolio.getId());
+        markDirty(book);
+        return book.toPortfolio();
+    }
+
+    /**
+     * Add, replace or (with quantity 0) remove a position.
+     * Returns the updated portfolio, or null if it does not exist.
+     */
+    public synchronized Portfolio setPosition(long portfolioId, Position position) {
+        validate(position);
+        PortfolioBook book = books.get(portfolioId);
+        if (book == null) {
+            return null;
+        }
+        Holding existing = book.holdings.get(position.getSymbol());
+        if (existing != null) {
+            book.remove(existing);
+        }
+        if (position.getQuantity() != 0) {
+            book.add(new Holding(book, copy(position), entryFor(position.getSymbol())));
+        }
+        book.recompute();
+        markDirty(book);
+        return book.toPortfolio();
+    }
+
+    // Remove a portfolio, returns false if it does not exist
+    public synchronized boolean removePortfolio(long portfolioId) {
+        PortfolioBook book = books.remove(portfolioId);
+        if (book == null) {
+            return false;
+        }
+        for (Holding holding : new ArrayList<>(book.holdings.values())) {
+            book.remove(holding);
+        }
+        Set<Long> userBooks = booksByUser.get(book.portfolio.getUserId());
+        if (userBooks != null) {
+            userBooks.remove(portfolioId);
+        }
+        return true;
+    }
+
+    public synchronized Portfolio getPortfolio(long portfolioId) {
+        PortfolioBook book = books.get(portfolioId);
+        return book != null ? book.toPortfolio() : null;
+    }
+
+    // Get all portfolios of a user
+    public synchronized List<Portfolio> getPortfoliosForUser(String userId) {
+        List<Portfolio> portfolios = new ArrayList<>();
+        for (Long id : booksByUser.getOrDefault(userId, Collections.emptySet())) {
+            portfolios.add(books.get(id).toPortfolio());
+        }
+        portfolios.sort(Comparator.comparingLong(Portfolio::getId));
+        return portfolios;
+    }
+
+    public synchronized PortfolioValuation getValuation(long portfolioId) {
+        PortfolioBook book = books.get(portfolioId);
+        return book != null ? book.valuation(version) : null;
+    }
+
+    public synchronized int getPortfolioCount() {
+        return books.size();
+    }
+
+    @EventListener
+    public void onStockUpdate(StockUpdateEvent event) {
+        revalue(event.getCurrent());
+    }
+
+    /**
+     * Apply a quote to the portfolios holding its symbol.
+     * Returns the number of positions revalued.
+     */
+    public synchronized int revalue(Stock stock) {
+        SymbolHoldings entry = holdings.get(stock.getSymbol());
+        if (entry == null) {
+            return 0;
+        }
+        double priceDelta = stock.getCurrentPrice() - entry.price;
+        double closeDelta = stock.getPreviousClose() - entry.previousClose;
+        String sector = sectorOf(stock);
+        boolean sectorChanged = !sector.equals(entry.sector);
+        entry.price = stock.getCurrentPrice();
+        entry.previousClose = stock.getPreviousClose();
+        entry.sector = sector;
+        version++;
+
+        for (int i = 0; i < entry.size; i++) {
+            Holding holding = entry.holdings[i];
+            PortfolioBook book = holding.book;
+            if (sectorChanged) {
+                book.recompute();
+            } else {
+                double quantity = holding.position.getQuantity();
+                book.marketValue += quantity * priceDelta;
+                book.closeValue += quantity * closeDelta;
+                holding.sectorValue[0] += quantity * priceDelta;
+            }
+            markDirty(book);
+        }
+        return entry.size;
+    }
+
+    /**
+     * Publish the valuation of every portfolio that changed since the last push
+     */
+    @Scheduled(fixedDelayString = "${stock.portfolio.push-interval:1000}")
+    public void publishChanges() {
+        if (eventPublisher == null) {
+            return;
+        }
+        for (PortfolioValuation valuation : drainChanges()) {
+            eventPublisher.publishEvent(valuation);
+        }
+    }
+
+    // Valuations of the portfolios changed since the last call
+    public synchronized List<PortfolioValuation> drainChanges() {
+        List<PortfolioValuation> changed = new ArrayList<>(dirty.size());
+        for (PortfolioBook book : dirty) {
+            book.dirty = false;
+            if (books.containsKey(book.portfolio.getId())) {
+                changed.add(book.valuation(version));
+            }
+        }
+        dirty.clear();
+        return changed;
+    }
+
+    private void markDirty(PortfolioBook book) {
+        if (!book.dirty) {
+            book.dirty = true;
+            dirty.add(book);
+        }
+    }
+
+    // Reverse index entry of a symbol, seeded with its current quote
+    private SymbolHoldings entryFor(String symbol) {
+        return holdings.computeIfAbsent(symbol, s -> {
+            SymbolHoldings entry = new SymbolHoldings();
+            Stock stock = analysisService != null ? analysisService.getStock(s) : null;
+            if (stock != null) {
+                entry.price = stock.getCurrentPrice();
+                entry.previousClose = stock.getPreviousClose();
+                entry.sector = sectorOf(stock);
+            }
+            return entry;
+        });
+    }
+
+    private static String sectorOf(Stock stock) {
+        return stock.getSector() != null ? stock.getSector() : UNKNOWN_SECTOR;
+    }
+
+    private static void validate(Position position) {
+        if (position == null || position.getSymbol() == null || position.getSymbol().isBlank()) {
+            throw new IllegalArgumentException("symbol is required");
+        }
+        if (!Double.isFinite(position.getQuantity()) || !Double.isFinite(position.getAverageCost())) {
+            throw new IllegalArgumentException("quantity and averageCost must be finite numbers");
+        }
+    }
+
+    private static Position copy(Position position) {
+        return new Position(position.getSymbol(), position.getQuantity(), position.getAverageCost());
+    }
+
+    /**
+     * Positions holding one symbol, and the last quote applied to them
+     */
+    static class SymbolHoldings {
+        String sector = UNKNOWN_SECTOR;
+        double price;
+        double previousClose;
+        Holding[] holdings = new Holding[4];
+        int size;
+
+        void add(Holding holding) {
+            if (size == holdings.length) {
+                holdings = Arrays.copyOf(holdings, size * 2);
+            }
+            holding.index = size;
+            holdings[size++] = holding;
+        }
+
+        // Swap-remove; order does not matter
+        void remove(Holding holding) {
+            Holding last = holdings[--size];
+            holdings[holding.index] = last;
+            last.index = holding.index;
+            holdings[size] = null;
+        }
+    }
+
+    static class Holding {
+        final PortfolioBook book;
+        final Position position;
+        final SymbolHoldings symbol;
+        int index;
+        // Running value of this position's sector in its portfolio
+        double[] sectorValue;
+
+        Holding(PortfolioBook book, Position position, SymbolHoldings symbol) {
+            this.book = book;
+            this.position = position;
+            this.symbol = symbol;
+        }
+    }
+
+    /**
+     * A portfolio with its running totals
+     */
+    static class PortfolioBook {
+        final Portfolio portfolio;
+        final Map<String, Holding> holdings = new LinkedHashMap<>();
+        final Map<String, double[]> sectorValues = new TreeMap<>();
+        double marketValue;
+        double closeValue;
+        double costBasis;
+        boolean dirty;
+
+        PortfolioBook(Portfolio portfolio) {
+            this.portfolio = portfolio;
+        }
+
+        void add(Holding holding) {
+            holdings.put(holding.position.getSymbol(), holding);
+            holding.symbol.add(holding);
+        }
+
+        void remove(Holding holding) {
+            holdings.remove(holding.position.getSymbol());
+            holding.symbol.remove(holding);
+        }
+
+        // Rebuild the totals from the positions (also clears accumulated rounding)
+        void recompute() {
+            marketValue = 0;
+            closeValue = 0;
+            costBasis = 0;
+            sectorValues.clear();
+            for (Holding holding : holdings.values()) {
+                double quantity = holding.position.getQuantity();
+                marketValue += quantity * holding.symbol.price;
+                closeValue += quantity * holding.symbol.previousClose;
+                costBasis += quantity * holding.position.getAverageCost();
+                holding.sectorValue = sectorValues.computeIfAbsent(holding.symbol.sector, s -> new double[1]);
+                holding.sectorValue[0] += quantity * holding.symbol.price;
+            }
+        }
+
+        PortfolioValuation valuation(long version) {
+            PortfolioValuation valuation = new PortfolioValuation();
+            valuation.setPortfolioId(portfolio.getId());
+            valuation.setUserId(portfolio.getUserId());
+            valuation.setName(portfolio.getName());
+            valuation.setMarketValue(marketValue);
+            valuation.setCostBasis(costBasis);
+            valuation.setUnrealizedPnl(marketValue - costBasis);
+            valuation.setDayPnl(marketValue - closeValue);
+            valuation.setDayPnlPercent(closeValue != 0 ? (marketValue - closeValue) / closeValue * 100 : 0);
+            Map<String, Double> exposure = new LinkedHashMap<>();
+            for (Map.Entry<String, double[]> sector : sectorValues.entrySet()) {
+                exposure.put(sector.getKey(), marketValue != 0 ? sector.getValue()[0] / marketValue : 0);
+            }
+            valuation.setSectorExposure(exposure);
+            valuation.setVersion(version);
+            return valuation;
+        }
+
+        Portfolio toPortfolio() {
+            Portfolio copy = new Portfolio();
+            copy.setId(portfolio.getId());
+            copy.setUserId(portfolio.getUserId());
+            copy.setName(portfolio.getName());
+            copy.setCreatedAt(portfolio.getCreatedAt());
+            List<Position> positions = new ArrayList<>();
+            for (Holding holding : holdings.values()) {
+                positions.add(copy(holding.position));
+            }
+            copy.setPositions(positions);
+            return copy;
+        }
+    }
+}
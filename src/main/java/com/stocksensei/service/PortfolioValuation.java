@@ -0,0 +1,51 @@
+package com.stocksensei.service;
+
+import java.util.Map;
+
+/**
+ * Live valuation of a portfolio, pushed on /topic/portfolios/{id}.
+ * dayPnl is measured against the previous close; sectorExposure maps each
+ * sector to its share of the market value.
+ */
+public class PortfolioValuation {
+    private long portfolioId;
+    private String userId;
+    private String name;
+    private double marketValue;
+    private double costBasis;
+    private double unrealizedPnl;
+    private double dayPnl;
+    private double dayPnlPercent;
+    private Map<String, Double> sectorExposure;
+    private long version;
+
+    public long getPortfolioId() { return portfolioId; }
+    public void setPortfolioId(long portfolioId) { this.portfolioId = portfolioId; }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public double getMarketValue() { return marketValue; }
+    public void setMarketValue(double marketValue) { this.marketValue = marketValue; }
+
+    public double getCostBasis() { return costBasis; }
+    public void setCostBasis(double costBasis) { this.costBasis = costBasis; }
+
+    public double getUnrealizedPnl() { return unrealizedPnl; }
+    public void setUnrealizedPnl(double unrealizedPnl) { this.unrealizedPnl = unrealizedPnl; }
+
+    public double getDayPnl() { return dayPnl; }
+    public void setDayPnl(double dayPnl) { this.dayPnl = dayPnl; }
+
+    public double getDayPnlPercent() { return dayPnlPercent; }
+    public void setDayPnlPercent(double dayPnlPercent) { this.dayPnlPercent = dayPnlPercent; }
+
+    public Map<String, Double> getSectorExposure() { return sectorExposure; }
+    public void setSectorExposure(Map<String, Double> sectorExposure) { this.sectorExposure = sectorExposure; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+}
@@ -0,0 +1,307 @@
+package com.stocksensei.service;
+
+import com.stocksensei.datastructures.Candles;
+import com.stocksensei.datastructures.PriceSeries;
+import com.stocksensei.model.Stock;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-symbol price history in tiers.
+ *
+ * Hot: the newest stock.history.capacity raw points in memory. Live updates
+ * are appended as they are published; the bulk loader appends whole runs of
+ * historical points at once. Once a symbol's buffer is full, its oldest
+ * points are rolled up into OHLCV candles of stock.history.candle-interval.
+ *
+ * Cold: finished candles are compressed into segment files under
+ * stock.history.cold.directory once a symbol has
+ * stock.history.cold.segment-candles of them (all of them on shutdown).
+ *
+ * getHistory spans the tiers: raw points first, then in-memory candles, then
+ * the segments overlapping the range, newest first, until the limit is met.
+ */
+@Service
+public class PriceHistoryService {
+    private static final Logger log = LoggerFactory.getLogger(PriceHistoryService.class);
+
+    @Value("${stock.history.capacity:4096}")
+    private int capacity;
+
+    @Value("${stock.history.candle-interval:1m}")
+    private String candleInterval;
+
+    @Value("${stock.history.cold.directory:history}")
+    private String coldDirectory;
+
+    @Value("${stock.history.cold.segment-candles:1024}")
+    private int segmentCandles;
+
+    private final Map<String, SymbolHistory> series = new ConcurrentHashMap<>();
+    private long candleMillis;
+    private CandleSegmentStore coldStore;
+
+    @PostConstruct
+    public void initialize() {
+        candleMillis = DurationStyle.detectAndParse(candleInterval).toMillis();
+        if (candleMillis <= 0) {
+            throw new IllegalArgumentException("Candle interval must be positive: " + candleInterval);
+        }
+        coldStore = new CandleSegmentStore(Paths.get(coldDirectory));
+        try {
+            coldStore.open();
+        } catch (IOException e) {
+            log.warn("Cannot index price history segments in {}: {}", coldDirectory, e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onStockUpdate(StockUpdateEvent event) {
+        Stock stock = event.getCurrent();
+        long timestamp = stock.getLastUpdated() != null
+                ? stock.getLastUpdated().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : System.currentTimeMillis();
+        SymbolHistory history = getOrCreate(stock.getSymbol());
+
+        synchronized (history) {
+            // A bulk load appends its points before publishing the latest quote; don't record it twice
+            PriceSeries.Points last = history.raw.last();
+            if (last != null && last.timestamps[0] == timestamp && last.prices[0] == stock.getCurrentPrice()
+                    && last.volumes[0] == stock.getVolume()) {
+                return;
+            }
+            // Spill in batches, so rolling up costs one copy per capacity/16 ticks
+            if (history.raw.size() == capacity) {
+                PriceSeries.Points spilled = history.raw.removeOldest(Math.max(1, capacity / 16));
+                rollUp(history, spilled, 0, spilled.size());
+            }
+            history.raw.append(timestamp, stock.getCurrentPrice(), stock.getVolume());
+        }
+    }
+
+    @EventListener
+    public synchronized void onMarketCleared(MarketClearedEvent event) {
+        series.clear();
+        try {
+            coldStore.clear();
+        } catch (IOException e) {
+            log.warn("Cannot delete price history segments in {}: {}", coldDirectory, e.getMessage());
+        }
+    }
+
+    // Append a time-ordered run of points to a symbol's history
+    public void appendAll(String symbol, PriceSeries.Points points) {
+        SymbolHistory history = getOrCreate(symbol);
+        synchronized (history) {
+            int from = 0;
+            int overflow = history.raw.size() + points.size() - capacity;
+            if (overflow > 0) {
+                PriceSeries.Points spilled = history.raw.removeOldest(overflow);
+                rollUp(history, spilled, 0, spilled.size());
+                // The oldest incoming points that don't fit in the raw tier at all go straight to candles
+                from = Math.max(0, points.size() - capacity);
+                rollUp(history, points, 0, from);
+            }
+            history.raw.appendAll(points.timestamps, points.prices, points.volumes, from, points.size());
+        }
+    }
+
+    /**
+     * Points of a symbol between from and to (epoch millis, inclusive), the
+     * newest limit of them: raw points where they are still held, candles before
+     */
+    public List<PricePoint> getHistory(String symbol, long from, long to, int limit) {
+        PriceSeries.Points raw = null;
+        Candles warm = null;
+        long coldTo = to;
+        SymbolHistory history = series.get(symbol);
+        if (history != null) {
+            synchronized (history) {
+                raw = history.raw.range(from, to, limit);
+                warm = history.candles.range(from, to, limit - raw.size());
+                // Candles being flushed can be in both; the segments only count before the in-memory ones
+                if (history.candles.size() > 0) {
+                    coldTo = Math.min(to, history.candles.timestamp(0) - 1);
+                }
+            }
+        }
+
+        int remaining = limit - (raw != null ? raw.size() : 0) - (warm != null ? warm.size() : 0);
+        Candles cold = null;
+        if (remaining > 0 && from <= coldTo) {
+            try {
+                cold = coldStore.read(symbol, from, coldTo, remaining);
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Cannot read price history segments of {}: {}", symbol, e.getMessage());
+            }
+        }
+
+        List<PricePoint> points = new ArrayList<>();
+        addCandles(points, cold);
+        addCandles(points, warm);
+        if (raw != null) {
+            for (int i = 0; i < raw.size(); i++) {
+                points.add(new PricePoint(raw.timestamps[i], raw.prices[i], raw.volumes[i]));
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Oldest point of a symbol between from and to (epoch millis, inclusive),
+     * null if there is none: segments first, then in-memory candles, then raw
+     * points, stopping at the first tier that has one
+     */
+    public PricePoint getFirst(String symbol, long from, long to) {
+        SymbolHistory history = series.get(symbol);
+        long coldTo = to;
+        if (history != null) {
+            synchronized (history) {
+                if (history.candles.size() > 0) {
+                    coldTo = Math.min(to, history.candles.timestamp(0) - 1);
+                }
+            }
+        }
+        if (from <= coldTo) {
+            try {
+                Candles cold = coldStore.readFirst(symbol, from, coldTo);
+                if (cold.size() > 0) {
+                    return candlePoint(cold, 0);
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Cannot read price history segments of {}: {}", symbol, e.getMessage());
+            }
+        }
+        if (history == null) {
+            return null;
+        }
+        synchronized (history) {
+            Candles warm = history.candles.first(from, to);
+            if (warm.size() > 0) {
+                return candlePoint(warm, 0);
+            }
+            PriceSeries.Points raw = history.raw.first(from, to);
+            return raw.size() > 0 ? new PricePoint(raw.timestamps[0], raw.prices[0], raw.volumes[0]) : null;
+        }
+    }
+
+    // Timestamp of the oldest point of any symbol in any tier, Long.MAX_VALUE when there is none
+    public long getOldestTimestamp() {
+        long oldest = coldStore.oldestTimestamp();
+        for (SymbolHistory history : series.values()) {
+            synchronized (history) {
+                if (history.candles.size() > 0) {
+                    oldest = Math.min(oldest, history.candles.timestamp(0));
+                } else if (history.raw.size() > 0) {
+                    oldest = Math.min(oldest, history.raw.first(Long.MIN_VALUE, Long.MAX_VALUE).timestamps[0]);
+                }
+            }
+        }
+        return oldest;
+    }
+
+    // Columnar raw points of a symbol between from and to (inclusive), the newest limit of them; null if it has none
+    public PriceSeries.Points getPoints(String symbol, long from, long to, int limit) {
+        SymbolHistory history = series.get(symbol);
+        return history != null ? history.raw.range(from, to, limit) : null;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Scheduled(fixedDelayString = "${stock.history.cold.flush-interval:60000}")
+    public void flushSegments() {
+        flush(false);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush(true);
+    }
+
+    /**
+     * Write finished candles to segment files: every symbol with at least
+     * stock.history.cold.segment-candles of them, or, when all is set, every
+     * candle including the ones still open. Returns the segments written.
+     */
+    public synchronized int flush(boolean all) {
+        int written = 0;
+        for (Map.Entry<String, SymbolHistory> entry : series.entrySet()) {
+            SymbolHistory history = entry.getValue();
+            Candles pending;
+            synchronized (history) {
+                // Ticks arrive in time order, so only the last candle can still change
+                int finished = all ? history.candles.size() : history.candles.size() - 1;
+                if (finished <= 0 || (!all && finished < segmentCandles)) {
+                    continue;
+                }
+                pending = history.candles.copy(0, finished);
+            }
+            try {
+                coldStore.write(entry.getKey(), pending, 0, pending.size());
+                written++;
+            } catch (IOException e) {
+                log.warn("Cannot write price history segment of {}: {}", entry.getKey(), e.getMessage());
+                continue;
+            }
+            // Queries keep finding them in memory until they are indexed on disk
+            synchronized (history) {
+                history.candles.removeFirst(pending.size());
+            }
+        }
+        return written;
+    }
+
+    // Fold points [from, to) into the symbol's in-memory candles
+    private void rollUp(SymbolHistory history, PriceSeries.Points points, int from, int to) {
+        for (int i = from; i < to; i++) {
+            long timestamp = points.timestamps[i];
+            history.candles.addTick(timestamp - Math.floorMod(timestamp, candleMillis), points.prices[i],
+                    points.volumes[i]);
+        }
+    }
+
+    private void addCandles(List<PricePoint> points, Candles candles) {
+        if (candles == null) {
+            return;
+        }
+        for (int i = 0; i < candles.size(); i++) {
+            points.add(candlePoint(candles, i));
+        }
+    }
+
+    private PricePoint candlePoint(Candles candles, int i) {
+        return new PricePoint(candles.timestamp(i), candles.open(i), candles.high(i), candles.low(i),
+                candles.close(i), candles.volume(i), candleMillis);
+    }
+
+    private SymbolHistory getOrCreate(String symbol) {
+        return series.computeIfAbsent(symbol, s -> new SymbolHistory(new PriceSeries(capacity)));
+    }
+
+    // One symbol's hot tier and the candles rolled up from it but not yet in a segment
+    private static class SymbolHistory {
+        final PriceSeries raw;
+        final Candles candles = new Candles();
+
+        SymbolHistory(PriceSeries raw) {
+            this.raw = raw;
+        }
+    }
+}
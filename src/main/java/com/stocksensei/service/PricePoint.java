@@ -0,0 +1,61 @@
+package com.stocksensei.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One point of a symbol's price history (timestamp in epoch milliseconds).
+ * Points older than the raw tier are candles: price and volume are the ones
+ * at the close, and open/high/low/interval are set.
+ */
+public class PricePoint {
+    private long timestamp;
+    private double price;
+    private long volume;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double open;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double high;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double low;
+    // Candle length in milliseconds
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long interval;
+
+    public PricePoint() {
+    }
+
+    public PricePoint(long timestamp, double price, long volume) {
+        this.timestamp = timestamp;
+        this.price = price;
+        this.volume = volume;
+    }
+
+    public PricePoint(long timestamp, double open, double high, double low, double close, long volume, long interval) {
+        this(timestamp, close, volume);
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.interval = interval;
+    }
+
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+
+    public double getPrice() { return price; }
+    public void setPrice(double price) { this.price = price; }
+
+    public long getVolume() { return volume; }
+    public void setVolume(long volume) { this.volume = volume; }
+
+    public Double getOpen() { return open; }
+    public void setOpen(Double open) { this.open = open; }
+
+    public Double getHigh() { return high; }
+    public void setHigh(Double high) { this.high = high; }
+
+    public Double getLow() { return low; }
+    public void setLow(Double low) { this.low = low; }
+
+    public Long getInterval() { return interval; }
+    public void setInterval(Long interval) { this.interval = interval; }
+}
@@ -0,0 +1,321 @@
+package com.stocksensei.service;
+
+import com.stocksensei.model.Stock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a recorded tick file through addOrUpdateStocks, the same path the
+ * simulator uses, at 1x, Nx or maximum speed.
+ *
+ * A decoder thread reads the memory-mapped file and hands batches to the
+ * replay thread through a bounded queue, so parsing overlaps with applying.
+ * Batches are cut at timestamp changes (and a maximum size) independent of
+ * the speed, the simulator is paused, and quotes keep their recorded
+ * timestamps - replaying the same file therefore yields the same final
+ * state, summarised in the status digest.
+ */
+@Service
+public class ReplayService {
+    private static final int BATCH_SIZE = 512;
+    private static final int PREFETCH_BATCHES = 64;
+    private static final int DIGEST_K = 10;
+    private static final List<String> DIGEST_CRITERIA = List.of("priceChange", "volume", "volatility", "price");
+    private static final TickBatch END = new TickBatch(0, Collections.emptyList(), null);
+
+    @Autowired
+    private StockAnalysisService analysisService;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Autowired(required = false)
+    private StockDataSimulator simulator;
+
+    @Value("${stock.replay.directory:replays}")
+    private String directory;
+
+    private Thread replayThread;
+    private volatile ReplayStatus result = new ReplayStatus();
+
+    // Live progress of the current replay
+    private volatile String file;
+    private volatile String speed;
+    private volatile long startNanos;
+    private volatile long ticksApplied;
+    private volatile long ticksSkipped;
+    private volatile long malformedLines;
+    private volatile long bytesRead;
+    private volatile long fileSize;
+
+    /**
+     * Start replaying a file from the replay directory.
+     * @param speed: "1x", "10x", ... or "max"
+     * @param reset: clear market data first (needed for a reproducible result)
+     */
+    public synchronized ReplayStatus start(String fileName, String speed, boolean reset) {
+        if (isReplaying()) {
+            throw new IllegalStateException("A replay is already running");
+        }
+        Path path = resolve(fileName);
+        double factor = parseSpeed(speed);
+
+        if (simulator != null) {
+            simulator.setPaused(true);
+        }
+        if (reset) {
+            analysisService.clearData();
+        }
+
+        this.file = fileName;
+        this.speed = speed;
+        this.startNanos = System.nanoTime();
+        this.ticksApplied = 0;
+        this.ticksSkipped = 0;
+        this.malformedLines = 0;
+        this.bytesRead = 0;
+        this.fileSize = 0;
+
+        replayThread = new Thread(() -> run(path, factor), "replay");
+        replayThread.setDaemon(true);
+        replayThread.start();
+        return getStatus();
+    }
+
+    /**
+     * Stop a running replay and resume the simulator.
+     * The simulator stays paused after a completed replay so its final state can be inspected.
+     */
+    public synchronized ReplayStatus stop() throws InterruptedException {
+        Thread thread = replayThread;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join();
+        }
+        if (simulator != null) {
+            simulator.setPaused(false);
+        }
+        return getStatus();
+    }
+
+    public boolean isReplaying() {
+        Thread thread = replayThread;
+        return thread != null && thread.isAlive();
+    }
+
+    public ReplayStatus getStatus() {
+        if (!isReplaying()) {
+            return result;
+        }
+        ReplayStatus status = progress();
+        status.setState(ReplayStatus.State.RUNNING);
+        return status;
+    }
+
+    private void run(Path path, double factor) {
+        BlockingQueue<TickBatch> queue = new ArrayBlockingQueue<>(PREFETCH_BATCHES);
+        Thread decoder = new Thread(() -> decode(path, queue), "replay-decoder");
+        decoder.setDaemon(true);
+        decoder.start();
+
+        ReplayStatus.State state = ReplayStatus.State.COMPLETED;
+        String error = null;
+        try {
+            long firstTimestamp = Long.MIN_VALUE;
+            long paceStart = 0;
+            while (true) {
+                TickBatch batch = queue.take();
+                if (batch == END) {
+                    break;
+                }
+                if (batch.failure != null) {
+                    throw batch.failure;
+                }
+
+                if (factor > 0) {
+                    if (firstTimestamp == Long.MIN_VALUE) {
+                        firstTimestamp = batch.timestamp;
+                        paceStart = System.nanoTime();
+                    }
+                    long due = paceStart + (long) ((batch.timestamp - firstTimestamp) * 1_000_000 / factor);
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                }
+
+                analysisService.addOrUpdateStocks(batch.stocks);
+                ticksApplied += batch.stocks.size();
+            }
+        } catch (InterruptedException e) {
+            state = ReplayStatus.State.STOPPED;
+        } catch (Exception e) {
+            state = ReplayStatus.State.FAILED;
+            error = e.getMessage();
+        } finally {
+            decoder.interrupt();
+        }
+
+        ReplayStatus status = progress();
+        status.setState(state);
+        status.setError(error);
+        snapshot(status);
+        result = status;
+    }
+
+    // Runs on the decoder thread
+    private void decode(Path path, BlockingQueue<TickBatch> queue) {
+        try {
+            try (TickFileReader reader = new TickFileReader(path)) {
+                fileSize = reader.getSize();
+                List<Stock> batch = new ArrayList<>(BATCH_SIZE);
+                long batchTimestamp = 0;
+                Stock stock;
+                while ((stock = reader.next()) != null) {
+                    if (!clusterService.isLocal(stock.getSymbol())) {
+                        ticksSkipped++;
+                        continue;
+                    }
+                    long timestamp = reader.getTimestamp();
+                    if (!batch.isEmpty() && (timestamp != batchTimestamp || batch.size() >= BATCH_SIZE)) {
+                        queue.put(new TickBatch(batchTimestamp, batch, null));
+                        batch = new ArrayList<>(BATCH_SIZE);
+                        bytesRead = reader.getBytesRead();
+                        malformedLines = reader.getMalformedLines();
+                    }
+                    if (batch.isEmpty()) {
+                        batchTimestamp = timestamp;
+                    }
+                    batch.add(stock);
+                }
+                if (!batch.isEmpty()) {
+                    queue.put(new TickBatch(batchTimestamp, batch, null));
+                }
+                bytesRead = reader.getBytesRead();
+                malformedLines = reader.getMalformedLines();
+            }
+            queue.put(END);
+        } catch (InterruptedException e) {
+            // Replay stopped
+        } catch (IOException | RuntimeException e) {
+            // Blocks while the prefetch queue is full, like END; the replay thread must see the failure
+            try {
+                queue.put(new TickBatch(0, Collections.emptyList(), e));
+            } catch (InterruptedException interrupted) {
+                // Replay stopped
+            }
+        }
+    }
+
+    private ReplayStatus progress() {
+        ReplayStatus status = new ReplayStatus();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        double seconds = elapsedNanos / 1e9;
+        status.setFile(file);
+        status.setSpeed(speed);
+        status.setTicksApplied(ticksApplied);
+        status.setTicksSkipped(ticksSkipped);
+        status.setMalformedLines(malformedLines);
+        status.setBytesRead(bytesRead);
+        status.setFileSize(fileSize);
+        status.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        status.setTicksPerSecond(seconds > 0 ? ticksApplied / seconds : 0);
+        status.setMegabytesPerSecond(seconds > 0 ? bytesRead / seconds / (1024 * 1024) : 0);
+        return status;
+    }
+
+    // Final top-K lists, summary and their digest
+    private void snapshot(ReplayStatus status) {
+        StringBuilder canonical = new StringBuilder();
+        Map<String, List<String>> topStocks = new LinkedHashMap<>();
+        for (String criterion : DIGEST_CRITERIA) {
+            List<String> symbols = new ArrayList<>();
+            canonical.append(criterion).append(':');
+            for (Stock stock : analysisService.getTopStocks(criterion, DIGEST_K)) {
+                symbols.add(stock.getSymbol());
+                canonical.append(stock.getSymbol()).append('=')
+                        .append(String.format(Locale.ROOT, "%.6f,%.6f,%d;",
+                                stock.getCurrentPrice(), stock.getPreviousClose(), stock.getVolume()));
+            }
+            topStocks.put(criterion, symbols);
+        }
+
+        MarketSummary summary = analysisService.getMarketSummary();
+        canonical.append(String.format(Locale.ROOT, "summary:%d,%.6f,%d,%d,%d,%d", summary.getTotalStocks(),
+                summary.getAvgChange(), summary.getTotalVolume(), summary.getGainers(),
+                summary.getLosers(), summary.getUnchanged()));
+
+        status.setTopStocks(topStocks);
+        status.setSummary(summary);
+        status.setDigest(sha256(canonical.toString()));
+    }
+
+    // A file inside the replay directory; rejects paths that escape it
+    Path resolve(String fileName) {
+        Path base = Paths.get(directory).toAbsolutePath().normalize();
+        Path path = base.resolve(fileName).normalize();
+        if (!path.startsWith(base)) {
+            throw new IllegalArgumentException("File must be inside the replay directory " + base);
+        }
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalArgumentException("No such replay file: " + path);
+        }
+        return path;
+    }
+
+    // Speed factor, 0 for max
+    static double parseSpeed(String speed) {
+        if ("max".equalsIgnoreCase(speed)) {
+            return 0;
+        }
+        String value = speed.endsWith("x") || speed.endsWith("X")
+                ? speed.substring(0, speed.length() - 1)
+                : speed;
+        try {
+            double factor = Double.parseDouble(value);
+            if (factor > 0 && !Double.isInfinite(factor)) {
+                return factor;
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        throw new IllegalArgumentException("Speed must be 1x, Nx or max: " + speed);
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Quotes sharing one recorded timestamp (at most BATCH_SIZE), or a decoder failure
+     */
+    static class TickBatch {
+        final long timestamp;
+        final List<Stock> stocks;
+        final Exception failure;
+
+        TickBatch(long timestamp, List<Stock> stocks, Exception failure) {
+            this.timestamp = timestamp;
+            this.stocks = stocks;
+            this.failure = failure;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.stocksensei.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Progress and result of a tick file replay.
+ * digest is a SHA-256 over the final top-K lists and market summary, so two
+ * builds replaying the same file can be compared with a single value.
+ */
+public class ReplayStatus {
+    public enum State { IDLE, RUNNING, COMPLETED, STOPPED, FAILED }
+
+    private State state = State.IDLE;
+    private String file;
+    private String speed;
+    private long ticksApplied;
+    private long ticksSkipped;
+    private long malformedLines;
+    private long bytesRead;
+    private long fileSize;
+    private long elapsedMillis;
+    private double ticksPerSecond;
+    private double megabytesPerSecond;
+    private String error;
+    private String digest;
+    private Map<String, List<String>> topStocks;
+    private MarketSummary summary;
+
+    public State getState() { return state; }
+    public void setState(State state) { this.state = state; }
+
+    public String getFile() { return file; }
+    public void setFile(String file) { this.file = file; }
+
+    public String getSpeed() { return speed; }
+    public void setSpeed(String speed) { this.speed = speed; }
+
+    public long getTicksApplied() { return ticksApplied; }
+    public void setTicksApplied(long ticksApplied) { this.ticksApplied = ticksApplied; }
+
+    public long getTicksSkipped() { return ticksSkipped; }
+    public void setTicksSkipped(long ticksSkipped) { this.ticksSkipped = ticksSkipped; }
+
+    public long getMalformedLines() { return malformedLines; }
+    public void setMalformedLines(long malformedLines) { this.malformedLines = malformedLines; }
+
+    public long getBytesRead() { return bytesRead; }
+    public void setBytesRead(long bytesRead) { this.bytesRead = bytesRead; }
+
+    public long getFileSize() { return fileSize; }
+    public void setFileSize(long fileSize) { this.fileSize = fileSize; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public double getTicksPerSecond() { return ticksPerSecond; }
+    public void setTicksPerSecond(double ticksPerSecond) { this.ticksPerSecond = ticksPerSecond; }
+
+    public double getMegabytesPerSecond() { return megabytesPerSecond; }
+    public void setMegabytesPerSecond(double megabytesPerSecond) { this.megabytesPerSecond = megabytesPerSecond; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public String getDigest() { return digest; }
+    public void setDigest(String digest) { this.digest = digest; }
+
+    public Map<String, List<String>> getTopStocks() { return topStocks; }
+    public void setTopStocks(Map<String, List<String>> topStocks) { this.topStocks = topStocks; }
+
+    public MarketSummary getSummary() { return summary; }
+    public void setSummary(MarketSummary summary) { this.summary = summary; }
+}
@@ -0,0 +1,118 @@
+package com.stocksensei.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of pre-serialized response bodies for hot GET endpoints.
+ *
+ * Each entry is tagged with the market version it was built at; any publish
+ * bumps the version, so the next request re-serializes once and every other
+ * request at that version reuses the same bytes (and gzip variant).
+ * JSON and CBOR bodies are cached separately. The gzip variant has its own
+ * ETag, as it is a different representation of the same body.
+ */
+@Component
+public class ResponseSnapshotCache {
+    private static final int MAX_ENTRIES = 256;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    private final Map<String, Snapshot> entries = new ConcurrentHashMap<>();
+
+    // Serialized body for key at version, building it at most once per version
+    public Snapshot get(String key, WireFormat format, long version, Supplier<Object> body) {
+        String cacheKey = format.name() + ":" + key;
+        return get(cacheKey, version, () -> serialize(format, body.get()));
+    }
+
+    private Snapshot get(String key, long version, Supplier<byte[]> serializer) {
+        Snapshot snapshot = entries.get(key);
+        if (snapshot != null && snapshot.version == version) {
+            return snapshot;
+        }
+        if (entries.size() >= MAX_ENTRIES && !entries.containsKey(key)) {
+            entries.clear();
+        }
+        // compute() holds the key's bin lock, so concurrent misses serialize once
+        return entries.compute(key, (k, existing) ->
+                existing != null && existing.version == version
+                        ? existing
+                        : new Snapshot(version, serializer.get()));
+    }
+
+    private byte[] serialize(WireFormat format, Object body) {
+        ObjectMapper mapper = format == WireFormat.CBOR ? cborConverter.getObjectMapper() : objectMapper;
+        try {
+            return mapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response snapshot", e);
+        }
+    }
+
+    /**
+     * Serialized body at a market version, with a lazily built gzip variant
+     * tagged "<etag>-gzip"
+     */
+    public static class Snapshot {
+        private final long version;
+        private final byte[] bytes;
+        private final String etag;
+        private final String gzipETag;
+        private volatile byte[] gzipBytes;
+
+        Snapshot(long version, byte[] bytes) {
+            this.version = version;
+            this.bytes = bytes;
+            String tag = version + "-" + Integer.toHexString(Arrays.hashCode(bytes));
+            this.etag = "\"" + tag + "\"";
+            this.gzipETag = "\"" + tag + "-gzip\"";
+        }
+
+        public long getVersion() { return version; }
+        public byte[] getBytes() { return bytes; }
+
+        public String getETag() {
+            return etag;
+        }
+
+        public String getGzipETag() {
+            return gzipETag;
+        }
+
+        public byte[] getGzipBytes() {
+            byte[] gzip = gzipBytes;
+            if (gzip == null) {
+                gzip = gzip(bytes);
+                gzipBytes = gzip;
+            }
+            return gzip;
+        }
+
+        private static byte[] gzip(byte[] data) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(data);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.stocksensei.service;
+
+import com.stocksensei.datastructures.RollingSectorMetrics;
+import com.stocksensei.datastructures.SectorMetrics;
+import com.stocksensei.model.Stock;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Sector rotation analytics over rolling windows.
+ *
+ * Every stock update is fed into one RollingSectorMetrics per configured
+ * window (keyed by the update's lastUpdated time, like the leaderboards), so
+ * each sector's volume-weighted return, breadth, dispersion and strength
+ * relative to the market are maintained per tick and read without touching
+ * individual stocks. Other windows are recomputed from the price history
+ * (raw points, then candles for older ranges), one sector per task on a
+ * dedicated fork-join pool.
+ */
+@Service
+public class SectorAnalyticsService {
+    // Window covering the whole price history
+    public static final String ALL_HISTORY = "all";
+
+    @Autowired
+    private StockAnalysisService analysisService;
+
+    @Autowired
+    private PriceHistoryService historyService;
+
+    @Value("${stock.sectors.windows:1m,5m,15m}")
+    private List<String> windowLabels;
+
+    private final Map<String, RollingSectorMetrics> rolling = new LinkedHashMap<>();
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    // Latest update time seen; the end of every window
+    private final AtomicLong now = new AtomicLong(Long.MIN_VALUE);
+
+    @PostConstruct
+    public void initialize() {
+        for (String label : windowLabels) {
+            rolling.put(label, new RollingSectorMetrics(DurationStyle.detectAndParse(label).toMillis()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @EventListener
+    public void onStockUpdate(StockUpdateEvent event) {
+        Stock stock = event.getCurrent();
+        long timestamp = stock.getLastUpdated() != null
+                ? stock.getLastUpdated().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : System.currentTimeMillis();
+        now.accumulateAndGet(timestamp, Math::max);
+        for (RollingSectorMetrics metrics : rolling.values()) {
+            metrics.record(stock.getSymbol(), stock.getSector(), timestamp, stock.getCurrentPrice(), stock.getVolume());
+        }
+    }
+
+    @EventListener
+    public void onMarketCleared(MarketClearedEvent event) {
+        rolling.values().forEach(RollingSectorMetrics::clear);
+        now.set(Long.MIN_VALUE);
+    }
+
+    // Windows maintained per tick, e.g. [1m, 5m, 15m]
+    public Set<String> getWindows() {
+        return rolling.keySet();
+    }
+
+    /**
+     * Canonical form of a window, so equal windows share one cached response:
+     * the label of the maintained window of that length, else its length in
+     * ms, or "all" when it reaches past the oldest price held (every longer
+     * window gives the same result). Null stays null.
+     * @throws IllegalArgumentException if the window is not a positive duration
+     */
+    public String normaliseWindow(String window) {
+        if (window == null || rolling.containsKey(window) || ALL_HISTORY.equals(window)) {
+            return window;
+        }
+        long windowMillis = parseWindow(window);
+        for (Map.Entry<String, RollingSectorMetrics> entry : rolling.entrySet()) {
+            if (entry.getValue().getWindowMillis() == windowMillis) {
+                return entry.getKey();
+            }
+        }
+        long end = now.get();
+        long oldest = historyService.getOldestTimestamp();
+        if (end == Long.MIN_VALUE || oldest == Long.MAX_VALUE || windowMillis > end - oldest) {
+            return ALL_HISTORY;
+        }
+        return windowMillis + "ms";
+    }
+
+    /**
+     * Sector metrics over a window: maintained ones are read directly, any
+     * other duration (e.g. 30m, 2h, or "all") is recomputed from the price history.
+     * Without a window, returns are measured from the previous close.
+     * @throws IllegalArgumentException if the window is not a positive duration
+     */
+    public Map<String, SectorMetrics> getPerformance(String window) {
+        if (window == null) {
+            return analysisService.getSectorPerformance();
+        }
+        RollingSectorMetrics metrics = rolling.get(window);
+        if (metrics != null) {
+            return metrics.getMetrics();
+        }
+        return computeFromHistory(ALL_HISTORY.equals(window) ? Long.MAX_VALUE : parseWindow(window));
+    }
+
+    /**
+     * Sector metrics over the window ending at the latest update, recomputed
+     * from every symbol's price history, sectors in parallel; the window is
+     * capped at the span of the history held
+     */
+    public Map<String, SectorMetrics> computeFromHistory(long windowMillis) {
+        long end = now.get();
+        long oldest = historyService.getOldestTimestamp();
+        if (end == Long.MIN_VALUE || oldest == Long.MAX_VALUE) {
+            return new HashMap<>();
+        }
+        long cutoff = windowMillis > end - oldest ? oldest - 1 : end - windowMillis;
+        Map<String, List<String>> symbolsBySector = new HashMap<>();
+        for (Stock stock : analysisService.getAllStocks()) {
+            if (stock.getSector() != null) {
+                symbolsBySector.computeIfAbsent(stock.getSector(), s -> new ArrayList<>()).add(stock.getSymbol());
+            }
+        }
+
+        List<SectorMetrics> sectors = pool.submit(() -> symbolsBySector.entrySet().parallelStream()
+                .map(entry -> computeSector(entry.getKey(), entry.getValue(), cutoff, end))
+                .collect(Collectors.toList())).join();
+        return SectorMetrics.compare(sectors);
+    }
+
+    // One sector over (cutoff, end]: each symbol's return from its last price at or before the cutoff
+    // (or the open of its first point inside the window) to its last price, weighted by its latest volume.
+    // Reads every history tier, so windows older than the raw points are measured on candles.
+    private SectorMetrics computeSector(String sector, List<String> symbols, long cutoff, long end) {
+        SectorMetrics metrics = new SectorMetrics(sector);
+        for (String symbol : symbols) {
+            List<PricePoint> latest = historyService.getHistory(symbol, cutoff + 1, end, 1);
+            if (latest.isEmpty()) {
+                continue;
+            }
+            List<PricePoint> before = historyService.getHistory(symbol, Long.MIN_VALUE, cutoff, 1);
+            double base;
+            if (!before.isEmpty()) {
+                base = before.get(0).getPrice();
+            } else {
+                // The whole history lies inside the window: from the oldest point (a candle's open)
+                PricePoint first = historyService.getFirst(symbol, cutoff + 1, end);
+                if (first == null) {
+                    continue;
+                }
+                base = first.getOpen() != null ? first.getOpen() : first.getPrice();
+            }
+            PricePoint last = latest.get(0);
+            metrics.add(base != 0 ? (last.getPrice() - base) / base * 100 : 0, last.getVolume());
+        }
+        return metrics;
+    }
+
+    private long parseWindow(String window) {
+        long windowMillis;
+        try {
+            windowMillis = DurationStyle.detectAndParse(window).toMillis();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown window " + window + ", expected a duration such as "
+                    + getWindows());
+        }
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("Window must be positive: " + window);
+        }
+        return windowMillis;
+    }
+}
@@ -1,56 +1,142 @@
 package com.stocksensei.service;
 
 
+import com.stocksensei.datastructures.GraphSnapshot;
 import com.stocksensei.datastructures.SectorMetrics;
 import com.stocksensei.datastructures.StockGraph;
 import com.stocksensei.datastructures.StockMaxHeap;
 import com.stocksensei.model.Stock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 /**
  * Core service for stock analysis and ranking
+ *
+ * The graph is also the stock store: its vertices are the latest quote of
+ * every symbol, looked up by symbol id.
  */
 @Service
 public class StockAnalysisService {
-    private StockGraph stockGraph;
+    private volatile StockGraph stockGraph;
     private Map<String, StockMaxHeap> heaps;
-    private List<Stock> stockDatabase;
+
+    @Autowired(required = false)
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired(required = false)
+    private LatencyTracker latencyTracker;
+
+    // Market version, bumped on every upsert; long-poll waiters park on the condition.
+    // A ReentrantLock is used instead of wait/notify so virtual threads do not pin.
+    private volatile long version;
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private final Condition updated = updateLock.newCondition();
 
     public StockAnalysisService() {
         this.stockGraph = new StockGraph();
         this.heaps = new HashMap<>();
-        this.stockDatabase = Collections.synchronizedList(new ArrayList<>());
         initializeHeaps();
     }
 
     private void initializeHeaps() {
-        heaps.put("priceChange", new StockMaxHeap(
-                Comparator.comparingDouble(Stock::getPriceChangePercent)));
-        heaps.put("volume", new StockMaxHeap(
-                Comparator.comparingLong(Stock::getVolume)));
-        heaps.put("volatility", new StockMaxHeap(
-                Comparator.comparingDouble(Stock::getVolatility)));
-        heaps.put("price", new StockMaxHeap(
-                Comparator.comparingDouble(Stock::getCurrentPrice)));
+        for (String criterion : List.of("priceChange", "volume", "volatility", "price")) {
+            heaps.put(criterion, new StockMaxHeap(getRankingComparator(criterion)));
+        }
     }
 
     // Add or update stock
-    public synchronized void addOrUpdateStock(Stock stock) {
-        stockDatabase.removeIf(s -> s.getSymbol().equals(stock.getSymbol()));
-        stockDatabase.add(stock);
+    public void addOrUpdateStock(Stock stock) {
+        LatencyTracker.stamp(stock);
+        synchronized (this) {
+            applyUpdate(stock);
+        }
+        signalUpdate();
+    }
+
+    // Add or update a batch of stocks, waking long-poll waiters once
+    public void addOrUpdateStocks(Collection<Stock> stocks) {
+        for (Stock stock : stocks) {
+            LatencyTracker.stamp(stock);
+        }
+        synchronized (this) {
+            for (Stock stock : stocks) {
+                applyUpdate(stock);
+            }
+        }
+        signalUpdate();
+    }
+
+    private void applyUpdate(Stock stock) {
+        Stock previous = stockGraph.getStock(stock.getSymbol());
 
         stockGraph.addStock(stock);
+        if (latencyTracker != null) {
+            latencyTracker.record(LatencyTracker.Stage.STORE, stock.getIngestNanos());
+        }
 
         for (StockMaxHeap heap : heaps.values()) {
-            heap.insert(stock);
+            heap.insertOrUpdate(stock);
+        }
+        if (latencyTracker != null) {
+            latencyTracker.record(LatencyTracker.Stage.RANKING, stock.getIngestNanos());
+        }
+
+        version++;
+        stock.setSequence(version);
+
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new StockUpdateEvent(previous, stock));
+        }
+    }
+
+    private void signalUpdate() {
+        updateLock.lock();
+        try {
+            updated.signalAll();
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    // Current market version
+    public long getVersion() {
+        return version;
+    }
+
+    // Block until the version moves past sinceVersion or the timeout elapses
+    public long awaitUpdate(long sinceVersion, long timeoutMillis) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        updateLock.lock();
+        try {
+            while (version <= sinceVersion && remaining > 0) {
+                remaining = updated.awaitNanos(remaining);
+            }
+            return version;
+        } finally {
+            updateLock.unlock();
         }
     }
 
+    // Every stock and the version they are current as of; each update up to that
+    // version has already been published (listeners run inside the update)
+    public synchronized StocksSnapshot getSnapshot() {
+        return new StocksSnapshot(version, stockGraph.getAllStocks());
+    }
+
+    // Get a single stock by symbol
+    public Stock getStock(String symbol) {
+        return stockGraph.getStock(symbol);
+    }
+
     // Get top K stocks by criterion
-    public List<Stock> getTopStocks(String criterion, int k) {
+    public synchronized List<Stock> getTopStocks(String criterion, int k) {
         StockMaxHeap heap = heaps.get(criterion);
         if (heap == null) {
             return new ArrayList<>();
@@ -58,9 +144,25 @@ public class StockAnalysisService {
         return heap.getTopK(k);
     }
 
+    // Ranking order used for a criterion (ascending), null if unknown
+    public Comparator<Stock> getRankingComparator(String criterion) {
+        switch (criterion) {
+            case "priceChange":
+                return Comparator.comparingDouble(Stock::getPriceChangePercent);
+            case "volume":
+                return Comparator.comparingLong(Stock::getVolume);
+            case "volatility":
+                return Comparator.comparingDouble(Stock::getVolatility);
+            case "price":
+                return Comparator.comparingDouble(Stock::getCurrentPrice);
+            default:
+                return null;
+        }
+    }
+
     // Get all stocks sorted by criterion
     public List<Stock> getAllStocksSorted(String criterion) {
-        List<Stock> stocks = new ArrayList<>(stockDatabase);
+        List<Stock> stocks = stockGraph.getAllStocks();
 
         switch (criterion) {
             case "priceChange":
@@ -166,11 +268,32 @@ public class StockAnalysisService {
         return stockGraph.findRelatedStocks(symbol, depth);
     }
 
+    // Find clusters of connected stocks
+    public List<List<Stock>> findStockClusters() {
+        return stockGraph.findStockClusters();
+    }
+
+    // Get the most connected stocks
+    public List<Stock> getHubStocks(int k) {
+        return stockGraph.getHubStocks(k);
+    }
+
+    // Immutable view of the relationship graph for background analytics
+    public GraphSnapshot getGraphSnapshot() {
+        return stockGraph.snapshot();
+    }
+
+    // Replace the weighted relationships of a stock
+    public void setRelationships(String symbol, List<String> peers, double[] weights) {
+        stockGraph.setEdges(symbol, peers, weights);
+    }
+
     // Get market summary
     public MarketSummary getMarketSummary() {
         MarketSummary summary = new MarketSummary();
+        List<Stock> stocks = stockGraph.getAllStocks();
 
-        if (stockDatabase.isEmpty()) {
+        if (stocks.isEmpty()) {
             return summary;
         }
 
@@ -179,7 +302,7 @@ public class StockAnalysisService {
         int gainers = 0;
         int losers = 0;
 
-        for (Stock stock : stockDatabase) {
+        for (Stock stock : stocks) {
             totalChange += stock.getPriceChangePercent();
             totalVolume += stock.getVolume();
 
@@ -187,12 +310,12 @@ public class StockAnalysisService {
             else if (stock.getPriceChange() < 0) losers++;
         }
 
-        summary.setTotalStocks(stockDatabase.size());
-        summary.setAvgChange(totalChange / stockDatabase.size());
+        summary.setTotalStocks(stocks.size());
+        summary.setAvgChange(totalChange / stocks.size());
         summary.setTotalVolume(totalVolume);
         summary.setGainers(gainers);
         summary.setLosers(losers);
-        summary.setUnchanged(stockDatabase.size() - gainers - losers);
+        summary.setUnchanged(stocks.size() - gainers - losers);
 
         return summary;
     }
@@ -200,7 +323,7 @@ public class StockAnalysisService {
     // Search stocks
     public List<Stock> searchStocks(String query) {
         String lowerQuery = query.toLowerCase();
-        return stockDatabase.stream()
+        return stockGraph.getAllStocks().stream()
                 .filter(s -> s.getSymbol().toLowerCase().contains(lowerQuery) ||
                         s.getName().toLowerCase().contains(lowerQuery))
                 .collect(Collectors.toList());
@@ -208,14 +331,21 @@ public class StockAnalysisService {
 
     // Get all stocks
     public List<Stock> getAllStocks() {
-        return new ArrayList<>(stockDatabase);
+        return stockGraph.getAllStocks();
     }
 
     // Clear all data
     public void clearData() {
-        stockDatabase.clear();
-        heaps.values().forEach(StockMaxHeap::clear);
-        stockGraph = new StockGraph();
+        synchronized (this) {
+            heaps.values().forEach(StockMaxHeap::clear);
+            stockGraph = new StockGraph();
+            version++;
+
+            if (eventPublisher != null) {
+                eventPublisher.publishEvent(new MarketClearedEvent(version));
+            }
+        }
+        signalUpdate();
     }
 }
 
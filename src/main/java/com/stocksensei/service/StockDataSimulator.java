@@ -1,24 +1,72 @@
 package com.stocksensei.service;
 
 import com.stocksensei.model.Stock;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Service to simulate real-time stock market data
+ * Each tick is split into partitions that are simulated concurrently,
+ * on virtual threads when spring.threads.virtual.enabled=true (Java 21).
  */
 @Service
+@ConditionalOnProperty(name = "stock.simulator.enabled", havingValue = "true", matchIfMissing = true)
 public class StockDataSimulator {
 
     @Autowired
     private StockAnalysisService analysisService;
 
+    @Autowired
+    private ClusterService clusterService;
+
+    @Value("${stock.simulator.partitions:4}")
+    private int partitions;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
     private final List<StockTemplate> stockTemplates = new ArrayList<>();
     private boolean isInitialized = false;
+    private volatile boolean paused = false;
+    // Held for a whole tick, so pausing waits for the one in progress.
+    // A ReentrantLock, as the tick blocks on its partitions and virtual threads must not pin.
+    private final ReentrantLock tickLock = new ReentrantLock();
+    private Executor partitionExecutor;
+
+    @PostConstruct
+    public void initializeExecutor() {
+        partitions = Math.max(1, partitions);
+        if (virtualThreads) {
+            partitionExecutor = new VirtualThreadTaskExecutor("simulator-");
+        } else {
+            partitionExecutor = Executors.newFixedThreadPool(partitions, r -> {
+                Thread thread = new Thread(r, "simulator-partition");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdownExecutor() {
+        if (partitionExecutor instanceof ExecutorService) {
+            ((ExecutorService) partitionExecutor).shutdownNow();
+        }
+    }
 
     /**
      * Initialize sample stocks
@@ -47,28 +95,58 @@ public class StockDataSimulator {
         stockTemplates.add(new StockTemplate("INTC", "Intel Corp.", 42.35, "Technology"));
         stockTemplates.add(new StockTemplate("AMD", "AMD Inc.", 167.80, "Technology"));
 
+        // In cluster mode each node simulates only the symbols it owns
+        stockTemplates.removeIf(template -> !clusterService.isLocal(template.symbol));
+
+        // Symbols restored from a market snapshot keep their quotes
         for (StockTemplate template : stockTemplates) {
-            Stock stock = createStockFromTemplate(template);
-            analysisService.addOrUpdateStock(stock);
+            if (analysisService.getStock(template.symbol) == null) {
+                analysisService.addOrUpdateStock(createStockFromTemplate(template));
+            }
         }
 
         isInitialized = true;
     }
 
     /**
-     * Scheduled task to update stock prices (every 3 seconds)
+     * Scheduled task to update stock prices (every stock.simulator.update-interval ms)
      */
-    @Scheduled(fixedRate = 3000)
+    @Scheduled(fixedRateString = "${stock.simulator.update-interval:3000}")
     public void updateStockPrices() {
-        if (!isInitialized) {
-            initializeStocks();
-            return;
+        tickLock.lock();
+        try {
+            if (paused) {
+                return;
+            }
+            if (!isInitialized) {
+                initializeStocks();
+                return;
+            }
+
+            int size = stockTemplates.size();
+            int partitionSize = (size + partitions - 1) / partitions;
+            List<CompletableFuture<Void>> updates = new ArrayList<>(partitions);
+
+            for (int start = 0; start < size; start += partitionSize) {
+                List<StockTemplate> partition = stockTemplates.subList(start, Math.min(size, start + partitionSize));
+                updates.add(CompletableFuture.runAsync(() -> updatePartition(partition), partitionExecutor));
+            }
+
+            CompletableFuture.allOf(updates.toArray(new CompletableFuture[0])).join();
+        } finally {
+            tickLock.unlock();
         }
+    }
 
-        for (StockTemplate template : stockTemplates) {
-            Stock updatedStock = simulateStockUpdate(template);
-            analysisService.addOrUpdateStock(updatedStock);
+    /**
+     * Simulate one partition and apply it as a single batch
+     */
+    private void updatePartition(List<StockTemplate> partition) {
+        List<Stock> updatedStocks = new ArrayList<>(partition.size());
+        for (StockTemplate template : partition) {
+            updatedStocks.add(simulateStockUpdate(template));
         }
+        analysisService.addOrUpdateStocks(updatedStocks);
     }
 
     /**
@@ -93,10 +171,10 @@ public class StockDataSimulator {
      * Simulate stock price update
      */
     private Stock simulateStockUpdate(StockTemplate template) {
-        Stock currentStock = analysisService.getAllStocks().stream()
-                .filter(s -> s.getSymbol().equals(template.symbol))
-                .findFirst()
-                .orElse(createStockFromTemplate(template));
+        Stock currentStock = analysisService.getStock(template.symbol);
+        if (currentStock == null) {
+            currentStock = createStockFromTemplate(template);
+        }
 
         double previousPrice = currentStock.getCurrentPrice();
         double priceChange = randomChange(previousPrice, 0.005);
@@ -117,6 +195,7 @@ public class StockDataSimulator {
                 Math.max(volumeChange, 1000),
                 currentStock.getSector()
         );
+        updatedStock.setIngestNanos(System.nanoTime());
 
         return updatedStock;
     }
@@ -137,13 +216,36 @@ public class StockDataSimulator {
         return ThreadLocalRandom.current().nextLong(100000, 10000000);
     }
 
+    /**
+     * Pause or resume price updates (e.g. while a recorded file is replayed).
+     * Pausing returns once a tick in progress has been applied, so no
+     * simulated update lands after it.
+     */
+    public void setPaused(boolean paused) {
+        tickLock.lock();
+        try {
+            this.paused = paused;
+        } finally {
+            tickLock.unlock();
+        }
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
     /**
      * Reset simulation
      */
     public void resetSimulation() {
-        isInitialized = false;
-        analysisService.clearData();
-        initializeStocks();
+        tickLock.lock();
+        try {
+            isInitialized = false;
+            analysisService.clearData();
+            initializeStocks();
+        } finally {
+            tickLock.unlock();
+        }
     }
 
     /**
@@ -0,0 +1,20 @@
+package com.stocksensei.service;
+
+import com.stocksensei.model.Stock;
+
+/**
+ * Published by StockAnalysisService after every upsert.
+ * previous is null the first time a symbol is seen.
+ */
+public class StockUpdateEvent {
+    private final Stock previous;
+    private final Stock current;
+
+    public StockUpdateEvent(Stock previous, Stock current) {
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public Stock getPrevious() { return previous; }
+    public Stock getCurrent() { return current; }
+}
@@ -0,0 +1,28 @@
+package com.stocksensei.service;
+
+import com.stocksensei.model.Stock;
+
+import java.util.List;
+
+/**
+ * Every stock as of a market version, sent on /user/queue/snapshot when a
+ * client subscribes to /topic/stocks
+ */
+public class StocksSnapshot {
+    private long version;
+    private List<Stock> stocks;
+
+    public StocksSnapshot() {
+    }
+
+    public StocksSnapshot(long version, List<Stock> stocks) {
+        this.version = version;
+        this.stocks = stocks;
+    }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
+    public List<Stock> getStocks() { return stocks; }
+    public void setStocks(List<Stock> stocks) { this.stocks = stocks; }
+}
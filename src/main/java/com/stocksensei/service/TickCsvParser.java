@@ -0,0 +1,339 @@
+package com.stocksensei.service;
+
+import com.stocksensei.model.Stock;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Parser for recorded tick files, one quote per line:
+ * {@code timestamp,symbol,name,sector,price,previousClose,volume}
+ * (timestamp in epoch milliseconds, fields optionally double-quoted).
+ *
+ * Lines are parsed straight from a (memory-mapped) ByteBuffer: numbers are
+ * decoded from the bytes without building Strings, and the repeating text
+ * fields (symbol, name, sector) come from a small cache keyed by their bytes,
+ * so a steady-state line allocates little more than its Stock.
+ * Not thread-safe; use one parser per thread.
+ */
+public class TickCsvParser {
+    public static final String HEADER = "timestamp,symbol,name,sector,price,previousClose,volume";
+
+    private static final int CACHE_SIZE = 4096;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final ZoneId zone;
+    private final String[] cachedStrings = new String[CACHE_SIZE];
+    private final byte[][] cachedBytes = new byte[CACHE_SIZE][];
+
+    // Cursor over the line being parsed
+    private ByteBuffer buffer;
+    private int cursor;
+    private int lineEnd;
+
+    // Fields of the last successfully parsed line
+    private long timestamp;
+    private String symbol;
+    private String name;
+    private String sector;
+    private double price;
+    private double previousClose;
+    private long volume;
+
+    private long malformedLines;
+
+    public TickCsvParser() {
+        this(ZoneId.systemDefault());
+    }
+
+    public TickCsvParser(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    /**
+     * Parse the line in buffer[start, end), end excluding the line terminator.
+     * Returns null for blank lines, the header and malformed lines (which are counted).
+     */
+    public Stock parse(ByteBuffer buffer, int start, int end) {
+        if (!parseLine(buffer, start, end)) {
+            return null;
+        }
+        Stock stock = new Stock(symbol, name, price, previousClose, volume, sector);
+        stock.setLastUpdated(LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), zone));
+        return stock;
+    }
+
+    /**
+     * Parse a line into this parser's fields without building a Stock.
+     * Returns false for blank lines, the header and malformed lines (which are counted).
+     */
+    public boolean parseLine(ByteBuffer buffer, int start, int end) {
+        if (start >= end || startsWith(buffer, start, end, "timestamp")) {
+            return false;
+        }
+        this.buffer = buffer;
+        this.cursor = start;
+        this.lineEnd = end;
+        try {
+            long time = nextLong();
+            String sym = nextString();
+            String nm = nextString();
+            String sec = nextString();
+            double px = nextDouble();
+            double close = nextDouble();
+            long vol = nextLong();
+            if (sym.isEmpty() || cursor <= lineEnd) {
+                throw new IllegalArgumentException("Unexpected field count");
+            }
+
+            timestamp = time;
+            symbol = sym;
+            name = nm;
+            sector = sec;
+            price = px;
+            previousClose = close;
+            volume = vol;
+            return true;
+        } catch (IllegalArgumentException e) {
+            malformedLines++;
+            return false;
+        } finally {
+            this.buffer = null;
+        }
+    }
+
+    // Timestamp (epoch millis) of the last successfully parsed line
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSector() {
+        return sector;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public double getPreviousClose() {
+        return previousClose;
+    }
+
+    public long getVolume() {
+        return volume;
+    }
+
+    public long getMalformedLines() {
+        return malformedLines;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    // One CSV line (without terminator) for a quote observed at the given time.
+    // Prices are rounded to 6 decimals so they stay on the parser's exact fast path.
+    public static String format(long timestamp, Stock stock) {
+        return format(timestamp, stock, stock.getCurrentPrice(), stock.getVolume());
+    }
+
+    // Same, with the price and volume of an earlier point of the stock
+    public static String format(long timestamp, Stock stock, double price, long volume) {
+        return timestamp + "," + quote(stock.getSymbol()) + "," + quote(stock.getName()) + ","
+                + quote(stock.getSector()) + "," + round(price) + ","
+                + round(stock.getPreviousClose()) + "," + volume;
+    }
+
+    private static double round(double price) {
+        return Math.round(price * 1e6) / 1e6;
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    // End of the unquoted field starting at the cursor
+    private int fieldEnd() {
+        if (cursor > lineEnd) {
+            throw new IllegalArgumentException("Missing field");
+        }
+        int end = cursor;
+        while (end < lineEnd && buffer.get(end) != ',') {
+            end++;
+        }
+        return end;
+    }
+
+    private long nextLong() {
+        int end = fieldEnd();
+        if (end == cursor) {
+            throw new IllegalArgumentException("Empty number");
+        }
+        int i = cursor;
+        boolean negative = buffer.get(i) == '-';
+        if (negative) {
+            i++;
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Bad digit");
+            }
+            value = Math.addExact(Math.multiplyExact(value, 10), digit);
+        }
+        cursor = end + 1;
+        return negative ? -value : value;
+    }
+
+    // Plain decimals are converted exactly from mantissa / 10^scale; anything else falls back to the JDK
+    private double nextDouble() {
+        int end = fieldEnd();
+        int i = cursor;
+        boolean negative = i < end && buffer.get(i) == '-';
+        if (negative) {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        boolean fastPath = i < end;
+        for (; i < end && fastPath; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                if (++digits > 18) {
+                    fastPath = false;
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (fraction) {
+                    scale++;
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                fastPath = false;
+            }
+        }
+
+        double value;
+        if (fastPath && digits > 0 && mantissa < MAX_EXACT_MANTISSA && scale < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[scale];
+            value = negative ? -value : value;
+        } else {
+            value = Double.parseDouble(decode(cursor, end));
+        }
+        cursor = end + 1;
+        return value;
+    }
+
+    private String nextString() {
+        if (cursor < lineEnd && buffer.get(cursor) == '"') {
+            return nextQuotedString();
+        }
+        int end = fieldEnd();
+        String value = cached(cursor, end);
+        cursor = end + 1;
+        return value;
+    }
+
+    // Quoted field with "" escapes; rare, so it is decoded without the cache
+    private String nextQuotedString() {
+        StringBuilder value = new StringBuilder();
+        int i = cursor + 1;
+        int segmentStart = i;
+        while (true) {
+            if (i >= lineEnd) {
+                throw new IllegalArgumentException("Unterminated quote");
+            }
+            if (buffer.get(i) == '"') {
+                value.append(decode(segmentStart, i));
+                if (i + 1 < lineEnd && buffer.get(i + 1) == '"') {
+                    value.append('"');
+                    i += 2;
+                    segmentStart = i;
+                    continue;
+                }
+                i++;
+                break;
+            }
+            i++;
+        }
+        if (i < lineEnd && buffer.get(i) != ',') {
+            throw new IllegalArgumentException("Text after closing quote");
+        }
+        cursor = i + 1;
+        return value.toString();
+    }
+
+    // Direct-mapped cache from field bytes to String
+    private String cached(int from, int to) {
+        int length = to - from;
+        int hash = 1;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + buffer.get(i);
+        }
+        int slot = (hash ^ (hash >>> 16)) & (CACHE_SIZE - 1);
+
+        byte[] candidate = cachedBytes[slot];
+        if (candidate != null && candidate.length == length) {
+            boolean equal = true;
+            for (int i = 0; i < length && equal; i++) {
+                equal = candidate[i] == buffer.get(from + i);
+            }
+            if (equal) {
+                return cachedStrings[slot];
+            }
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(from, bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        cachedBytes[slot] = bytes;
+        cachedStrings[slot] = value;
+        return value;
+    }
+
+    private String decode(int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int start, int end, String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buffer.get(start + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,114 @@
+package com.stocksensei.service;
+
+import com.stocksensei.model.Stock;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sequential reader over a tick file, memory-mapped one segment at a time.
+ * A line that straddles the end of a segment is re-read from the start of
+ * the next mapping, so lines only need to be shorter than a segment.
+ */
+public class TickFileReader implements AutoCloseable {
+    static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int segmentSize;
+    private final TickCsvParser parser;
+
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private int position;
+
+    public TickFileReader(Path path) throws IOException {
+        this(path, DEFAULT_SEGMENT_SIZE);
+    }
+
+    TickFileReader(Path path, int segmentSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.segmentSize = segmentSize;
+        this.parser = new TickCsvParser();
+        map(0);
+    }
+
+    // Next parsed quote, or null at end of file; blank, header and malformed lines are skipped
+    public Stock next() throws IOException {
+        while (true) {
+            if (position >= segment.limit()) {
+                long next = segmentStart + segment.limit();
+                if (next >= size) {
+                    return null;
+                }
+                map(next);
+            }
+
+            int lineEnd = indexOfNewline(position);
+            if (lineEnd < 0) {
+                if (segmentStart + segment.limit() < size) {
+                    if (position == 0) {
+                        throw new IOException("Line at offset " + segmentStart + " exceeds " + segmentSize + " bytes");
+                    }
+                    map(segmentStart + position);
+                    continue;
+                }
+                lineEnd = segment.limit(); // last line without terminator
+            }
+
+            int start = position;
+            int end = lineEnd;
+            position = lineEnd + 1;
+            if (end > start && segment.get(end - 1) == '\r') {
+                end--;
+            }
+
+            Stock stock = parser.parse(segment, start, end);
+            if (stock != null) {
+                return stock;
+            }
+        }
+    }
+
+    // Timestamp (epoch millis) of the quote last returned by next()
+    public long getTimestamp() {
+        return parser.getTimestamp();
+    }
+
+    public long getMalformedLines() {
+        return parser.getMalformedLines();
+    }
+
+    public long getBytesRead() {
+        return Math.min(size, segmentStart + position);
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void map(long start) throws IOException {
+        segmentStart = start;
+        segment = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, size - start));
+        position = 0;
+    }
+
+    private int indexOfNewline(int from) {
+        int limit = segment.limit();
+        for (int i = from; i < limit; i++) {
+            if (segment.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
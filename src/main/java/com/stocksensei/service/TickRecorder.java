@@ -0,0 +1,82 @@
+package com.stocksensei.service;
+
+import com.stocksensei.model.Stock;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+
+/**
+ * Appends every live stock update to a tick file that ReplayService can replay.
+ * Replayed ticks are not recorded again.
+ */
+@Service
+@ConditionalOnProperty(name = "stock.replay.record", havingValue = "true")
+public class TickRecorder {
+
+    @Autowired
+    private ReplayService replayService;
+
+    @Value("${stock.replay.record-file:replays/ticks.csv}")
+    private String recordFile;
+
+    private BufferedWriter writer;
+
+    @PostConstruct
+    public void open() throws IOException {
+        Path path = Paths.get(recordFile);
+        if (path.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+        boolean newFile = !Files.exists(path) || Files.size(path) == 0;
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (newFile) {
+            writer.write(TickCsvParser.HEADER);
+            writer.newLine();
+        }
+    }
+
+    @EventListener
+    public void onStockUpdate(StockUpdateEvent event) {
+        if (replayService.isReplaying()) {
+            return;
+        }
+        Stock stock = event.getCurrent();
+        long timestamp = stock.getLastUpdated() != null
+                ? stock.getLastUpdated().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : System.currentTimeMillis();
+        synchronized (this) {
+            try {
+                writer.write(TickCsvParser.format(timestamp, stock));
+                writer.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to record tick to " + recordFile, e);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public synchronized void flush() throws IOException {
+        writer.flush();
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,55 @@
+package com.stocksensei.service;
+
+/**
+ * A leaderboard row: a stock's return and high-low range over a sliding
+ * time window (e.g. "5m"), and the volume traded within it.
+ */
+public class WindowedMover {
+    private String window;
+    private String symbol;
+    private String name;
+    private String sector;
+    private double currentPrice;
+    private double changePercent;
+    private double rangePercent;
+    private long volume;
+
+    public WindowedMover() {
+    }
+
+    public WindowedMover(String window, String symbol, String name, String sector, double currentPrice,
+                         double changePercent, double rangePercent, long volume) {
+        this.window = window;
+        this.symbol = symbol;
+        this.name = name;
+        this.sector = sector;
+        this.currentPrice = currentPrice;
+        this.changePercent = changePercent;
+        this.rangePercent = rangePercent;
+        this.volume = volume;
+    }
+
+    public String getWindow() { return window; }
+    public void setWindow(String window) { this.window = window; }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getSector() { return sector; }
+    public void setSector(String sector) { this.sector = sector; }
+
+    public double getCurrentPrice() { return currentPrice; }
+    public void setCurrentPrice(double currentPrice) { this.currentPrice = currentPrice; }
+
+    public double getChangePercent() { return changePercent; }
+    public void setChangePercent(double changePercent) { this.changePercent = changePercent; }
+
+    public double getRangePercent() { return rangePercent; }
+    public void setRangePercent(double rangePercent) { this.rangePercent = rangePercent; }
+
+    public long getVolume() { return volume; }
+    public void setVolume(long volume) { this.volume = volume; }
+}
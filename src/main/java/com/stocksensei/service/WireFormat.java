@@ -0,0 +1,29 @@
+package com.stocksensei.service;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Response encodings supported by the REST and STOMP endpoints
+ */
+public enum WireFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.APPLICATION_CBOR);
+
+    private final MediaType mediaType;
+
+    WireFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    // CBOR only when the client explicitly asks for it, JSON otherwise
+    public static WireFormat fromAccept(String accept) {
+        if (accept != null && accept.contains(MediaType.APPLICATION_CBOR_VALUE)) {
+            return CBOR;
+        }
+        return JSON;
+    }
+}
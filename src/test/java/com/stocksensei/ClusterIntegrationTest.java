@@ -0,0 +1,179 @@
+package com.stocksensei;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two application nodes on localhost sharing a stand-in STOMP broker.
+ */
+class ClusterIntegrationTest {
+	private static final String[] SYMBOLS = {"AAPL", "GOOGL", "MSFT", "AMZN", "TSLA", "META", "NVDA", "JPM", "BAC", "V"};
+
+	private static StompBrokerStub broker;
+	private static final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+	private static final List<String> urls = new ArrayList<>();
+
+	private final HttpClient http = HttpClient.newHttpClient();
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	@BeforeAll
+	static void startCluster() throws IOException {
+		broker = new StompBrokerStub();
+		int[] ports = {freePort(), freePort()};
+		for (int port : ports) {
+			urls.add("http://localhost:" + port);
+		}
+		for (int i = 0; i < ports.length; i++) {
+			// Command-line arguments, so they override application.properties
+			nodes.add(new SpringApplicationBuilder(StockSenseiApplication.class).run(
+					"--server.port=" + ports[i],
+					"--stock.simulator.enabled=false",
+					"--stock.graph.correlation.enabled=false",
+					"--stock.cluster.enabled=true",
+					"--stock.cluster.node-index=" + i,
+					"--stock.cluster.nodes=" + String.join(",", urls),
+					"--stock.cluster.broker.port=" + broker.getPort(),
+					"--logging.level.com.stocksensei=INFO"));
+		}
+	}
+
+	@AfterAll
+	static void stopCluster() throws IOException {
+		nodes.forEach(ConfigurableApplicationContext::close);
+		broker.close();
+	}
+
+	@Test
+	void partitionsIngestAndMergesGlobalQueries() throws Exception {
+		// Everything is posted to node 0; symbols owned by node 1 are forwarded
+		Map<String, Double> prices = new HashMap<>();
+		for (int i = 0; i < SYMBOLS.length; i++) {
+			double price = 100 + i * 7.5;
+			prices.put(SYMBOLS[i], price);
+			post(urls.get(0), "/api/stocks", stockJson(SYMBOLS[i], price, i % 2 == 0 ? price - 5 : price + 5));
+		}
+
+		Set<String> seen = new HashSet<>();
+		for (int node = 0; node < 2; node++) {
+			for (JsonNode stock : get(urls.get(node), "/api/cluster/partition/stocks")) {
+				String symbol = stock.get("symbol").asText();
+				assertEquals(Math.floorMod(symbol.hashCode(), 2), node, symbol + " stored on the wrong node");
+				assertTrue(seen.add(symbol));
+			}
+		}
+		assertEquals(prices.keySet(), seen);
+
+		JsonNode summary = get(urls.get(1), "/api/stocks/summary");
+		assertEquals(SYMBOLS.length, summary.get("totalStocks").asInt());
+		assertEquals(SYMBOLS.length / 2, summary.get("gainers").asInt());
+
+		List<String> expectedTop = prices.entrySet().stream()
+				.sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+				.limit(3).map(Map.Entry::getKey).toList();
+		List<String> top = new ArrayList<>();
+		get(urls.get(1), "/api/stocks/top?criterion=price&k=3").forEach(s -> top.add(s.get("symbol").asText()));
+		assertEquals(expectedTop, top);
+
+		// Reads forwarded to the owner keep reserved characters of the symbol
+		String symbol = "BRK#B";
+		post(urls.get(0), "/api/stocks", stockJson(symbol, 300, 290));
+		int other = 1 - Math.floorMod(symbol.hashCode(), 2);
+		JsonNode history = get(urls.get(other), "/api/stocks/BRK%23B/history?limit=5");
+		assertEquals(1, history.size());
+		assertEquals(300, history.get(0).get("price").asDouble(), 1e-9);
+	}
+
+	@Test
+	void fansOutUpdatesAcrossNodesThroughTheBroker() throws Exception {
+		// Subscriber on node 1, update for a symbol owned by node 0
+		String symbol = Arrays.stream(SYMBOLS).filter(s -> Math.floorMod(s.hashCode(), 2) == 0).findFirst().orElseThrow();
+
+		ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+		scheduler.initialize();
+		WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+		client.setTaskScheduler(scheduler);
+		StompSession session = client.connectAsync(urls.get(1).replace("http", "ws") + "/ws-stocks-raw",
+				new StompSessionHandlerAdapter() { }).get(10, TimeUnit.SECONDS);
+		session.setAutoReceipt(true);
+
+		BlockingQueue<String> received = new LinkedBlockingQueue<>();
+		CountDownLatch subscribed = new CountDownLatch(1);
+		session.subscribe("/topic/stocks", new StompFrameHandler() {
+			@Override
+			public Type getPayloadType(StompHeaders headers) {
+				return byte[].class;
+			}
+
+			@Override
+			public void handleFrame(StompHeaders headers, Object payload) {
+				received.add(new String((byte[]) payload, StandardCharsets.UTF_8));
+			}
+		}).addReceiptTask(subscribed::countDown);
+		assertTrue(subscribed.await(10, TimeUnit.SECONDS));
+
+		// Node 0's relay may still be connecting; repost until an update arrives
+		String message = null;
+		for (int attempt = 0; attempt < 50 && message == null; attempt++) {
+			post(urls.get(0), "/api/stocks", stockJson(symbol, 150, 140));
+			message = received.poll(200, TimeUnit.MILLISECONDS);
+		}
+		assertNotNull(message, "no update reached node 1");
+		assertTrue(message.contains("\"symbol\":\"" + symbol + "\""));
+
+		session.disconnect();
+		scheduler.shutdown();
+	}
+
+	private String stockJson(String symbol, double price, double previousClose) {
+		return String.format(Locale.ROOT, "{\"symbol\":\"%s\",\"name\":\"%s Inc.\",\"currentPrice\":%.2f,"
+				+ "\"previousClose\":%.2f,\"volume\":1000000,\"sector\":\"Technology\"}", symbol, symbol, price, previousClose);
+	}
+
+	private void post(String base, String path, String json) throws Exception {
+		HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(base + path))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json)).build(), HttpResponse.BodyHandlers.ofString());
+		assertEquals(200, response.statusCode(), response.body());
+	}
+
+	private JsonNode get(String base, String path) throws Exception {
+		HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(base + path)).build(),
+				HttpResponse.BodyHandlers.ofString());
+		assertEquals(200, response.statusCode(), response.body());
+		return mapper.readTree(response.body());
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
@@ -0,0 +1,257 @@
+package com.stocksensei;
+
+import com.stocksensei.service.StockAnalysisService;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load test: starts the application with the simulator ticking fast, drives
+ * concurrent HTTP clients against the REST API and STOMP subscribers on the
+ * SockJS endpoint, and prints per interval: request throughput and latency,
+ * update deliveries and ingest-to-subscriber latency, GC count and pause time,
+ * and heap usage. Fails on request errors, silent subscribers, ranking heaps
+ * holding more entries than there are stocks, or heap growth (after a full
+ * GC, from the end of the warm-up to the end of the run) above the limit.
+ *
+ * Tagged 'load' and excluded from the default build; run with
+ *   mvn -Pload-test test
+ *   mvn -Pload-test test -Dloadtest.clients=64 -Dloadtest.subscribers=200 -Dloadtest.seconds=300 \
+ *       -Dloadtest.tick-interval=20 -Dloadtest.max-heap-growth-mb=32
+ */
+@Tag("load")
+class LoadTest {
+	private static final Pattern INGEST_NANOS = Pattern.compile("\"ingestNanos\":(\\d+)");
+	private static final String[] ENDPOINTS = {
+			"/api/stocks", "/api/stocks/top?criterion=priceChange&k=10", "/api/stocks/top?criterion=volume&k=5&window=1m",
+			"/api/stocks/summary", "/api/stocks/sectors/performance", "/api/stocks/sectors/performance?window=5m",
+			"/api/stocks/sorted?criterion=volatility", "/api/stocks/search?query=A", "/api/stocks/AAPL/history?limit=100"};
+
+	private final int clients = Integer.getInteger("loadtest.clients", 16);
+	private final int subscribers = Integer.getInteger("loadtest.subscribers", 20);
+	private final int seconds = Integer.getInteger("loadtest.seconds", 60);
+	private final int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 10);
+	private final int reportSeconds = Integer.getInteger("loadtest.report-interval", 5);
+	private final int tickInterval = Integer.getInteger("loadtest.tick-interval", 250);
+	private final int maxHeapGrowthMb = Integer.getInteger("loadtest.max-heap-growth-mb", 64);
+
+	private final AtomicBoolean running = new AtomicBoolean(true);
+	private final Recorder requestLatency = new Recorder(TimeUnit.SECONDS.toNanos(30), 3);
+	private final Recorder deliveryLatency = new Recorder(TimeUnit.SECONDS.toNanos(30), 3);
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong errors = new AtomicLong();
+	private final AtomicLong deliveries = new AtomicLong();
+
+	@Test
+	void sustainsRestAndWebSocketLoadWithBoundedHeap() throws Exception {
+		// Command-line arguments, so they override application.properties.
+		// Admission control is off: every client comes from localhost and would share one rate limit.
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(StockSenseiApplication.class).run(
+				"--server.port=0",
+				"--stock.simulator.update-interval=" + tickInterval,
+				"--stock.admission.enabled=false",
+				"--logging.level.com.stocksensei=INFO")) {
+			String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+			run(base, context.getBean(StockAnalysisService.class));
+		}
+	}
+
+	private void run(String base, StockAnalysisService analysisService) throws Exception {
+		WebSocketStompClient stompClient = new WebSocketStompClient(
+				new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+		List<StompSession> sessions = new ArrayList<>();
+		AtomicLong[] received = new AtomicLong[subscribers];
+		for (int i = 0; i < subscribers; i++) {
+			received[i] = new AtomicLong();
+			sessions.add(subscribe(stompClient, base + "/ws-stocks", received[i]));
+		}
+
+		HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < clients; i++) {
+			int offset = i;
+			Thread thread = new Thread(() -> drive(http, base, offset), "load-client-" + i);
+			thread.start();
+			threads.add(thread);
+		}
+
+		Thread.sleep(TimeUnit.SECONDS.toMillis(warmupSeconds));
+		long baselineHeap = heapAfterFullGc();
+		resetCounters();
+		System.out.printf("load test: %d clients, %d subscribers, tick every %d ms, %d s; heap after warm-up %.1f MB%n",
+				clients, subscribers, tickInterval, seconds, mb(baselineHeap));
+		System.out.println("   time   req/s  p50 ms  p99 ms  max ms  errors  deliv/s  deliv p99 ms  gc  gc ms  heap MB  old after gc MB");
+
+		long totalRequests = 0;
+		long[] gcBefore = gcTotals();
+		long start = System.nanoTime();
+		for (int elapsed = reportSeconds; elapsed <= seconds; elapsed += reportSeconds) {
+			Thread.sleep(Math.max(0, start + TimeUnit.SECONDS.toNanos(elapsed) - System.nanoTime()) / 1_000_000);
+			Histogram latency = requestLatency.getIntervalHistogram();
+			Histogram delivery = deliveryLatency.getIntervalHistogram();
+			long[] gc = gcTotals();
+			long intervalRequests = requests.getAndSet(0);
+			totalRequests += intervalRequests;
+			System.out.printf("%6ds %7.0f %7.2f %7.2f %7.2f %7d %8.0f %13.2f %3d %6d %8.1f %16.1f%n",
+					elapsed, (double) intervalRequests / reportSeconds,
+					millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+					millis(latency.getMaxValue()), errors.get(),
+					(double) deliveries.getAndSet(0) / reportSeconds, millis(delivery.getValueAtPercentile(99)),
+					gc[0] - gcBefore[0], gc[1] - gcBefore[1], mb(heapUsed()), mb(oldGenAfterGc()));
+			gcBefore = gc;
+		}
+
+		running.set(false);
+		for (Thread thread : threads) {
+			thread.join(TimeUnit.SECONDS.toMillis(30));
+		}
+		long endHeap = heapAfterFullGc();
+		System.out.printf("%d requests, heap after full GC: %.1f MB -> %.1f MB%n",
+				totalRequests, mb(baselineHeap), mb(endHeap));
+
+		assertEquals(0, errors.get(), "failed requests");
+		assertTrue(totalRequests > 0, "no requests completed");
+		for (int i = 0; i < subscribers; i++) {
+			assertTrue(received[i].get() > 0, "subscriber " + i + " received no updates");
+		}
+		// Updates replace entries in the ranking heaps; they never hold more than one per stock
+		int stocks = analysisService.getAllStocks().size();
+		for (String criterion : new String[]{"priceChange", "volume", "volatility"}) {
+			assertEquals(stocks, analysisService.getTopStocks(criterion, Integer.MAX_VALUE).size(), criterion);
+		}
+		assertTrue(endHeap - baselineHeap < maxHeapGrowthMb * 1024L * 1024L,
+				String.format("heap grew by %.1f MB", mb(endHeap - baselineHeap)));
+
+		sessions.forEach(StompSession::disconnect);
+	}
+
+	// Round-robin over the read endpoints until the run ends
+	private void drive(HttpClient http, String base, int offset) {
+		List<HttpRequest> requestList = new ArrayList<>();
+		for (String endpoint : ENDPOINTS) {
+			requestList.add(HttpRequest.newBuilder(URI.create(base + endpoint)).timeout(Duration.ofSeconds(30)).build());
+		}
+		for (int i = offset; running.get(); i++) {
+			long start = System.nanoTime();
+			try {
+				HttpResponse<byte[]> response = http.send(requestList.get(i % requestList.size()),
+						HttpResponse.BodyHandlers.ofByteArray());
+				if (response.statusCode() != 200) {
+					errors.incrementAndGet();
+				}
+			} catch (Exception e) {
+				errors.incrementAndGet();
+			}
+			requestLatency.recordValue(Math.min(System.nanoTime() - start, TimeUnit.SECONDS.toNanos(30)));
+			requests.incrementAndGet();
+		}
+	}
+
+	private StompSession subscribe(WebSocketStompClient stompClient, String url, AtomicLong received) throws Exception {
+		StompSession session = stompClient.connectAsync(url, new StompSessionHandlerAdapter() { })
+				.get(10, TimeUnit.SECONDS);
+		session.subscribe("/topic/stocks", new StompFrameHandler() {
+			@Override
+			public Type getPayloadType(StompHeaders headers) {
+				return byte[].class;
+			}
+
+			@Override
+			public void handleFrame(StompHeaders headers, Object payload) {
+				received.incrementAndGet();
+				deliveries.incrementAndGet();
+				// Same JVM, so the server's ingest timestamp is comparable with ours
+				Matcher matcher = INGEST_NANOS.matcher(new String((byte[]) payload, StandardCharsets.UTF_8));
+				if (matcher.find()) {
+					long elapsed = System.nanoTime() - Long.parseLong(matcher.group(1));
+					if (elapsed >= 0 && elapsed <= TimeUnit.SECONDS.toNanos(30)) {
+						deliveryLatency.recordValue(elapsed);
+					}
+				}
+			}
+		});
+		return session;
+	}
+
+	private void resetCounters() {
+		requestLatency.reset();
+		deliveryLatency.reset();
+		requests.set(0);
+		errors.set(0);
+		deliveries.set(0);
+	}
+
+	// Collections and accumulated collection time (ms) over all collectors
+	private static long[] gcTotals() {
+		long[] totals = new long[2];
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			totals[0] += Math.max(0, gc.getCollectionCount());
+			totals[1] += Math.max(0, gc.getCollectionTime());
+		}
+		return totals;
+	}
+
+	private static long heapUsed() {
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	// Old generation usage right after its last collection: the live-set trend without forcing a GC
+	private static long oldGenAfterGc() {
+		long used = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			MemoryUsage usage = pool.getCollectionUsage();
+			if (pool.getType() == MemoryType.HEAP && usage != null
+					&& (pool.getName().contains("Old") || pool.getName().contains("Tenured"))) {
+				used += usage.getUsed();
+			}
+		}
+		return used;
+	}
+
+	private static long heapAfterFullGc() throws InterruptedException {
+		System.gc();
+		Thread.sleep(200);
+		return heapUsed();
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1e6;
+	}
+
+	private static double mb(long bytes) {
+		return bytes / (1024.0 * 1024.0);
+	}
+}
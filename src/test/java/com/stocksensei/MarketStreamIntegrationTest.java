@@ -0,0 +1,162 @@
+package com.stocksensei;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stocksensei.model.Stock;
+import com.stocksensei.service.MarketStreamService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Server-Sent Events on /api/stocks/stream and the per-symbol conflation behind it.
+ */
+class MarketStreamIntegrationTest {
+	private static ConfigurableApplicationContext context;
+	private static String base;
+	private static MarketStreamService streams;
+
+	private final HttpClient http = HttpClient.newHttpClient();
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	@BeforeAll
+	static void start() {
+		// Command-line arguments, so they override application.properties
+		context = new SpringApplicationBuilder(StockSenseiApplication.class).run(
+				"--server.port=0",
+				"--stock.simulator.enabled=false",
+				"--stock.graph.correlation.enabled=false",
+				"--stock.stream.heartbeat-interval=200",
+				"--logging.level.com.stocksensei=INFO");
+		base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+		streams = context.getBean(MarketStreamService.class);
+	}
+
+	@AfterAll
+	static void stop() {
+		context.close();
+	}
+
+	@Test
+	void slowSubscriberGetsOnlyTheLatestUpdatePerSymbol() throws Exception {
+		List<Stock> received = Collections.synchronizedList(new ArrayList<>());
+		BaseSubscriber<Stock> subscriber = new BaseSubscriber<>() {
+			@Override
+			protected void hookOnSubscribe(Subscription subscription) {
+				// No demand until the updates below are all published
+			}
+
+			@Override
+			protected void hookOnNext(Stock stock) {
+				received.add(stock);
+			}
+		};
+		streams.stream(Set.of("AAPL", "MSFT"), null).subscribe(subscriber);
+
+		post("AAPL", 150);
+		post("MSFT", 300);
+		post("AAPL", 151);
+		post("TSLA", 200);
+		post("AAPL", 152);
+		post("MSFT", 301);
+		assertTrue(received.isEmpty());
+
+		// Per symbol: the update flatMap had already prefetched, then the latest; 151 is skipped
+		subscriber.request(10);
+		awaitCount(received::size, 4);
+		Map<String, List<Double>> prices = new HashMap<>();
+		received.forEach(stock -> prices.computeIfAbsent(stock.getSymbol(), s -> new ArrayList<>())
+				.add(stock.getCurrentPrice()));
+		assertEquals(Map.of("AAPL", List.of(150.0, 152.0), "MSFT", List.of(300.0, 301.0)), prices);
+
+		// Later updates flow again as demand allows
+		post("MSFT", 302);
+		awaitCount(received::size, 5);
+		assertEquals(302.0, received.get(4).getCurrentPrice());
+
+		subscriber.dispose();
+	}
+
+	@Test
+	void streamSendsHeartbeatsAndUpdatesUntilTheClientLeaves() throws Exception {
+		int before = streams.getSubscriberCount();
+		HttpResponse<Stream<String>> response = http.send(
+				HttpRequest.newBuilder(URI.create(base + "/api/stocks/stream?symbols=NVDA")).build(),
+				HttpResponse.BodyHandlers.ofLines());
+		assertEquals(200, response.statusCode());
+		assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/event-stream"));
+
+		BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+		Thread reader = new Thread(() -> {
+			try {
+				response.body().forEach(lines::add);
+			} catch (RuntimeException e) {
+				// Closed by the test
+			}
+		});
+		reader.setDaemon(true);
+		reader.start();
+
+		assertNotNull(next(lines, line -> line.startsWith(":heartbeat")), "no heartbeat");
+		awaitCount(streams::getSubscriberCount, before + 1);
+
+		post("AMD", 120);
+		post("NVDA", 480);
+		String data = next(lines, line -> line.startsWith("data:"));
+		assertNotNull(data, "no update");
+		JsonNode stock = mapper.readTree(data.substring("data:".length()));
+		assertEquals("NVDA", stock.get("symbol").asText());
+
+		// Closing the connection cancels the server-side subscription
+		response.body().close();
+		awaitCount(streams::getSubscriberCount, before);
+	}
+
+	private void post(String symbol, double price) throws Exception {
+		String json = String.format(Locale.ROOT, "{\"symbol\":\"%s\",\"name\":\"%s Inc.\",\"currentPrice\":%.2f,"
+				+ "\"previousClose\":%.2f,\"volume\":1000000,\"sector\":\"Technology\"}", symbol, symbol, price, price - 1);
+		HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(base + "/api/stocks"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json)).build(), HttpResponse.BodyHandlers.ofString());
+		assertEquals(200, response.statusCode(), response.body());
+	}
+
+	// First line matching within 10 seconds, skipping the others; null if none
+	private static String next(BlockingQueue<String> lines, Predicate<String> matches)
+			throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		for (long left; (left = deadline - System.nanoTime()) > 0; ) {
+			String line = lines.poll(left, TimeUnit.NANOSECONDS);
+			if (line != null && matches.test(line)) {
+				return line;
+			}
+		}
+		return null;
+	}
+
+	private static void awaitCount(IntSupplier count, int expected) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (count.getAsInt() != expected && System.nanoTime() < deadline) {
+			Thread.sleep(20);
+		}
+		assertEquals(expected, count.getAsInt());
+	}
+}
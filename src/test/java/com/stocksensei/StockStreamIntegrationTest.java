@@ -0,0 +1,111 @@
+package com.stocksensei;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Snapshot-then-updates handshake on /topic/stocks.
+ */
+class StockStreamIntegrationTest {
+	private static ConfigurableApplicationContext context;
+	private static String base;
+
+	private final HttpClient http = HttpClient.newHttpClient();
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	@BeforeAll
+	static void start() {
+		// Command-line arguments, so they override application.properties
+		context = new SpringApplicationBuilder(StockSenseiApplication.class).run(
+				"--server.port=0",
+				"--stock.simulator.enabled=false",
+				"--stock.graph.correlation.enabled=false",
+				"--logging.level.com.stocksensei=INFO");
+		base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+	}
+
+	@AfterAll
+	static void stop() {
+		context.close();
+	}
+
+	@Test
+	void subscriberGetsSnapshotThenOnlyNewerUpdates() throws Exception {
+		post("AAPL", 150);
+		post("MSFT", 300);
+
+		WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+		StompSession session = client.connectAsync(base.replace("http", "ws") + "/ws-stocks-raw",
+				new StompSessionHandlerAdapter() { }).get(10, TimeUnit.SECONDS);
+
+		BlockingQueue<JsonNode> snapshots = new LinkedBlockingQueue<>();
+		BlockingQueue<JsonNode> updates = new LinkedBlockingQueue<>();
+		session.subscribe("/user/queue/snapshot", handler(snapshots));
+		session.subscribe("/topic/stocks", handler(updates));
+
+		JsonNode snapshot = snapshots.poll(10, TimeUnit.SECONDS);
+		assertNotNull(snapshot, "no snapshot");
+		assertEquals(2, snapshot.get("stocks").size());
+		long version = snapshot.get("version").asLong();
+		assertTrue(version >= 2);
+		assertTrue(updates.isEmpty(), "updates already in the snapshot were delivered");
+
+		post("AAPL", 151);
+		JsonNode update = updates.poll(10, TimeUnit.SECONDS);
+		assertNotNull(update, "no update after the snapshot");
+		assertEquals("AAPL", update.get("symbol").asText());
+		assertTrue(update.get("sequence").asLong() > version);
+
+		session.disconnect();
+	}
+
+	private StompFrameHandler handler(BlockingQueue<JsonNode> received) {
+		return new StompFrameHandler() {
+			@Override
+			public Type getPayloadType(StompHeaders headers) {
+				return byte[].class;
+			}
+
+			@Override
+			public void handleFrame(StompHeaders headers, Object payload) {
+				try {
+					received.add(mapper.readTree((byte[]) payload));
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+	}
+
+	private void post(String symbol, double price) throws Exception {
+		String json = String.format(Locale.ROOT, "{\"symbol\":\"%s\",\"name\":\"%s Inc.\",\"currentPrice\":%.2f,"
+				+ "\"previousClose\":%.2f,\"volume\":1000000,\"sector\":\"Technology\"}", symbol, symbol, price, price - 1);
+		HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(base + "/api/stocks"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json)).build(), HttpResponse.BodyHandlers.ofString());
+		assertEquals(200, response.statusCode(), response.body());
+	}
+}
@@ -0,0 +1,198 @@
+package com.stocksensei;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal STOMP 1.2 broker over TCP, standing in for RabbitMQ/ActiveMQ in
+ * cluster tests. Supports CONNECT, SUBSCRIBE, UNSUBSCRIBE, SEND, DISCONNECT
+ * and receipts; destinations are matched exactly and there are no heartbeats.
+ */
+class StompBrokerStub implements AutoCloseable {
+	private final ServerSocket serverSocket;
+	private final Map<String, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+	private final AtomicLong messageIds = new AtomicLong();
+	private final AtomicLong sent = new AtomicLong();
+
+	StompBrokerStub() throws IOException {
+		serverSocket = new ServerSocket(0);
+		Thread acceptor = new Thread(this::acceptLoop, "stomp-stub-acceptor");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	// Number of SEND frames received from any connection
+	long getSentCount() {
+		return sent.get();
+	}
+
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+	}
+
+	private void acceptLoop() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Connection connection = new Connection(serverSocket.accept());
+				Thread reader = new Thread(connection::readLoop, "stomp-stub-connection");
+				reader.setDaemon(true);
+				reader.start();
+			} catch (IOException e) {
+				return;
+			}
+		}
+	}
+
+	private void publish(Map<String, String> headers, byte[] body) throws IOException {
+		String destination = headers.get("destination");
+		for (Subscription subscription : subscriptions.getOrDefault(destination, List.of())) {
+			Map<String, String> out = new LinkedHashMap<>();
+			out.put("destination", destination);
+			out.put("subscription", subscription.id);
+			out.put("message-id", String.valueOf(messageIds.incrementAndGet()));
+			if (headers.containsKey("content-type")) {
+				out.put("content-type", headers.get("content-type"));
+			}
+			subscription.connection.write("MESSAGE", out, body);
+		}
+	}
+
+	private static class Subscription {
+		final Connection connection;
+		final String id;
+
+		Subscription(Connection connection, String id) {
+			this.connection = connection;
+			this.id = id;
+		}
+	}
+
+	private class Connection {
+		private final Socket socket;
+		private final OutputStream out;
+
+		Connection(Socket socket) throws IOException {
+			this.socket = socket;
+			this.out = socket.getOutputStream();
+		}
+
+		void readLoop() {
+			try (Socket s = socket) {
+				InputStream in = new BufferedInputStream(s.getInputStream());
+				while (true) {
+					String command = readLine(in);
+					if (command == null) {
+						return;
+					}
+					if (command.isEmpty()) {
+						continue; // heartbeat
+					}
+					Map<String, String> headers = new LinkedHashMap<>();
+					String line;
+					while ((line = readLine(in)) != null && !line.isEmpty()) {
+						int colon = line.indexOf(':');
+						headers.putIfAbsent(line.substring(0, colon), line.substring(colon + 1));
+					}
+					byte[] body = readBody(in, headers.get("content-length"));
+					if (!handle(command, headers, body)) {
+						return;
+					}
+				}
+			} catch (IOException e) {
+				// Connection dropped
+			} finally {
+				subscriptions.values().forEach(list -> list.removeIf(sub -> sub.connection == this));
+			}
+		}
+
+		private boolean handle(String command, Map<String, String> headers, byte[] body) throws IOException {
+			switch (command) {
+				case "CONNECT":
+				case "STOMP":
+					write("CONNECTED", Map.of("version", "1.2", "heart-beat", "0,0"), new byte[0]);
+					break;
+				case "SUBSCRIBE":
+					subscriptions.computeIfAbsent(headers.get("destination"), d -> new CopyOnWriteArrayList<>())
+							.add(new Subscription(this, headers.get("id")));
+					break;
+				case "UNSUBSCRIBE":
+					subscriptions.values().forEach(list ->
+							list.removeIf(sub -> sub.connection == this && sub.id.equals(headers.get("id"))));
+					break;
+				case "SEND":
+					sent.incrementAndGet();
+					publish(headers, body);
+					break;
+				case "DISCONNECT":
+					receipt(headers);
+					return false;
+				default:
+					break;
+			}
+			receipt(headers);
+			return true;
+		}
+
+		private void receipt(Map<String, String> headers) throws IOException {
+			if (headers.containsKey("receipt")) {
+				write("RECEIPT", Map.of("receipt-id", headers.get("receipt")), new byte[0]);
+			}
+		}
+
+		synchronized void write(String command, Map<String, String> headers, byte[] body) throws IOException {
+			StringBuilder frame = new StringBuilder(command).append('\n');
+			headers.forEach((name, value) -> frame.append(name).append(':').append(value).append('\n'));
+			frame.append("content-length:").append(body.length).append("\n\n");
+			out.write(frame.toString().getBytes(StandardCharsets.UTF_8));
+			out.write(body);
+			out.write(0);
+			out.flush();
+		}
+	}
+
+	private static String readLine(InputStream in) throws IOException {
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		int b;
+		while ((b = in.read()) != '\n') {
+			if (b == -1) {
+				return null;
+			}
+			// A NUL between frames is padding from the previous frame
+			if (b != '\r' && b != 0) {
+				line.write(b);
+			}
+		}
+		return line.toString(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] readBody(InputStream in, String contentLength) throws IOException {
+		if (contentLength != null) {
+			byte[] body = in.readNBytes(Integer.parseInt(contentLength));
+			in.read(); // terminating NUL
+			return body;
+		}
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		int b;
+		while ((b = in.read()) > 0) {
+			body.write(b);
+		}
+		return body.toByteArray();
+	}
+}
@@ -0,0 +1,85 @@
+package com.stocksensei.benchmark;
+
+import com.stocksensei.model.Stock;
+import com.stocksensei.service.ParallelTickLoader;
+import com.stocksensei.service.TickCsvParser;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures the bulk historical loader on a generated tick file.
+ *
+ * Writes a file of the requested size (500 symbols random-walking, one
+ * quote per line) and loads it with 1 thread and with every available core,
+ * reporting MB/s and ticks/s per run. The loader's target is 1 GB in under
+ * 10 seconds on 8 cores.
+ *
+ * Usage (file size in MB, default 512):
+ *   mvn -Pbenchmark test-compile exec:java \
+ *       -Dbenchmark.class=com.stocksensei.benchmark.BulkLoadBenchmark \
+ *       -Dbenchmark.args="1024"
+ */
+public class BulkLoadBenchmark {
+    private static final int SYMBOLS = 500;
+    private static final int RUNS = 3;
+    private static final int HISTORY_LIMIT = 4096;
+
+    public static void main(String[] args) throws Exception {
+        long megabytes = args.length > 0 ? Long.parseLong(args[0]) : 512;
+        Path file = Files.createTempFile("ticks", ".csv");
+        try {
+            long lines = generate(file, megabytes * 1024 * 1024);
+            System.out.printf("Generated %d MB, %d lines%n", Files.size(file) / (1024 * 1024), lines);
+
+            int cores = Runtime.getRuntime().availableProcessors();
+            for (int threads : cores > 1 ? new int[]{1, cores} : new int[]{1}) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                ParallelTickLoader loader = new ParallelTickLoader(pool, HISTORY_LIMIT, symbol -> true);
+                for (int run = 0; run < RUNS; run++) {
+                    long start = System.nanoTime();
+                    ParallelTickLoader.Result result = loader.load(file);
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    System.out.printf("threads=%d run=%d %.2f s  %.0f MB/s  %.1f M ticks/s  (%d chunks, %d symbols)%n",
+                            threads, run, seconds, result.getBytes() / seconds / (1024 * 1024),
+                            result.getTicks() / seconds / 1e6, result.getChunks(), result.getSymbolCount());
+                }
+                pool.shutdown();
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static long generate(Path file, long bytes) throws Exception {
+        Random random = new Random(42);
+        Stock[] stocks = new Stock[SYMBOLS];
+        for (int i = 0; i < SYMBOLS; i++) {
+            double price = 20 + random.nextDouble() * 500;
+            stocks[i] = new Stock("SYM" + i, "Company " + i + " Inc.", price, price, 0, "Sector" + i % 11);
+        }
+
+        long lines = 0;
+        long written = 0;
+        long timestamp = 1_700_000_000_000L;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(TickCsvParser.HEADER);
+            writer.newLine();
+            while (written < bytes) {
+                Stock stock = stocks[random.nextInt(SYMBOLS)];
+                stock.setCurrentPrice(Math.max(1, stock.getCurrentPrice() * (1 + (random.nextDouble() - 0.5) / 100)));
+                stock.setVolume(random.nextInt(1_000_000));
+                String line = TickCsvParser.format(timestamp++, stock);
+                writer.write(line);
+                writer.newLine();
+                written += line.length() + 1;
+                lines++;
+            }
+        }
+        return lines;
+    }
+}
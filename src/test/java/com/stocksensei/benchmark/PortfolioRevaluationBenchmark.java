@@ -0,0 +1,76 @@
+package com.stocksensei.benchmark;
+
+import com.stocksensei.model.Portfolio;
+import com.stocksensei.model.Position;
+import com.stocksensei.model.Stock;
+import com.stocksensei.service.PortfolioEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures incremental portfolio revaluation against the simulator's tick.
+ *
+ * Registers N portfolios of P positions over S symbols, then applies full
+ * market rounds (one quote per symbol, like one simulator tick) and reports
+ * the time per round, which has to stay well inside the 3 s tick interval,
+ * plus the time to collect the changed valuations for publishing.
+ *
+ * Usage (portfolios, positions per portfolio, symbols):
+ *   mvn -Pbenchmark test-compile exec:java \
+ *       -Dbenchmark.class=com.stocksensei.benchmark.PortfolioRevaluationBenchmark \
+ *       -Dbenchmark.args="50000 10 20"
+ */
+public class PortfolioRevaluationBenchmark {
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int ROUNDS = 50;
+
+    public static void main(String[] args) {
+        int portfolios = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int positions = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int symbols = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        Random random = new Random(42);
+        PortfolioEngine engine = new PortfolioEngine();
+        for (int p = 0; p < portfolios; p++) {
+            List<Position> holdings = new ArrayList<>();
+            for (int i = 0; i < positions; i++) {
+                // Consecutive symbols starting at p, so no duplicates
+                String symbol = "SYM" + (p + i) % symbols;
+                holdings.add(new Position(symbol, 1 + random.nextInt(500), 10 + random.nextInt(500)));
+            }
+            engine.createPortfolio(new Portfolio("user" + p % 1000, "portfolio " + p, holdings));
+        }
+
+        double[] prices = new double[symbols];
+        for (int s = 0; s < symbols; s++) {
+            prices[s] = 20 + random.nextDouble() * 500;
+        }
+
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            if (round == WARMUP_ROUNDS) {
+                System.out.printf("%d portfolios x %d positions over %d symbols%n", portfolios, positions, symbols);
+            }
+            List<Stock> quotes = new ArrayList<>(symbols);
+            for (int s = 0; s < symbols; s++) {
+                prices[s] *= 1 + (random.nextDouble() - 0.5) / 50;
+                quotes.add(new Stock("SYM" + s, "Company " + s, prices[s], 100, 1000, "Sector" + s % 5));
+            }
+
+            long start = System.nanoTime();
+            long revalued = 0;
+            for (Stock quote : quotes) {
+                revalued += engine.revalue(quote);
+            }
+            long applied = System.nanoTime();
+            int changed = engine.drainChanges().size();
+            long drained = System.nanoTime();
+
+            if (round >= WARMUP_ROUNDS && (round - WARMUP_ROUNDS) % 10 == 0) {
+                System.out.printf("round %2d: %d positions revalued in %.2f ms, %d valuations collected in %.2f ms%n",
+                        round - WARMUP_ROUNDS, revalued, (applied - start) / 1e6, changed, (drained - applied) / 1e6);
+            }
+        }
+    }
+}
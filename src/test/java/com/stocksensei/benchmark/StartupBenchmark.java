@@ -0,0 +1,146 @@
+package com.stocksensei.benchmark;
+
+import com.stocksensei.StockSenseiApplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup time: launches the application in a fresh JVM and measures the
+ * time from process start to the first /api/stocks response that contains
+ * stocks. Each run is stopped gracefully, so with the 'fast' profile the
+ * next run warm-starts from the snapshot the previous one wrote
+ * (target/startup-benchmark/market.csv).
+ *
+ * Arguments: runs, then options passed to the child: -X / -D options go to
+ * the JVM, --jar=path runs a jar (e.g. the -Pfast-start build) from its own
+ * directory instead of the test classpath, anything else is an application
+ * argument. A CDS archive only maps when the classpath matches the training
+ * run, hence the jar's directory as working directory.
+ *
+ * Usage:
+ *   mvn -Pbenchmark test-compile exec:java \
+ *       -Dbenchmark.class=com.stocksensei.benchmark.StartupBenchmark \
+ *       -Dbenchmark.args="5"
+ *   -Dbenchmark.args="5 --spring.profiles.active=fast"
+ *   -Dbenchmark.args="5 --jar=target/fast-start/stock-sensei-app.jar -XX:SharedArchiveFile=stock-sensei.jsa
+ *                     -Dspring.aot.enabled=true --spring.profiles.active=fast"
+ */
+public class StartupBenchmark {
+    private static final long TIMEOUT_MILLIS = 120_000;
+    private static final long POLL_MILLIS = 25;
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        List<String> jvmOptions = new ArrayList<>();
+        List<String> appArguments = new ArrayList<>();
+        String jar = null;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--jar=")) {
+                jar = args[i].substring("--jar=".length());
+            } else if (args[i].startsWith("-X") || args[i].startsWith("-D")) {
+                jvmOptions.add(args[i]);
+            } else {
+                appArguments.add(args[i]);
+            }
+        }
+
+        Path logDirectory = Files.createDirectories(Paths.get("target", "startup-benchmark").toAbsolutePath());
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        long total = 0;
+        for (int run = 0; run < runs; run++) {
+            int port = freePort();
+            List<String> command = new ArrayList<>();
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(jvmOptions);
+            File directory = null;
+            if (jar != null) {
+                directory = Paths.get(jar).toAbsolutePath().getParent().toFile();
+                command.add("-jar");
+                command.add(Paths.get(jar).getFileName().toString());
+            } else {
+                command.add("-cp");
+                command.add(classpath());
+                command.add(StockSenseiApplication.class.getName());
+            }
+            command.add("--server.port=" + port);
+            command.add("--stock.snapshot.file=" + logDirectory.resolve("market.csv"));
+            command.addAll(appArguments);
+
+            Path log = logDirectory.resolve("run-" + run + ".log");
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command).directory(directory).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+            try {
+                long millis = awaitStocks(client, port, process, start);
+                total += millis;
+                System.out.printf("run %d: first /api/stocks with data after %d ms%n", run, millis);
+            } finally {
+                // SIGTERM: graceful shutdown, so a snapshot is written
+                process.destroy();
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+        }
+        System.out.printf("average over %d runs: %d ms (logs in %s)%n", runs, total / Math.max(1, runs), logDirectory);
+    }
+
+    private static long awaitStocks(HttpClient client, int port, Process process, long start) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/stocks"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+        while (System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS)) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue());
+            }
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 200 && response.body().startsWith("[{")) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+        throw new IllegalStateException("No stocks served within " + TIMEOUT_MILLIS + " ms");
+    }
+
+    // Classpath of the class loader exec:java runs us in (project classes and dependencies)
+    private static String classpath() throws URISyntaxException {
+        ClassLoader loader = StartupBenchmark.class.getClassLoader();
+        if (!(loader instanceof URLClassLoader)) {
+            return System.getProperty("java.class.path");
+        }
+        List<String> entries = new ArrayList<>();
+        for (URL url : ((URLClassLoader) loader).getURLs()) {
+            String entry = Paths.get(url.toURI()).toString();
+            // DevTools would restart the child on every class change and slow startup
+            if (!entry.contains("spring-boot-devtools")) {
+                entries.add(entry);
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.stocksensei.benchmark;
+
+import com.stocksensei.datastructures.SymbolDictionary;
+import com.stocksensei.model.Stock;
+import com.stocksensei.service.StockAnalysisService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures symbol interning and the id-keyed market structures.
+ *
+ * 1. Retained memory of a SymbolDictionary against a HashMap<String, Integer>
+ *    over the same symbol strings (strings excluded, they are shared).
+ * 2. Random lookup cost of both.
+ * 3. Full market rounds (one quote per symbol) through StockAnalysisService,
+ *    which updates the graph vertex, sector bitsets and the four ranking heaps
+ *    by symbol id, plus a sector query.
+ *
+ * Usage (symbols):
+ *   mvn -Pbenchmark test-compile exec:java \
+ *       -Dbenchmark.class=com.stocksensei.benchmark.SymbolIndexBenchmark \
+ *       -Dbenchmark.args="100000"
+ */
+public class SymbolIndexBenchmark {
+    private static final int COPIES = 5;
+    private static final int LOOKUPS = 10_000_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        int symbols = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        String[] names = new String[symbols];
+        for (int i = 0; i < symbols; i++) {
+            names[i] = "SYM" + i;
+            names[i].hashCode();
+        }
+
+        // Several copies of each structure, so GC noise of the host JVM averages out
+        long baseline = usedMemory();
+        List<Map<String, Integer>> maps = new ArrayList<>();
+        for (int copy = 0; copy < COPIES; copy++) {
+            Map<String, Integer> map = new HashMap<>();
+            for (int i = 0; i < symbols; i++) {
+                map.put(names[i], i);
+            }
+            maps.add(map);
+        }
+        long mapBytes = (usedMemory() - baseline) / COPIES;
+
+        baseline = usedMemory();
+        List<SymbolDictionary> dictionaries = new ArrayList<>();
+        for (int copy = 0; copy < COPIES; copy++) {
+            SymbolDictionary dictionary = new SymbolDictionary();
+            for (String name : names) {
+                dictionary.intern(name);
+            }
+            dictionaries.add(dictionary);
+        }
+        long dictionaryBytes = (usedMemory() - baseline) / COPIES;
+        System.out.printf("%d symbols: HashMap %.1f MB (%d B/symbol), SymbolDictionary %.1f MB (%d B/symbol)%n",
+                symbols, mapBytes / 1e6, mapBytes / symbols, dictionaryBytes / 1e6, dictionaryBytes / symbols);
+        Map<String, Integer> map = maps.get(0);
+        SymbolDictionary dictionary = dictionaries.get(0);
+
+        int[] queries = new int[LOOKUPS];
+        Random random = new Random(42);
+        for (int i = 0; i < LOOKUPS; i++) {
+            queries[i] = random.nextInt(symbols);
+        }
+        for (int pass = 0; pass < 3; pass++) {
+            long start = System.nanoTime();
+            long sum = 0;
+            for (int q : queries) {
+                sum += map.get(names[q]);
+            }
+            long mapNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int q : queries) {
+                sum -= dictionary.idOf(names[q]);
+            }
+            long dictionaryNanos = System.nanoTime() - start;
+            System.out.printf("lookup pass %d: HashMap %.1f ns, SymbolDictionary %.1f ns (check %d)%n",
+                    pass, (double) mapNanos / LOOKUPS, (double) dictionaryNanos / LOOKUPS, sum);
+        }
+
+        StockAnalysisService service = new StockAnalysisService();
+        double[] prices = new double[symbols];
+        for (int i = 0; i < symbols; i++) {
+            prices[i] = 20 + random.nextDouble() * 500;
+        }
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            List<Stock> quotes = new ArrayList<>(symbols);
+            for (int i = 0; i < symbols; i++) {
+                prices[i] *= 1 + (random.nextDouble() - 0.5) / 50;
+                quotes.add(new Stock(names[i], "Company " + i, prices[i], 100, 1000 + i, "Sector" + i % 11));
+            }
+
+            long start = System.nanoTime();
+            service.addOrUpdateStocks(quotes);
+            long applied = System.nanoTime();
+            int sectorSize = service.getStocksBySector("Sector3").size();
+            long queried = System.nanoTime();
+
+            if (round >= WARMUP_ROUNDS) {
+                System.out.printf("round %d: %d quotes applied in %.1f ms, sector of %d stocks in %.2f ms%n",
+                        round - WARMUP_ROUNDS, symbols, (applied - start) / 1e6, sectorSize, (queried - applied) / 1e6);
+            }
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,151 @@
+package com.stocksensei.benchmark;
+
+import com.stocksensei.StockSenseiApplication;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the platform-thread and virtual-thread configurations.
+ *
+ * Starts the application, parks a few thousand clients on the
+ * /api/stocks/updates long-poll endpoint and, while they hold connections
+ * (and, with platform threads, Tomcat workers), measures throughput and
+ * latency of ordinary GET /api/stocks/summary requests.
+ *
+ * Usage (mode is platform or virtual, virtual needs the Java 21 build):
+ *   mvn -Pbenchmark test-compile exec:java \
+ *       -Dbenchmark.class=com.stocksensei.benchmark.ThreadModelBenchmark \
+ *       -Dbenchmark.args="platform 2000 30"
+ *   mvn -Pjava21,benchmark test-compile exec:java ... -Dbenchmark.args="virtual 2000 30"
+ */
+public class ThreadModelBenchmark {
+    private static final Pattern VERSION = Pattern.compile("\"version\":(\\d+)");
+    private static final int PROBE_THREADS = 32;
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "platform";
+        int longPollClients = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(StockSenseiApplication.class);
+        if ("virtual".equals(mode)) {
+            builder.profiles("virtual");
+        }
+
+        // Command-line arguments, so they override application.properties.
+        // Admission control is off: every client comes from localhost and would share one rate limit.
+        try (ConfigurableApplicationContext context = builder.run("--server.port=0",
+                "--stock.simulator.update-interval=1000", "--stock.admission.enabled=false",
+                "--logging.level.com.stocksensei=INFO")) {
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            run(mode, base, longPollClients, seconds);
+        }
+        System.exit(0);
+    }
+
+    private static void run(String mode, String base, int longPollClients, int seconds) throws Exception {
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(8);
+        HttpClient client = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong pollResponses = new AtomicLong();
+        AtomicLong pollErrors = new AtomicLong();
+        for (int i = 0; i < longPollClients; i++) {
+            longPoll(client, base, -1, running, pollResponses, pollErrors);
+        }
+
+        // Warm up and let the long-poll clients park
+        Thread.sleep(5000);
+        pollResponses.set(0);
+
+        Histogram latency = new Histogram(TimeUnit.SECONDS.toNanos(30), 3);
+        AtomicLong requests = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        List<Thread> probes = new ArrayList<>();
+        for (int i = 0; i < PROBE_THREADS; i++) {
+            Thread probe = new Thread(() -> {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/stocks/summary"))
+                        .timeout(Duration.ofSeconds(30)).build();
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 200) {
+                            synchronized (latency) {
+                                latency.recordValue(Math.min(System.nanoTime() - start, latency.getHighestTrackableValue()));
+                            }
+                            requests.incrementAndGet();
+                        } else {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                }
+            });
+            probe.start();
+            probes.add(probe);
+        }
+        for (Thread probe : probes) {
+            probe.join();
+        }
+        running.set(false);
+
+        System.out.printf("%nmode=%s long-poll clients=%d duration=%ds java=%s%n",
+                mode, longPollClients, seconds, System.getProperty("java.version"));
+        System.out.printf("summary requests: %d (%.0f req/s), errors=%d%n",
+                requests.get(), requests.get() / (double) seconds, errors.get());
+        System.out.printf("latency ms: p50=%.2f p99=%.2f p999=%.2f max=%.2f%n",
+                latency.getValueAtPercentile(50) / 1e6, latency.getValueAtPercentile(99) / 1e6,
+                latency.getValueAtPercentile(99.9) / 1e6, latency.getMaxValue() / 1e6);
+        System.out.printf("long-poll responses delivered: %d, errors=%d%n", pollResponses.get(), pollErrors.get());
+
+        clientExecutor.shutdownNow();
+    }
+
+    // Re-issue the long-poll as soon as the previous one completes
+    private static void longPoll(HttpClient client, String base, long since, AtomicBoolean running,
+                                 AtomicLong responses, AtomicLong errors) {
+        if (!running.get()) {
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create(base + "/api/stocks/updates?timeout=20000&since=" + since))
+                .timeout(Duration.ofSeconds(60)).build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, failure) -> {
+                    long next = since;
+                    if (failure != null) {
+                        errors.incrementAndGet();
+                    } else if (response.statusCode() == 200) {
+                        responses.incrementAndGet();
+                        Matcher m = VERSION.matcher(response.body());
+                        if (m.find()) {
+                            next = Long.parseLong(m.group(1));
+                        }
+                    }
+                    longPoll(client, base, next, running, responses, errors);
+                });
+    }
+}
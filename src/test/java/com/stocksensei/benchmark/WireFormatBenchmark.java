@@ -0,0 +1,102 @@
+package com.stocksensei.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.stocksensei.model.Stock;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compares JSON and CBOR for the payloads the app actually sends:
+ * a single stock tick (STOMP /topic/stocks) and full stock lists (GET /api/stocks).
+ * Reports bytes on the wire and encode/decode time per message.
+ *
+ * Usage:
+ *   mvn -Pbenchmark test-compile exec:java \
+ *       -Dbenchmark.class=com.stocksensei.benchmark.WireFormatBenchmark
+ */
+public class WireFormatBenchmark {
+    private static final int WARMUP_ROUNDS = 3;
+    private static final long MEASURE_NANOS = 2_000_000_000L;
+
+    public static void main(String[] args) throws Exception {
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+        System.out.printf("%-14s %-5s %10s %14s %14s%n", "payload", "fmt", "bytes", "encode us/op", "decode us/op");
+        for (int size : new int[]{1, 20, 5000}) {
+            List<Stock> stocks = generate(size);
+            Object payload = size == 1 ? stocks.get(0) : stocks;
+            Class<?> type = size == 1 ? Stock.class : Stock[].class;
+            String label = size == 1 ? "single tick" : size + " stocks";
+
+            report(label, "json", json, payload, type);
+            report(label, "cbor", cbor, payload, type);
+        }
+    }
+
+    private static void report(String label, String format, ObjectMapper mapper,
+                               Object payload, Class<?> type) throws Exception {
+        byte[] bytes = mapper.writeValueAsBytes(payload);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            encode(mapper, payload);
+            decode(mapper, bytes, type);
+        }
+        double encodeMicros = encode(mapper, payload);
+        double decodeMicros = decode(mapper, bytes, type);
+
+        System.out.printf("%-14s %-5s %10d %14.2f %14.2f%n", label, format, bytes.length, encodeMicros, decodeMicros);
+    }
+
+    // Average microseconds per encode over the measurement window
+    private static double encode(ObjectMapper mapper, Object payload) throws Exception {
+        long ops = 0;
+        long sink = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            sink += mapper.writeValueAsBytes(payload).length;
+            ops++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MEASURE_NANOS);
+        if (sink == 42) {
+            System.out.print("");
+        }
+        return elapsed / 1000.0 / ops;
+    }
+
+    private static double decode(ObjectMapper mapper, byte[] bytes, Class<?> type) throws Exception {
+        long ops = 0;
+        long sink = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            sink += mapper.readValue(bytes, type).hashCode();
+            ops++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MEASURE_NANOS);
+        if (sink == 42) {
+            System.out.print("");
+        }
+        return elapsed / 1000.0 / ops;
+    }
+
+    private static List<Stock> generate(int count) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String[] sectors = {"Technology", "Finance", "Healthcare", "Energy", "Retail"};
+        List<Stock> stocks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double previousClose = random.nextDouble(10, 1000);
+            stocks.add(new Stock("SYM" + i, "Company " + i + " Inc.",
+                    previousClose * (1 + random.nextDouble(-0.05, 0.05)), previousClose,
+                    random.nextLong(100_000, 10_000_000), sectors[i % sectors.length]));
+        }
+        return stocks;
+    }
+}
@@ -0,0 +1,78 @@
+package com.stocksensei.datastructures;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandleCodecTest {
+
+	@Test
+	void roundTripsRandomWalkCandlesCompactly() {
+		Random random = new Random(11);
+		Candles candles = new Candles();
+		double price = 150.0;
+		long volume = 1_000_000;
+		for (int i = 0; i < 1000; i++) {
+			double open = price;
+			double high = open;
+			double low = open;
+			for (int tick = 0; tick < 20; tick++) {
+				price = Math.round((price + random.nextGaussian() * 0.05) * 100) / 100.0;
+				high = Math.max(high, price);
+				low = Math.min(low, price);
+			}
+			volume += random.nextInt(20_000) - 10_000;
+			// A gap in the minute candles now and then
+			long timestamp = 1_700_000_000_000L + i * 60_000L + (i % 97 == 0 ? 3_600_000L : 0);
+			candles.add(Math.max(timestamp, i > 0 ? candles.timestamp(i - 1) : 0), open, high, low, price, volume);
+		}
+
+		byte[] encoded = CandleCodec.encode(candles, 0, candles.size());
+		Candles decoded = CandleCodec.decode(ByteBuffer.wrap(encoded));
+
+		assertEquals(candles.size(), decoded.size());
+		for (int i = 0; i < candles.size(); i++) {
+			assertEquals(candles.timestamp(i), decoded.timestamp(i));
+			assertEquals(candles.open(i), decoded.open(i));
+			assertEquals(candles.high(i), decoded.high(i));
+			assertEquals(candles.low(i), decoded.low(i));
+			assertEquals(candles.close(i), decoded.close(i));
+			assertEquals(candles.volume(i), decoded.volume(i));
+		}
+		// 48 bytes per candle uncompressed; cent prices become small scaled deltas
+		assertTrue(encoded.length < candles.size() * 12, "encoded " + encoded.length + " bytes");
+	}
+
+	@Test
+	void roundTripsEdgeValuesAndReadsHeader() {
+		Candles candles = new Candles();
+		candles.add(-5_000, 0.0, Double.MAX_VALUE, -0.0, Double.NaN, 0);
+		candles.add(-5_000, 1e-300, 1e-300, Double.MIN_VALUE, 42.5, Long.MAX_VALUE);
+		candles.add(Long.MAX_VALUE / 2, -42.5, Double.POSITIVE_INFINITY, -1, 42.5, Long.MIN_VALUE);
+
+		byte[] encoded = CandleCodec.encode(candles, 1, 3);
+		CandleCodec.Header header = CandleCodec.readHeader(ByteBuffer.wrap(encoded));
+		assertEquals(2, header.count);
+		assertEquals(-5_000, header.firstTimestamp);
+		assertEquals(Long.MAX_VALUE / 2, header.lastTimestamp);
+
+		Candles decoded = CandleCodec.decode(ByteBuffer.wrap(encoded));
+		assertEquals(Double.MIN_VALUE, decoded.low(0));
+		assertEquals(Long.MAX_VALUE, decoded.volume(0));
+		assertEquals(Double.POSITIVE_INFINITY, decoded.high(1));
+		assertEquals(Long.MIN_VALUE, decoded.volume(1));
+
+		Candles single = CandleCodec.decode(ByteBuffer.wrap(CandleCodec.encode(candles, 0, 1)));
+		assertEquals(Double.MAX_VALUE, single.high(0));
+		assertEquals(Double.doubleToRawLongBits(-0.0), Double.doubleToRawLongBits(single.low(0)));
+		assertTrue(Double.isNaN(single.close(0)));
+
+		assertThrows(IllegalArgumentException.class,
+				() -> CandleCodec.decode(ByteBuffer.wrap(new byte[]{1, 2, 3})));
+		assertThrows(IllegalArgumentException.class,
+				() -> CandleCodec.decode(ByteBuffer.wrap(encoded, 0, encoded.length - 4)));
+	}
+}
@@ -0,0 +1,65 @@
+package com.stocksensei.datastructures;
+
+import com.stocksensei.model.Stock;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphAlgorithmsTest {
+
+	// Two tightly correlated triangles joined by one weak edge
+	private static GraphSnapshot twoTriangles() {
+		StockGraph graph = new StockGraph();
+		for (String s : new String[]{"A", "B", "C", "X", "Y", "Z"}) {
+			graph.addStock(new Stock(s, s, 100.0, 100.0, 1000, "Technology"));
+		}
+		String[][] strong = {{"A", "B"}, {"B", "C"}, {"A", "C"}, {"X", "Y"}, {"Y", "Z"}, {"X", "Z"}};
+		for (String[] e : strong) {
+			graph.addEdge(e[0], e[1], 0.9);
+			graph.addEdge(e[1], e[0], 0.9);
+		}
+		graph.addEdge("C", "X", 0.1);
+		graph.addEdge("X", "C", 0.1);
+		return graph.snapshot();
+	}
+
+	@Test
+	void louvainSeparatesWeaklyLinkedGroups() {
+		GraphSnapshot g = twoTriangles();
+		int[] community = GraphAlgorithms.louvain(g);
+
+		int a = g.indexOf("A"), b = g.indexOf("B"), c = g.indexOf("C"), x = g.indexOf("X"), z = g.indexOf("Z");
+		assertEquals(community[a], community[b]);
+		assertEquals(community[a], community[c]);
+		assertEquals(community[x], community[z]);
+		assertNotEquals(community[a], community[x]);
+	}
+
+	@Test
+	void shortestPathAndNearestUseCorrelationDistance() {
+		GraphSnapshot g = twoTriangles();
+		double[] length = new double[1];
+		int[] path = GraphAlgorithms.shortestPath(g, g.indexOf("A"), g.indexOf("Z"), length);
+
+		assertEquals(4, path.length);
+		assertEquals("C", g.symbol(path[1]));
+		assertEquals("X", g.symbol(path[2]));
+		double expected = 2 * GraphAlgorithms.correlationDistance(0.9) + GraphAlgorithms.correlationDistance(0.1);
+		assertEquals(expected, length[0], 1e-9);
+
+		double[] distances = new double[3];
+		int[] nearest = GraphAlgorithms.nearest(g, g.indexOf("A"), 3, distances);
+		assertEquals(3, nearest.length);
+		assertEquals("X", g.symbol(nearest[2]));
+	}
+
+	@Test
+	void pageRankSumsToOne() {
+		double[] rank = GraphAlgorithms.pageRank(twoTriangles(), 0.85, 100, 1e-12);
+		double sum = 0;
+		for (double r : rank) {
+			sum += r;
+		}
+		assertEquals(1.0, sum, 1e-9);
+	}
+}
@@ -0,0 +1,46 @@
+package com.stocksensei.datastructures;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollingSectorMetricsTest {
+
+	@Test
+	void aggregatesWindowedReturnsPerSector() {
+		RollingSectorMetrics rolling = new RollingSectorMetrics(60_000);
+		rolling.record("A", "Tech", 0, 100, 100);
+		rolling.record("B", "Tech", 0, 100, 300);
+		rolling.record("C", "Energy", 0, 50, 100);
+		rolling.record("A", "Tech", 30_000, 110, 200);
+		rolling.record("B", "Tech", 30_000, 95, 400);
+		rolling.record("C", "Energy", 30_000, 51, 200);
+
+		// Weighted by the latest volume level: A +10% on 200, B -5% on 400, C +2% on 200
+		SectorMetrics tech = rolling.getMetrics().get("Tech");
+		assertEquals(2, tech.getStockCount());
+		assertEquals(1, tech.getAdvancers());
+		assertEquals(1, tech.getDecliners());
+		assertEquals(0.0, tech.getBreadth(), 1e-9);
+		assertEquals(2.5, tech.getAvgChange(), 1e-9);
+		assertEquals(7.5, tech.getDispersion(), 1e-9);
+		assertEquals(0.0, tech.getVolumeWeightedChange(), 1e-9);
+		// Market: (10 * 200 - 5 * 400 + 2 * 200) / 800 = 0.5
+		assertEquals(-0.5, tech.getRelativeStrength(), 1e-9);
+		assertEquals(1.5, rolling.getMetrics().get("Energy").getRelativeStrength(), 1e-9);
+
+		// The t=0 samples expire: returns measured from the last price before the window
+		rolling.record("A", "Tech", 70_000, 121, 50);
+		tech = rolling.getMetrics().get("Tech");
+		assertEquals(21.0 - 5.0, tech.getTotalChange(), 1e-9);
+		assertEquals(50 + 400, tech.getTotalVolume());
+
+		// A symbol that changes sector moves its contribution; empty sectors disappear
+		rolling.record("C", "Tech", 80_000, 51, 10);
+		assertNull(rolling.getMetrics().get("Energy"));
+		assertEquals(3, rolling.getMetrics().get("Tech").getStockCount());
+
+		rolling.advance(200_000);
+		assertTrue(rolling.getMetrics().isEmpty());
+	}
+}
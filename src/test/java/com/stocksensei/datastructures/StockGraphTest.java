@@ -0,0 +1,85 @@
+package com.stocksensei.datastructures;
+
+import com.stocksensei.model.Stock;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockGraphTest {
+
+	private static Stock stock(String symbol) {
+		return new Stock(symbol, symbol, 100.0, 100.0, 1000, "Technology");
+	}
+
+	@Test
+	void relatedStocksFollowBfsLevelsAndSeeNewEdges() {
+		StockGraph graph = new StockGraph();
+		for (String s : new String[]{"A", "B", "C", "D"}) {
+			graph.addStock(stock(s));
+		}
+		graph.addEdge("A", "B", 1.0);
+		graph.addEdge("B", "C", 1.0);
+
+		assertEquals(List.of("B"), symbols(graph.findRelatedStocks("A", 2)));
+		assertEquals(List.of("B", "C"), symbols(graph.findRelatedStocks("A", 3)));
+
+		// Cached result must be invalidated by the new edge
+		graph.addEdge("A", "D", 1.0);
+		assertEquals(List.of("B", "D"), symbols(graph.findRelatedStocks("A", 2)));
+
+		// Cached ids resolve to the latest quote of each symbol
+		Stock updated = new Stock("B", "B", 150.0, 100.0, 1000, "Technology");
+		graph.addStock(updated);
+		assertSame(updated, graph.findRelatedStocks("A", 2).get(0));
+	}
+
+	@Test
+	void clustersHandleLongChainsWithoutRecursion() {
+		StockGraph graph = new StockGraph();
+		int n = 200_000;
+		for (int i = 0; i < n; i++) {
+			graph.addStock(stock("S" + i));
+		}
+		for (int i = 1; i < n / 2; i++) {
+			graph.addEdge("S" + (i - 1), "S" + i, 1.0);
+		}
+		graph.addEdge("S1", "S0", 1.0);
+
+		List<List<Stock>> clusters = graph.findStockClusters();
+		assertEquals(1 + n / 2, clusters.size());
+		assertEquals(n / 2, clusters.get(0).size());
+		assertEquals(List.of("S1"), symbols(graph.getHubStocks(1)));
+	}
+
+	@Test
+	void sectorMembershipFollowsSectorChanges() {
+		StockGraph graph = new StockGraph();
+		graph.addStock(stock("A"));
+		graph.addStock(new Stock("B", "B", 50.0, 40.0, 10, "Energy"));
+		graph.addStock(stock("C"));
+
+		assertEquals(List.of("A", "C"), symbols(graph.getStocksBySector("Technology")));
+		assertEquals(2, graph.getSectorMetrics().size());
+
+		graph.addStock(new Stock("A", "A", 100.0, 100.0, 1000, "Energy"));
+		assertEquals(List.of("C"), symbols(graph.getStocksBySector("Technology")));
+		assertEquals(List.of("A", "B"), symbols(graph.getStocksBySector("Energy")));
+		assertTrue(graph.getStocksBySector("Utilities").isEmpty());
+
+		graph.addStock(new Stock("C", "C", 100.0, 100.0, 1000, "Energy"));
+		assertEquals(List.of("Energy"), List.copyOf(graph.getSectorMetrics().keySet()));
+
+		// Running totals follow replaced quotes: A and C flat, B up 25%
+		SectorMetrics energy = graph.getSectorMetrics().get("Energy");
+		assertEquals(3, energy.getStockCount());
+		assertEquals(1, energy.getAdvancers());
+		assertEquals(2010, energy.getTotalVolume());
+		assertEquals(25.0 / 3, energy.getAvgChange(), 1e-9);
+	}
+
+	private static List<String> symbols(List<Stock> stocks) {
+		return stocks.stream().map(Stock::getSymbol).toList();
+	}
+}
@@ -0,0 +1,51 @@
+package com.stocksensei.datastructures;
+
+import com.stocksensei.model.Stock;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolDictionaryTest {
+
+	@Test
+	void assignsDenseIdsAtFirstSightAcrossResizes() {
+		SymbolDictionary dictionary = new SymbolDictionary();
+		int n = 10_000;
+		for (int i = 0; i < n; i++) {
+			assertEquals(i, dictionary.intern("S" + i));
+		}
+		assertEquals(n, dictionary.size());
+		for (int i = 0; i < n; i++) {
+			assertEquals(i, dictionary.idOf("S" + i));
+			assertEquals(i, dictionary.intern(new String("S" + i)));
+			assertEquals("S" + i, dictionary.nameOf(i));
+		}
+		assertEquals(-1, dictionary.idOf("missing"));
+		assertEquals(-1, dictionary.idOf(null));
+		assertThrows(IllegalArgumentException.class, () -> dictionary.intern(null));
+		assertEquals(n, dictionary.size());
+	}
+
+	@Test
+	void indexedHeapRepositionsUpdatedSymbols() {
+		StockMaxHeap heap = new StockMaxHeap(Comparator.comparingDouble(Stock::getCurrentPrice));
+		for (int i = 0; i < 100; i++) {
+			heap.insertOrUpdate(new Stock("H" + i, "H" + i, i, i, 0, "Technology"));
+		}
+		heap.insertOrUpdate(new Stock("H3", "H3", 500, 3, 0, "Technology"));
+		heap.insertOrUpdate(new Stock("H99", "H99", 1, 99, 0, "Technology"));
+
+		assertEquals(100, heap.size());
+		assertEquals(List.of("H3", "H98", "H97"),
+				heap.getTopK(3).stream().map(Stock::getSymbol).toList());
+		assertEquals("H3", heap.extractMax().getSymbol());
+
+		// An extracted symbol is inserted again rather than updated in place
+		heap.insertOrUpdate(new Stock("H3", "H3", 3, 3, 0, "Technology"));
+		assertEquals(100, heap.size());
+		assertEquals("H98", heap.peekMax().getSymbol());
+	}
+}
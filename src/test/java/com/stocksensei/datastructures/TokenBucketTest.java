@@ -0,0 +1,32 @@
+package com.stocksensei.datastructures;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+	private static final long SECOND = 1_000_000_000L;
+
+	@Test
+	void allowsBurstThenRefillsAtRate() {
+		TokenBucket bucket = new TokenBucket(10, 5, 0);
+		for (int i = 0; i < 5; i++) {
+			assertEquals(0, bucket.tryAcquire(0));
+		}
+		long wait = bucket.tryAcquire(0);
+		assertEquals(SECOND / 10, wait, 1);
+
+		// 0.25 s refills 2.5 tokens
+		assertEquals(0, bucket.tryAcquire(SECOND / 4));
+		assertEquals(0, bucket.tryAcquire(SECOND / 4));
+		assertTrue(bucket.tryAcquire(SECOND / 4) > 0);
+		assertFalse(bucket.isFull(SECOND / 4));
+
+		// Never more than the burst after a long idle period
+		assertTrue(bucket.isFull(100 * SECOND));
+		for (int i = 0; i < 5; i++) {
+			assertEquals(0, bucket.tryAcquire(100 * SECOND));
+		}
+		assertTrue(bucket.tryAcquire(100 * SECOND) > 0);
+	}
+}
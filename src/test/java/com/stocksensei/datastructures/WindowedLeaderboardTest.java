@@ -0,0 +1,62 @@
+package com.stocksensei.datastructures;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WindowedLeaderboardTest {
+
+	private static List<String> symbols(List<WindowedLeaderboard.Mover> movers) {
+		return movers.stream().map(WindowedLeaderboard.Mover::getSymbol).collect(Collectors.toList());
+	}
+
+	@Test
+	void ranksByWindowedReturnAndExpiresOldSamples() {
+		WindowedLeaderboard leaderboard = new WindowedLeaderboard(60_000);
+		leaderboard.record("A", 0, 100, 1000);
+		leaderboard.record("B", 0, 100, 10);
+		leaderboard.record("A", 30_000, 110, 1004);
+		leaderboard.record("B", 30_000, 105, 12);
+
+		assertEquals(List.of("A", "B"), symbols(leaderboard.getTopK(WindowedLeaderboard.CHANGE, 2)));
+		assertEquals(10.0, leaderboard.get("A").getChangePercent(), 1e-9);
+		// Volume is a level: the window's volume is its rise since the first sample
+		assertEquals(4, leaderboard.get("A").getVolume());
+		assertEquals(2, leaderboard.get("B").getVolume());
+
+		// The t=0 samples leave the window; returns and volume stay measured from the last sample before it
+		leaderboard.record("B", 70_000, 115.5, 25);
+		assertEquals(15.5, leaderboard.get("B").getChangePercent(), 1e-9);
+		assertEquals(10.0, leaderboard.get("A").getChangePercent(), 1e-9);
+		assertEquals(1, leaderboard.get("A").getSamples());
+		assertEquals(List.of("B", "A"), symbols(leaderboard.getTopK(WindowedLeaderboard.CHANGE, 2)));
+		assertEquals(15, leaderboard.get("B").getVolume());
+		assertEquals(4, leaderboard.get("A").getVolume());
+		// A's level is higher, but B traded more inside the window
+		assertEquals(List.of("B", "A"), symbols(leaderboard.getTopK(WindowedLeaderboard.VOLUME, 2)));
+
+		// A symbol without samples in the window drops out of every ranking
+		leaderboard.advance(95_000);
+		assertNull(leaderboard.get("A"));
+		assertEquals(List.of("B"), symbols(leaderboard.getTopK(WindowedLeaderboard.VOLUME, 5)));
+		assertEquals(13, leaderboard.get("B").getVolume());
+	}
+
+	@Test
+	void tracksWindowHighAndLowWithMonotonicDeques() {
+		WindowedLeaderboard leaderboard = new WindowedLeaderboard(10_000);
+		double[] prices = {100, 120, 90, 110, 105};
+		for (int t = 0; t < prices.length; t++) {
+			leaderboard.record("A", t * 4_000L, prices[t], 1);
+		}
+		// Window (6s, 16s] holds 90 (t=8s), 110 and 105; base is 120, the last price before it
+		assertEquals((110 - 90) / 120.0 * 100, leaderboard.get("A").getRangePercent(), 1e-9);
+
+		// 90 expires: the low moves up and becomes the new base
+		leaderboard.advance(20_000);
+		assertEquals((110 - 105) / 90.0 * 100, leaderboard.get("A").getRangePercent(), 1e-9);
+	}
+}
@@ -0,0 +1,62 @@
+package com.stocksensei.service;
+
+import com.stocksensei.model.Alert;
+import com.stocksensei.model.AlertCondition;
+import com.stocksensei.model.AlertRule;
+import com.stocksensei.model.Stock;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertEngineTest {
+
+	private static Stock stock(double price, long volume) {
+		return new Stock("AAPL", "Apple Inc.", price, 100.0, volume, "Technology");
+	}
+
+	@Test
+	void firesOnlyRulesCrossedByTheMove() {
+		AlertEngine engine = new AlertEngine();
+		AlertRule above105 = engine.registerRule(new AlertRule("u1", "AAPL", AlertCondition.PRICE_CROSSES_ABOVE, 105));
+		engine.registerRule(new AlertRule("u1", "AAPL", AlertCondition.PRICE_CROSSES_ABOVE, 120));
+		AlertRule below95 = engine.registerRule(new AlertRule("u2", "AAPL", AlertCondition.PRICE_CROSSES_BELOW, 95));
+		engine.registerRule(new AlertRule("u2", "MSFT", AlertCondition.PRICE_CROSSES_ABOVE, 1));
+
+		engine.evaluate(null, stock(100, 1000));
+
+		List<Alert> up = engine.evaluate(stock(100, 1000), stock(110, 1000));
+		assertEquals(1, up.size());
+		assertEquals(above105.getId(), up.get(0).getRuleId());
+
+		assertTrue(engine.evaluate(stock(110, 1000), stock(106, 1000)).isEmpty());
+
+		List<Alert> down = engine.evaluate(stock(106, 1000), stock(90, 1000));
+		assertEquals(1, down.size());
+		assertEquals(below95.getId(), down.get(0).getRuleId());
+	}
+
+	@Test
+	void firesVolumeSpikeAgainstRunningAverage() {
+		AlertEngine engine = new AlertEngine();
+		engine.registerRule(new AlertRule("u1", "AAPL", AlertCondition.VOLUME_SPIKE, 3.0));
+
+		engine.evaluate(null, stock(100, 1000));
+		assertTrue(engine.evaluate(stock(100, 1000), stock(100, 1100)).isEmpty());
+
+		List<Alert> fired = engine.evaluate(stock(100, 1100), stock(100, 5000));
+		assertEquals(1, fired.size());
+		assertTrue(fired.get(0).getValue() >= 3.0);
+	}
+
+	@Test
+	void removedRulesNoLongerFire() {
+		AlertEngine engine = new AlertEngine();
+		AlertRule rule = engine.registerRule(new AlertRule("u1", "AAPL", AlertCondition.PRICE_CROSSES_ABOVE, 105));
+
+		assertTrue(engine.removeRule(rule.getId()));
+		assertTrue(engine.getRulesForUser("u1").isEmpty());
+		assertTrue(engine.evaluate(stock(100, 1000), stock(110, 1000)).isEmpty());
+	}
+}
@@ -0,0 +1,76 @@
+package com.stocksensei.service;
+
+import com.stocksensei.datastructures.Candles;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandleSegmentStoreTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void readsNewestCandlesAcrossSegmentsAndReindexes() throws Exception {
+		CandleSegmentStore store = new CandleSegmentStore(directory);
+		store.open();
+		// Three segments of ten one-minute candles each: minutes 0-9, 10-19, 20-29
+		for (int segment = 0; segment < 3; segment++) {
+			Candles candles = new Candles();
+			for (int i = segment * 10; i < segment * 10 + 10; i++) {
+				candles.add(i * 60_000L, i, i + 1, i - 1, i + 0.5, 100 + i);
+			}
+			store.write("BRK.B", candles, 0, candles.size());
+		}
+		assertEquals(3, store.segmentCount("BRK.B"));
+
+		Candles newest = store.read("BRK.B", Long.MIN_VALUE, Long.MAX_VALUE, 15);
+		assertEquals(15, newest.size());
+		assertEquals(15 * 60_000L, newest.timestamp(0));
+		assertEquals(29 * 60_000L, newest.timestamp(14));
+		assertEquals(29.5, newest.close(14));
+		assertEquals(129, newest.volume(14));
+
+		Candles range = store.read("BRK.B", 8 * 60_000L, 11 * 60_000L, 100);
+		assertEquals(4, range.size());
+		assertEquals(8 * 60_000L, range.timestamp(0));
+		assertEquals(11 * 60_000L, range.timestamp(3));
+		assertEquals(0, store.read("BRK.B", 40 * 60_000L, Long.MAX_VALUE, 10).size());
+		assertEquals(0, store.read("MSFT", Long.MIN_VALUE, Long.MAX_VALUE, 10).size());
+
+		// A restart finds the same segments
+		CandleSegmentStore reopened = new CandleSegmentStore(directory);
+		reopened.open();
+		assertEquals(3, reopened.segmentCount("BRK.B"));
+		assertEquals(30, reopened.read("BRK.B", Long.MIN_VALUE, Long.MAX_VALUE, 1000).size());
+
+		reopened.clear();
+		assertEquals(0, reopened.read("BRK.B", Long.MIN_VALUE, Long.MAX_VALUE, 10).size());
+		try (var files = Files.list(directory)) {
+			assertEquals(0, files.count());
+		}
+	}
+
+	@Test
+	void mergesOverlappingSegments() throws Exception {
+		CandleSegmentStore store = new CandleSegmentStore(directory);
+		Candles first = new Candles();
+		first.add(0, 1, 1, 1, 1, 1);
+		first.add(120_000, 3, 3, 3, 3, 3);
+		Candles second = new Candles();
+		second.add(60_000, 2, 2, 2, 2, 2);
+		second.add(180_000, 4, 4, 4, 4, 4);
+		store.write("AAPL", first, 0, 2);
+		store.write("AAPL", second, 0, 2);
+
+		Candles merged = store.read("AAPL", Long.MIN_VALUE, Long.MAX_VALUE, 3);
+		assertEquals(3, merged.size());
+		assertEquals(2, merged.close(0));
+		assertEquals(3, merged.close(1));
+		assertEquals(4, merged.close(2));
+	}
+}
@@ -0,0 +1,106 @@
+package com.stocksensei.service;
+
+import com.stocksensei.model.Stock;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyTrackerTest {
+
+	private final LatencyTracker tracker = new LatencyTracker();
+
+	@Test
+	void stampKeepsTheIngestTimeOfTheSource() {
+		Stock fresh = new Stock();
+		long before = System.nanoTime();
+		LatencyTracker.stamp(fresh);
+		assertTrue(fresh.getIngestNanos() - before >= 0);
+
+		Stock loaded = new Stock();
+		loaded.setIngestNanos(42);
+		LatencyTracker.stamp(loaded);
+		assertEquals(42, loaded.getIngestNanos());
+	}
+
+	@Test
+	void recordsTimeSinceIngestPerStage() {
+		tracker.record(LatencyTracker.Stage.STORE, ago(5));
+		tracker.record(LatencyTracker.Stage.STORE, ago(5));
+		// Unstamped, from the future or beyond the trackable range
+		tracker.record(LatencyTracker.Stage.STORE, 0);
+		tracker.record(LatencyTracker.Stage.RANKING, System.nanoTime() + TimeUnit.SECONDS.toNanos(1));
+		tracker.record(LatencyTracker.Stage.SEND, ago(TimeUnit.MINUTES.toMillis(2)));
+
+		Map<String, Object> report = tracker.report();
+		assertEquals(2L, stage(report, "store").get("count"));
+		assertTrue((double) stage(report, "store").get("p50") >= 5000);
+		assertEquals(0L, stage(report, "ranking").get("count"));
+		assertEquals(0L, stage(report, "send").get("count"));
+
+		// Reports accumulate until a reset
+		tracker.record(LatencyTracker.Stage.STORE, ago(1));
+		assertEquals(3L, stage(tracker.report(), "store").get("count"));
+	}
+
+	@Test
+	void echoesAreTimedFromTheBroadcastIngestTime() {
+		tracker.broadcast(7, ago(5));
+		tracker.broadcast(9, ago(1));
+		tracker.recordEcho("s1", 7);
+		tracker.recordEcho("s2", 7);
+		// Never broadcast by this node, or without a session
+		tracker.recordEcho("s1", 8);
+		tracker.recordEcho("s1", 0);
+		tracker.recordEcho(null, 9);
+
+		Map<String, Object> report = tracker.report();
+		assertEquals(2L, stage(report, "echo").get("count"));
+		assertTrue((double) stage(report, "echo").get("p50") >= 5000);
+
+		// A session's echo counts once; replays and older sequences are ignored
+		for (int i = 0; i < 100; i++) {
+			tracker.recordEcho("s1", 7);
+		}
+		tracker.recordEcho("s1", 9);
+		tracker.recordEcho("s1", 7);
+		assertEquals(3L, stage(tracker.report(), "echo").get("count"));
+
+		// A closed session starts over
+		tracker.forgetSession("s1");
+		tracker.recordEcho("s1", 7);
+		assertEquals(4L, stage(tracker.report(), "echo").get("count"));
+
+		// Evicted by later broadcasts
+		for (long sequence = 10; sequence <= 10 + 4096; sequence++) {
+			tracker.broadcast(sequence, System.nanoTime());
+		}
+		tracker.recordEcho("s3", 9);
+		assertEquals(4L, stage(tracker.report(), "echo").get("count"));
+	}
+
+	@Test
+	void resetStartsAFreshInterval() {
+		tracker.record(LatencyTracker.Stage.SERIALIZE, ago(1));
+		assertEquals(1L, stage(tracker.report(), "serialize").get("count"));
+		long since = (long) tracker.report().get("since");
+
+		tracker.record(LatencyTracker.Stage.SERIALIZE, ago(1));
+		tracker.reset();
+
+		Map<String, Object> report = tracker.report();
+		assertEquals(0L, stage(report, "serialize").get("count"));
+		assertTrue((long) report.get("since") >= since);
+	}
+
+	private static long ago(long millis) {
+		return System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(millis);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> stage(Map<String, Object> report, String stage) {
+		return (Map<String, Object>) report.get(stage);
+	}
+}
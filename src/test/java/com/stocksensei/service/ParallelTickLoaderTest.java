@@ -0,0 +1,102 @@
+package com.stocksensei.service;
+
+import com.stocksensei.datastructures.PriceSeries;
+import com.stocksensei.model.Stock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelTickLoaderTest {
+
+	@TempDir
+	Path directory;
+
+	private final ForkJoinPool pool = new ForkJoinPool(4);
+
+	@AfterEach
+	void shutdown() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	void loadsEveryLineAcrossChunkBoundaries() throws Exception {
+		StringBuilder file = new StringBuilder(TickCsvParser.HEADER).append("\r\n");
+		for (int i = 0; i < 3000; i++) {
+			String symbol = "S" + (i % 7);
+			Stock stock = new Stock(symbol, "Stock, " + symbol, 100 + i / 100.0, 100, i, "Technology");
+			file.append(TickCsvParser.format(1_000L * i, stock)).append(i % 2 == 0 ? "\n" : "\r\n");
+			if (i == 1500) {
+				file.append("not,a,tick\n");
+			}
+		}
+		Path path = directory.resolve("history.csv");
+		Files.write(path, file.toString().getBytes(StandardCharsets.UTF_8));
+
+		// Chunks far smaller than the file split most lines somewhere
+		ParallelTickLoader.Result result = new ParallelTickLoader(pool, 100, s -> !s.equals("S6"), 97).load(path);
+
+		assertEquals(3000 - 3000 / 7, result.getTicks());
+		assertEquals(3000 / 7, result.getSkipped());
+		assertEquals(1, result.getMalformed());
+		assertEquals(Files.size(path), result.getBytes());
+		assertTrue(result.getChunks() > 100);
+
+		Map<String, Stock> latest = new HashMap<>();
+		result.getLatestQuotes(ZoneOffset.UTC).forEach(stock -> latest.put(stock.getSymbol(), stock));
+		assertEquals(6, latest.size());
+		Stock s0 = latest.get("S0");
+		assertEquals(2996, s0.getVolume());
+		assertEquals("Stock, S0", s0.getName());
+		assertEquals(2_996_000L, s0.getLastUpdated().toInstant(ZoneOffset.UTC).toEpochMilli());
+
+		// Newest 100 points of S3, in file order
+		PriceSeries.Points points = result.getHistory().get("S3").range(Long.MIN_VALUE, Long.MAX_VALUE, 1000);
+		assertEquals(100, points.size());
+		for (int j = 0; j < 100; j++) {
+			int i = 2999 - 7 * (99 - j);
+			assertEquals(1_000L * i, points.timestamps[j]);
+			assertEquals(i, points.volumes[j]);
+		}
+	}
+
+	@Test
+	void priceSeriesKeepsNewestPointsInOrder() {
+		PriceSeries series = new PriceSeries(50);
+		for (int i = 0; i < 30; i++) {
+			series.append(i, i, i);
+		}
+		long[] ts = new long[40];
+		double[] px = new double[40];
+		long[] vol = new long[40];
+		for (int i = 0; i < 40; i++) {
+			ts[i] = 60 + i;
+			px[i] = ts[i];
+			vol[i] = ts[i];
+		}
+		series.appendAll(ts, px, vol, 0, 40);
+
+		assertEquals(50, series.size());
+		PriceSeries.Points all = series.range(Long.MIN_VALUE, Long.MAX_VALUE, 100);
+		assertEquals(20, all.timestamps[0]);
+		assertEquals(29, all.timestamps[9]);
+		assertEquals(60, all.timestamps[10]);
+		assertEquals(99, all.timestamps[49]);
+
+		PriceSeries.Points window = series.range(25, 65, 3);
+		assertArrayEquals(new long[]{63, 64, 65}, window.timestamps);
+
+		// Late points are clamped to the newest timestamp
+		series.append(10, 1.5, 1);
+		assertEquals(99, series.last().timestamps[0]);
+		assertEquals(1.5, series.last().prices[0]);
+	}
+}
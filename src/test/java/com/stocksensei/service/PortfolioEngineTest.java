@@ -0,0 +1,84 @@
+package com.stocksensei.service;
+
+import com.stocksensei.model.Portfolio;
+import com.stocksensei.model.Position;
+import com.stocksensei.model.Stock;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PortfolioEngineTest {
+	private static final String[] SYMBOLS = {"AAPL", "MSFT", "JPM", "XOM", "PFE"};
+	private static final String[] SECTORS = {"Technology", "Technology", "Finance", "Energy", "Healthcare"};
+
+	@Test
+	void revaluesOnlyPortfoliosHoldingTheSymbol() {
+		PortfolioEngine engine = new PortfolioEngine();
+		Portfolio tech = engine.createPortfolio(new Portfolio("u1", "tech",
+				List.of(new Position("AAPL", 10, 150), new Position("MSFT", 2, 300))));
+		Portfolio bank = engine.createPortfolio(new Portfolio("u1", "bank", List.of(new Position("JPM", 5, 190))));
+		engine.drainChanges();
+
+		engine.revalue(new Stock("AAPL", "Apple Inc.", 170, 160, 1000, "Technology"));
+		engine.revalue(new Stock("MSFT", "Microsoft Corp.", 350, 355, 1000, "Technology"));
+
+		List<PortfolioValuation> changed = engine.drainChanges();
+		assertEquals(1, changed.size());
+		PortfolioValuation valuation = changed.get(0);
+		assertEquals(tech.getId(), valuation.getPortfolioId());
+		assertEquals(10 * 170 + 2 * 350, valuation.getMarketValue(), 1e-9);
+		assertEquals(10 * 150 + 2 * 300, valuation.getCostBasis(), 1e-9);
+		assertEquals(10 * (170 - 160) + 2 * (350 - 355), valuation.getDayPnl(), 1e-9);
+		assertEquals(Map.of("Technology", 1.0), valuation.getSectorExposure());
+
+		assertEquals(0, engine.getValuation(bank.getId()).getMarketValue());
+		assertEquals(2, engine.getPortfoliosForUser("u1").size());
+	}
+
+	@Test
+	void incrementalTotalsMatchFullRevaluation() {
+		PortfolioEngine engine = new PortfolioEngine();
+		Random random = new Random(7);
+		List<Long> ids = new ArrayList<>();
+		for (int p = 0; p < 200; p++) {
+			List<Position> positions = new ArrayList<>();
+			for (String symbol : SYMBOLS) {
+				if (random.nextBoolean()) {
+					positions.add(new Position(symbol, 1 + random.nextInt(100), 50 + random.nextInt(100)));
+				}
+			}
+			ids.add(engine.createPortfolio(new Portfolio("u" + p % 10, "p" + p, positions)).getId());
+		}
+
+		Map<String, Stock> last = new HashMap<>();
+		for (int tick = 0; tick < 5000; tick++) {
+			int s = random.nextInt(SYMBOLS.length);
+			double close = 100 + s;
+			Stock stock = new Stock(SYMBOLS[s], SYMBOLS[s], close * (0.9 + random.nextDouble() / 5), close, 1000, SECTORS[s]);
+			engine.revalue(stock);
+			last.put(stock.getSymbol(), stock);
+			if (tick == 2500) {
+				// Positions change mid-stream; the reverse index must follow
+				engine.setPosition(ids.get(0), new Position("XOM", 42, 80));
+				engine.setPosition(ids.get(1), new Position("AAPL", 0, 0));
+			}
+		}
+
+		for (long id : ids) {
+			double value = 0;
+			double closeValue = 0;
+			for (Position position : engine.getPortfolio(id).getPositions()) {
+				Stock stock = last.get(position.getSymbol());
+				value += position.getQuantity() * stock.getCurrentPrice();
+				closeValue += position.getQuantity() * stock.getPreviousClose();
+			}
+			PortfolioValuation valuation = engine.getValuation(id);
+			assertEquals(value, valuation.getMarketValue(), 1e-6);
+			assertEquals(value - closeValue, valuation.getDayPnl(), 1e-6);
+			double exposure = valuation.getSectorExposure().values().stream().mapToDouble(Double::doubleValue).sum();
+			assertEquals(value != 0 ? 1.0 : 0.0, exposure, 1e-9);
+		}
+	}
+}
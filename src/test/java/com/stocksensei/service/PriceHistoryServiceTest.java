@@ -0,0 +1,118 @@
+package com.stocksensei.service;
+
+import com.stocksensei.datastructures.PriceSeries;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceHistoryServiceTest {
+
+	@TempDir
+	Path directory;
+
+	private PriceHistoryService history;
+
+	@BeforeEach
+	void setUp() {
+		history = new PriceHistoryService();
+		ReflectionTestUtils.setField(history, "capacity", 4);
+		ReflectionTestUtils.setField(history, "candleInterval", "10ms");
+		ReflectionTestUtils.setField(history, "coldDirectory", directory.toString());
+		ReflectionTestUtils.setField(history, "segmentCandles", 2);
+		history.initialize();
+	}
+
+	@Test
+	void overflowingLoadsRollTheOldestPointsUpOnce() {
+		history.appendAll("AAPL", points(1, 4));
+		history.appendAll("AAPL", points(5, 8));
+
+		// 1-4 left the raw tier as the candle of bucket 0; 5-8 are raw, each exactly once
+		List<PricePoint> all = history.getHistory("AAPL", Long.MIN_VALUE, Long.MAX_VALUE, 100);
+		assertEquals(List.of(0L, 5L, 6L, 7L, 8L), timestamps(all));
+		PricePoint candle = all.get(0);
+		assertEquals(101.0, candle.getOpen());
+		assertEquals(104.0, candle.getHigh());
+		assertEquals(101.0, candle.getLow());
+		assertEquals(104.0, candle.getPrice());
+		assertEquals(1004L, candle.getVolume());
+		assertEquals(10L, candle.getInterval());
+		assertNull(all.get(1).getInterval());
+
+		// A load larger than the raw tier: its oldest points go straight to candles, the newest stay raw
+		history.appendAll("AAPL", points(10, 25));
+		all = history.getHistory("AAPL", Long.MIN_VALUE, Long.MAX_VALUE, 100);
+		assertEquals(List.of(0L, 10L, 20L, 22L, 23L, 24L, 25L), timestamps(all));
+		// Spilled again into the same bucket: the close moves on, volume stays a level
+		assertEquals(108.0, all.get(0).getPrice());
+		assertEquals(1008L, all.get(0).getVolume());
+		assertEquals(110.0, all.get(1).getOpen());
+		assertEquals(119.0, all.get(1).getPrice());
+		assertEquals(121.0, all.get(2).getPrice());
+	}
+
+	@Test
+	void historySpansRawCandlesAndSegments() {
+		history.appendAll("AAPL", points(1, 40));
+		// Buckets 0, 10 and 20 are finished; bucket 30 may still grow
+		assertEquals(1, history.flush(false));
+		history.appendAll("AAPL", points(41, 60));
+
+		List<PricePoint> all = history.getHistory("AAPL", Long.MIN_VALUE, Long.MAX_VALUE, 100);
+		assertEquals(List.of(0L, 10L, 20L, 30L, 40L, 50L, 57L, 58L, 59L, 60L), timestamps(all));
+		assertEquals(109.0, all.get(0).getPrice());
+		assertEquals(139.0, all.get(3).getPrice());
+
+		// The newest limit points, and ranges inside the cold tier alone
+		assertEquals(List.of(50L, 57L, 58L, 59L, 60L),
+				timestamps(history.getHistory("AAPL", Long.MIN_VALUE, Long.MAX_VALUE, 5)));
+		assertEquals(List.of(10L, 20L), timestamps(history.getHistory("AAPL", 5, 25, 100)));
+
+		// Every candle on disk: the same answer from the segments
+		history.flush(true);
+		assertEquals(timestamps(all), timestamps(history.getHistory("AAPL", Long.MIN_VALUE, Long.MAX_VALUE, 100)));
+	}
+
+	@Test
+	void firstPointComesFromTheOldestTierHoldingOne() {
+		assertNull(history.getFirst("AAPL", Long.MIN_VALUE, Long.MAX_VALUE));
+		assertEquals(Long.MAX_VALUE, history.getOldestTimestamp());
+
+		// Buckets 0-20 in a segment, bucket 30 in memory, 37-40 raw
+		history.appendAll("AAPL", points(1, 40));
+		assertEquals(1, history.flush(false));
+
+		PricePoint cold = history.getFirst("AAPL", Long.MIN_VALUE, Long.MAX_VALUE);
+		assertEquals(0L, cold.getTimestamp());
+		assertEquals(101.0, cold.getOpen());
+		assertEquals(109.0, cold.getPrice());
+		assertEquals(10L, history.getFirst("AAPL", 5, 15).getTimestamp());
+		assertEquals(130.0, history.getFirst("AAPL", 25, Long.MAX_VALUE).getOpen());
+		PricePoint raw = history.getFirst("AAPL", 38, Long.MAX_VALUE);
+		assertEquals(138.0, raw.getPrice());
+		assertNull(raw.getOpen());
+		assertNull(history.getFirst("AAPL", 41, Long.MAX_VALUE));
+		assertNull(history.getFirst("AAPL", 21, 29));
+
+		assertEquals(0L, history.getOldestTimestamp());
+	}
+
+	// Points at timestamps first..last, priced 100 + timestamp
+	private static PriceSeries.Points points(int first, int last) {
+		PriceSeries series = new PriceSeries(last - first + 1);
+		for (int t = first; t <= last; t++) {
+			series.append(t, 100 + t, 1000 + t);
+		}
+		return series.range(Long.MIN_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE);
+	}
+
+	private static List<Long> timestamps(List<PricePoint> points) {
+		return points.stream().map(PricePoint::getTimestamp).toList();
+	}
+}
@@ -0,0 +1,64 @@
+package com.stocksensei.service;
+
+import com.stocksensei.model.Stock;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickFileReaderTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void parsesQuotedFieldsAndSkipsMalformedLines() {
+		TickCsvParser parser = new TickCsvParser();
+		byte[] line = "1700000000000,JNJ,\"Johnson, \"\"J&J\"\"\",Healthcare,156.8,150.25,1200"
+				.getBytes(StandardCharsets.UTF_8);
+		Stock stock = parser.parse(ByteBuffer.wrap(line), 0, line.length);
+
+		assertEquals("JNJ", stock.getSymbol());
+		assertEquals("Johnson, \"J&J\"", stock.getName());
+		assertEquals(156.8, stock.getCurrentPrice());
+		assertEquals(150.25, stock.getPreviousClose());
+		assertEquals(1200, stock.getVolume());
+		assertEquals(1700000000000L, parser.getTimestamp());
+
+		byte[] bad = "1700000000000,JNJ,Johnson,Healthcare,abc,150,1200".getBytes(StandardCharsets.UTF_8);
+		assertNull(parser.parse(ByteBuffer.wrap(bad), 0, bad.length));
+		assertEquals(1, parser.getMalformedLines());
+	}
+
+	@Test
+	void readsLinesAcrossSegmentBoundaries() throws Exception {
+		List<String> lines = new ArrayList<>();
+		lines.add(TickCsvParser.HEADER);
+		for (int i = 0; i < 200; i++) {
+			Stock stock = new Stock("S" + i, "Stock " + i, 100 + i / 3.0, 100, 1000 + i, "Technology");
+			lines.add(TickCsvParser.format(1_000L * i, stock));
+		}
+		Path file = directory.resolve("ticks.csv");
+		Files.write(file, lines, StandardCharsets.UTF_8);
+
+		// Segments far smaller than the file force many remaps mid-line
+		try (TickFileReader reader = new TickFileReader(file, 256)) {
+			for (int i = 0; i < 200; i++) {
+				Stock stock = reader.next();
+				assertEquals("S" + i, stock.getSymbol());
+				assertEquals(Math.round((100 + i / 3.0) * 1e6) / 1e6, stock.getCurrentPrice());
+				assertEquals(1_000L * i, reader.getTimestamp());
+			}
+			assertNull(reader.next());
+			assertEquals(Files.size(file), reader.getBytesRead());
+			assertEquals(0, reader.getMalformedLines());
+		}
+	}
+}